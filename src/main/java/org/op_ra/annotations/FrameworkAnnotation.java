@@ -41,4 +41,14 @@ public @interface FrameworkAnnotation {
      * @return An array of {@link CategoryType} enums. Defaults to {CategoryType.REGRESSION}.
      */
     public CategoryType[] category() default {CategoryType.REGRESSION}; // Default to REGRESSION if not specified
+
+    /**
+     * Specifies latency or error-rate objectives checked after the test method passes, e.g.
+     * {@code slo = {"GET /erx/drug/search_drug_detail p95 < 300ms over 500",
+     * "GET /erx/drug/search_drug_detail error_rate < 0.5% over 500"}}.
+     * A missed objective fails the test. See {@link org.op_ra.metrics.LatencySlo} for the format.
+     *
+     * @return An array of SLO specs. Defaults to none.
+     */
+    public String[] slo() default {};
 }
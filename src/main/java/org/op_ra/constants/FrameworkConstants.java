@@ -3,6 +3,7 @@ package org.op_ra.constants;
 import lombok.Getter; // Assuming Lombok is used for getters as per typical modern Java projects
 import org.op_ra.enums.ConfigProperties;
 import org.op_ra.utils.PropertyUtils;
+import org.op_ra.utils.TestShard;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -14,6 +15,10 @@ import java.util.Date;
  * Many paths are constructed dynamically based on the project structure and current date/time.
  * It uses {@link PropertyUtils} to fetch base paths or environment-specific details from configuration files.
  * </p>
+ * <p>
+ * The mutable values are {@code volatile} and the report path is generated under a lock, so they can be read
+ * from tests running in parallel.
+ * </p>
  */
 public final class FrameworkConstants {
 
@@ -31,17 +36,18 @@ public final class FrameworkConstants {
     private static final String JSON_CONFIG_FILE_PATH = RESOURCES_PATH + "/config/jsonConfig.json";
     private static final String EXCEL_FILE_PATH = RESOURCES_PATH + "/excel/api_test_data.xlsx"; // Example, make configurable
     private static final String EXTENT_REPORT_FOLDER_PATH = USER_DIR + "/extent-test-output/";
-    private static String extentReportFilePath = ""; // Dynamically set
+    private static volatile String extentReportFilePath = ""; // Dynamically set
 
     // Test Data JSON paths - these might be environment specific
     private static final String SQL_QUERY_JSON_FILE_PATH = RESOURCES_PATH + "/testdata/SqlQuery.json";
-    private static String testDataJsonFilePath = ""; // Dynamically set based on environment
-    private static String testCaseJsonPath = "";     // Dynamically set based on run manager
+    private static final String TEST_DATA_SNAPSHOT_PATH = RESOURCES_PATH + "/testdata/database/test_data_snapshot.json";
+    private static volatile String testDataJsonFilePath = ""; // Dynamically set based on environment
+    private static volatile String testCaseJsonPath = "";     // Dynamically set based on run manager
 
     // Report and Runner details
-    @Getter private static String runmanager; // Using Lombok @Getter, ensure dependency is present
-    @Getter private static String environment;
-    @Getter private static String reportClassName; // Name of the class/suite for report naming
+    @Getter private static volatile String runmanager; // Using Lombok @Getter, ensure dependency is present
+    @Getter private static volatile String environment;
+    @Getter private static volatile String reportClassName; // Name of the class/suite for report naming
     @Getter private static String serviceName; // Name of the service under test, from config
 
     // Static initializer block to load some values from properties or set defaults
@@ -86,13 +92,15 @@ public final class FrameworkConstants {
 
     /**
      * Generates and returns the file path for the Extent HTML report.
-     * The file name includes the {@link #reportClassName}, service name, and a timestamp.
-     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00.html"
+     * The file name includes the {@link #reportClassName}, service name, and a timestamp, and the shard when the
+     * suite is split across JVMs ({@link TestShard#getFileSuffix()}).
+     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00.html", or
+     * "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00_shard1of4.html" for shard 1 of 4
      * If the report path has already been generated for the current execution, it returns the existing path.
      *
      * @return Absolute path for the Extent report HTML file.
      */
-    public static String getReportPath() {
+    public static synchronized String getReportPath() {
         if (extentReportFilePath.isEmpty()) {
             SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
             String timestamp = sdf.format(new Date());
@@ -100,7 +108,7 @@ public final class FrameworkConstants {
             String rcn = reportClassName != null ? reportClassName.replaceAll("[^a-zA-Z0-9-_\.]", "_") : "DefaultSuite";
             String sn = serviceName != null ? serviceName.replaceAll("[^a-zA-Z0-9-_\.]", "_") : "DefaultService";
 
-            extentReportFilePath = EXTENT_REPORT_FOLDER_PATH + "ExtentReport_" + sn + "_" + rcn + "_" + timestamp + ".html";
+            extentReportFilePath = EXTENT_REPORT_FOLDER_PATH + "ExtentReport_" + sn + "_" + rcn + "_" + timestamp + TestShard.getFileSuffix() + ".html";
             java.io.File reportDir = new java.io.File(EXTENT_REPORT_FOLDER_PATH);
             if (!reportDir.exists()) {
                 reportDir.mkdirs(); // Create the directory if it doesn'''t exist
@@ -109,18 +117,96 @@ public final class FrameworkConstants {
         return extentReportFilePath;
     }
 
+    /**
+     * Returns the file path for the machine-readable latency summary written next to the Extent report.
+     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00_latency.json"
+     *
+     * @return Absolute path for the latency JSON file.
+     * @see #getReportPath()
+     */
+    public static String getLatencyReportPath() {
+        return getReportPath().replaceFirst("\\.html$", "") + "_latency.json";
+    }
+
+    /**
+     * Returns the file the Extent report is also written to as JSON when the suite is split across JVMs, so the
+     * shards can be merged into one report by {@link org.op_ra.reports.ShardReportMerger}.
+     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00_shard1of4_extent.json"
+     *
+     * @return Absolute path for the Extent JSON archive.
+     * @see #getReportPath()
+     */
+    public static String getExtentJsonPath() {
+        return getReportPath().replaceFirst("\\.html$", "") + "_extent.json";
+    }
+
+    /**
+     * Returns the file finished tests are appended to (as JSON lines) when the report is built from an event log,
+     * see {@link org.op_ra.reports.ExtentEventLog}.
+     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00_events.jsonl"
+     *
+     * @return Absolute path for the report event log.
+     * @see #getReportPath()
+     */
+    public static String getReportEventLogPath() {
+        return getReportPath().replaceFirst("\\.html$", "") + "_events.jsonl";
+    }
+
+    /**
+     * Returns the zip the report files of this run are archived in at the end of the suite, when enabled.
+     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00.zip"
+     *
+     * @return Absolute path for the report archive.
+     * @see #getReportPath()
+     */
+    public static String getReportArchivePath() {
+        return getReportPath().replaceFirst("\\.html$", "") + ".zip";
+    }
+
+    /**
+     * Returns the folder, next to the Extent reports, holding the response bodies too large to embed in a report.
+     * The files are gzip-compressed and named after the SHA-256 of the body, so a body is stored once however
+     * often it is logged, and the reports link to them relative to their own folder ({@code bodies/...}).
+     *
+     * @return Absolute path of the response body folder, ending with '/'.
+     */
+    public static String getResponseBodyFolderPath() {
+        return EXTENT_REPORT_FOLDER_PATH + "bodies/";
+    }
+
+    /**
+     * Returns the file that test results are appended to (as JSON lines) when they cannot be stored in the database.
+     * Example: "ExtentReport_MyService_MyTestSuite_2023-10-27_10-30-00_results_spill.jsonl"
+     *
+     * @return Absolute path for the result spill file.
+     * @see org.op_ra.utils.ReportDatabaseController
+     */
+    public static String getResultSpillPath() {
+        return getReportPath().replaceFirst("\\.html$", "") + "_results_spill.jsonl";
+    }
+
     /**
      * Sets the class/suite name to be used in the ExtentReport file name.
      * This is typically called from a listener when a suite or class starts.
      *
      * @param reportClassName The name of the test class or suite.
      */
-    public static void setReportClassName(String reportClassName) {
+    public static synchronized void setReportClassName(String reportClassName) {
         FrameworkConstants.reportClassName = reportClassName;
         // Reset extentReportFilePath so it gets regenerated with the new class name
         FrameworkConstants.extentReportFilePath = "";
     }
 
+    /**
+     * Uses the report path of another JVM, so that the paths derived from it (event log, JSON archive) match that
+     * run; used when its report is rendered in a separate JVM.
+     *
+     * @param reportPath The value of {@link #getReportPath()} in the run whose report is rendered.
+     */
+    public static synchronized void setReportPath(String reportPath) {
+        FrameworkConstants.extentReportFilePath = reportPath;
+    }
+
     /**
      * Gets the file path for the SQL query JSON file (SqlQuery.json).
      *
@@ -130,6 +216,15 @@ public final class FrameworkConstants {
         return SQL_QUERY_JSON_FILE_PATH;
     }
 
+    /**
+     * Gets the file path of the test-data snapshot written and read by {@link org.op_ra.utils.TestDataStore}.
+     *
+     * @return Absolute path to the test_data_snapshot.json file.
+     */
+    public static String getTestDataSnapshotPath() {
+        return TEST_DATA_SNAPSHOT_PATH;
+    }
+
     /**
      * Gets the file path for the environment-specific test data JSON file.
      * The file name is constructed using the current {@link #environment}.
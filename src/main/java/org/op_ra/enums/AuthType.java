@@ -0,0 +1,30 @@
+package org.op_ra.enums;
+
+/**
+ * Enumeration of the authentication schemes supported when building service requests.
+ * The active scheme is selected with the {@code auth_type} configuration property
+ * ({@link ConfigProperties#AUTH_TYPE}) and applied by {@link org.op_ra.requestbuilder.AuthorizationManager}.
+ */
+public enum AuthType {
+    /** HTTP Basic authentication with the per-service username and password. */
+    BASIC,
+    /** OAuth 2.0 client-credentials flow; the access token is sent as a bearer token. */
+    OAUTH,
+    /** Static API key sent in a request header. */
+    APIKEY;
+
+    /**
+     * Resolves an {@code auth_type} property value (case-insensitive) to an {@link AuthType}.
+     *
+     * @param value The configured value, e.g. "basic".
+     * @return The matching {@link AuthType}, or {@link #BASIC} if the value is blank or unknown.
+     */
+    public static AuthType fromValue(String value) {
+        for (AuthType type : values()) {
+            if (type.name().equalsIgnoreCase(value == null ? "" : value.trim())) {
+                return type;
+            }
+        }
+        return BASIC;
+    }
+}
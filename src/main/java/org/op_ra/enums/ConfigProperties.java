@@ -43,6 +43,17 @@ public enum ConfigProperties {
     OPEN_JOB_PASSWORD,
     OPEN_CODING_PASSWORD,
 
+    // Authentication Configuration (see org.op_ra.requestbuilder.ServiceSpecCache)
+    AUTH_TYPE,                  // basic, oauth or apikey
+    ACCESS_TOKEN_URL,           // OAuth token endpoint (client-credentials grant)
+    CLIENT_ID,
+    CLIENT_SECRET,
+    AUDIENCE,
+    SCOPE,
+    AUTH_PREFIX,                // Prefix of the Authorization header value for OAuth, e.g. "Bearer"
+    API_KEY,
+    API_KEY_HEADER,             // Header carrying the API key, defaults to "X-API-KEY"
+
     // Reporting Configuration
     OVERRIDEREPORTS,            // Whether to override existing reports (e.g., "yes" or "no")
     PASSEDSTEPSSCREENSHOT,      // Whether to take screenshots for passed steps
@@ -54,6 +65,57 @@ public enum ConfigProperties {
     DB_URL,                     // JDBC URL for the database
     DB_USERNAME,                // Database username
     DB_PASSWORD,                // Database password
+    JDBC_FETCH_SIZE,            // Rows fetched per round-trip when streaming test data to JSON (see JsonUtils)
+    TEST_DATA_QUERY_PARALLELISM,        // Test-data queries run at the same time when generating JSON
+    TEST_DATA_QUERY_TIMEOUT_SECONDS,    // Max time per test-data query (0 = no limit)
+    TEST_DATA_FORMAT,                   // Read test data from the binary snapshot ("binary") or parse the JSON ("json")
+    LAZY_DATA_PROVIDER,                 // Hand test data rows to TestNG through an iterator ("yes" or "no")
+
+    // Streaming data provider configuration (see org.op_ra.utils.TestDataStream); overridable with -Ddata.stream.xxx
+    DATA_STREAM_SOURCE,                 // snapshot, json or database
+    DATA_STREAM_SHARD_COUNT,            // Number of shards the rows of a test are split into
+    DATA_STREAM_SHARD_INDEX,            // Shard run by this JVM (0-based)
+    DATA_STREAM_SAMPLE_RATE,            // Fraction of the rows kept, in (0, 1]
+    DATA_STREAM_SAMPLE_SEED,            // Seed of the sample, so a sampled run can be repeated
+
+    // JDBC connection pool configuration (see org.op_ra.utils.JdbcConnectionPool)
+    DB_POOL_MIN_IDLE,               // Idle connections kept open
+    DB_POOL_MAX_SIZE,               // Max open connections
+    DB_POOL_VALIDATION_QUERY,       // Query validating idle connections (empty = Connection.isValid)
+    DB_POOL_CONNECTION_TIMEOUT_MS,  // Max wait for a free connection
+    DB_POOL_LEAK_DETECTION_MS,      // Report connections held longer than this (0 = off)
+    DB_POOL_MAX_LIFETIME_MS,        // Max age of a pooled connection (0 = unlimited)
+
+    // Row-data cache configuration (see org.op_ra.utils.DatabaseQueryExecutor#retrieveRowData)
+    QUERY_CACHE_TTL_MS,             // How long a looked-up row is reused (0 = no caching)
+    QUERY_CACHE_MAX_ENTRIES,        // Cached queries kept before evicting the least recently used
+    TEST_DATA_PREFETCH,             // Load test-data tables at suite start: off, database or snapshot (see org.op_ra.utils.TestDataStore)
+
+    // Test-result writer configuration (see org.op_ra.utils.ReportDatabaseController)
+    REPORT_DB_BATCH_SIZE,           // Results per JDBC batch insert
+    REPORT_DB_FLUSH_INTERVAL_MS,    // Max time a result waits for its batch to fill
+    REPORT_DB_QUEUE_CAPACITY,       // Results queued before spilling straight to file
+    TEST_SCHEDULING,                // Order of the selected methods: discovery or duration (longest first, see org.op_ra.listeners.MethodInterceptor)
+    TEST_SCHEDULING_HISTORY_DAYS,   // Days of recorded durations averaged for duration scheduling and sharding
+    SHARD_TOTAL,                    // Number of JVMs the suite is split across (see org.op_ra.utils.TestShard)
+    SHARD_INDEX,                    // Shard run by this JVM (0-based)
+    SHARD_DURATIONS_UNTIL,          // Cut-off of the recorded durations used to split shards, the same on every shard
+
+    // Extent report writer configuration (see org.op_ra.reports.ExtentEventQueue, ResponseBodyCapture, ExtentEventLog)
+    REPORT_ASYNC,                   // Add log entries to the Extent report on a background thread ("yes" or "no")
+    REPORT_QUEUE_CAPACITY,          // Log entries waiting for the report writer before the full policy applies
+    REPORT_QUEUE_FULL_POLICY,       // block or drop
+    REPORT_BODY_MAX_BYTES,          // Bytes of a response body embedded in the report (open_<service>_report_body_max_bytes per service)
+    REPORT_BODY_TAIL_BYTES,         // Bytes from the end of a cut body shown after its start
+    REPORT_BODY_SIDE_FILES,         // Store cut bodies whole as compressed files linked from the report ("yes" or "no")
+    REPORT_EVENT_LOG,               // Write finished tests to a JSON-lines event log and build the report from it ("yes" or "no")
+    REPORT_EVENT_LOG_INLINE_MAX_MB, // Larger event logs are rendered in a separate JVM at suite end
+    REPORT_RENDER_JVM_OPTIONS,      // Extra options of that JVM, e.g. -Xmx4g
+
+    // Suite finalization (see org.op_ra.listeners.SuiteFinalizer)
+    SUITE_FINALIZE_TIMEOUT_SECONDS, // Time allowed for writing, emailing and archiving the reports at suite end
+    REPORT_ARCHIVE,                 // Zip the report files of the run at suite end ("yes" or "no")
+    OPEN_REPORT,                    // Open the report in a browser at suite end when there is a display ("yes" or "no")
 
     // Email Configuration (for sending test results)
     SEND_EMAIL,                 // Whether to send email notifications ("yes" or "no")
@@ -66,6 +128,39 @@ public enum ConfigProperties {
     EMAIL_CC_RECIPIENTS,        // Comma-separated list of CC recipients
     EMAIL_SUBJECT,              // Subject line for the email report
 
+    // HTTP client pool configuration (see org.op_ra.requestbuilder.ServiceClientRegistry)
+    HTTP_MAX_CONNECTIONS_TOTAL,     // Max pooled connections per host pool
+    HTTP_MAX_CONNECTIONS_PER_ROUTE, // Max pooled connections per route (host) within a pool
+    HTTP_KEEP_ALIVE_MS,             // Keep-alive used when the server does not send a Keep-Alive header
+    HTTP_IDLE_EVICTION_SECONDS,     // Idle connections older than this are evicted from the pools
+    HTTP_CONNECTION_TTL_SECONDS,    // Max lifetime of a pooled connection
+    HTTP_CONNECT_TIMEOUT_MS,        // TCP connect timeout
+    HTTP_SOCKET_TIMEOUT_MS,         // Socket read timeout
+
+    // Async request configuration (see org.op_ra.requestbuilder.AsyncApiRequestBuilder)
+    ASYNC_POOL_SIZE,                // Threads executing async requests
+    ASYNC_QUEUE_CAPACITY,           // Pending async requests before callers run requests themselves
+    ASYNC_DEFAULT_TIMEOUT_MS,       // Deadline applied to async requests without an explicit one (0 = none)
+
+    // Load-generation configuration (see org.op_ra.load.LoadRunner); each can be overridden with -Dload.xxx
+    LOAD_MODEL,                     // open (constant arrival rate) or closed (virtual users)
+    LOAD_TARGETS,                   // Comma-separated Class.method list; empty = tests tagged PERFORMANCE
+    LOAD_RATE_PER_SECOND,           // Open model: iterations started per second
+    LOAD_MAX_CONCURRENCY,           // Open model: max iterations in flight
+    LOAD_MAX_QUEUED,                // Open model: iterations waiting for a worker before new ones are shed
+    LOAD_VIRTUAL_USERS,             // Closed model: concurrent virtual users
+    LOAD_THINK_TIME_MS,             // Closed model: pause between iterations of a virtual user
+    LOAD_PACING_MS,                 // Closed model: intended time between iteration starts (0 = use think time)
+    LOAD_LATENCY_CORRECTION,        // Coordinated-omission correction: none, intended_start or expected_interval
+    LOAD_DURATION_SECONDS,          // Length of the load run
+
+    // Latency SLO configuration (see org.op_ra.requestbuilder.AssertionUtils)
+    SLO_WINDOW_CAPACITY,            // Most recent calls kept per endpoint for "over the last N calls" SLO checks
+
+    // Parallel execution configuration (see org.op_ra.listeners.ParallelSuiteListener); overridable with -Dparallel.xxx
+    PARALLEL_MODE,                  // none, methods, classes, instances or tests
+    PARALLEL_THREAD_COUNT,          // Threads running tests (and data-provider rows) when parallel_mode is not none
+
     // Other configurations
     EXPLICIT_WAIT_TIMEOUT,      // Default timeout for explicit waits (e.g., in seconds)
     RETRY_FAILED_TESTS;         // Whether to retry failed tests ("yes" or "no")
@@ -0,0 +1,37 @@
+package org.op_ra.enums;
+
+/**
+ * Enumeration of the coordinated-omission corrections applied to latencies recorded during a load run.
+ * Selected with the {@code load_latency_correction} configuration property ({@link ConfigProperties#LOAD_LATENCY_CORRECTION}).
+ * <p>
+ * When a request stalls, a load generator that waits for it does not send the requests that were due during the
+ * stall, so their (long) latencies are never measured. The corrected histogram accounts for them; the uncorrected
+ * one is always kept alongside for comparison.
+ * </p>
+ */
+public enum LatencyCorrection {
+    /** No correction; only the measured service time is recorded. */
+    NONE,
+    /** Latency is measured from the time the scheduler intended the call to start, so queueing delay counts. */
+    INTENDED_START,
+    /**
+     * Like HdrHistogram's {@code recordValueWithExpectedInterval}: a value longer than the expected interval also
+     * records the values the missed calls would have seen (value - interval, value - 2*interval, ...).
+     */
+    EXPECTED_INTERVAL;
+
+    /**
+     * Resolves a {@code load_latency_correction} property value (case-insensitive, '-' or '_') to a {@link LatencyCorrection}.
+     *
+     * @param value The configured value, e.g. "intended_start".
+     * @return The matching {@link LatencyCorrection}, or {@link #INTENDED_START} if the value is blank or unknown.
+     */
+    public static LatencyCorrection fromValue(String value) {
+        for (LatencyCorrection correction : values()) {
+            if (correction.name().equalsIgnoreCase(value == null ? "" : value.trim().replace('-', '_'))) {
+                return correction;
+            }
+        }
+        return INTENDED_START;
+    }
+}
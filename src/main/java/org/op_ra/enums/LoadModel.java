@@ -0,0 +1,28 @@
+package org.op_ra.enums;
+
+/**
+ * Enumeration of the workload models supported by {@link org.op_ra.load.LoadRunner}.
+ * The active model is selected with the {@code load_model} configuration property
+ * ({@link ConfigProperties#LOAD_MODEL}) or the {@code load.model} system property.
+ */
+public enum LoadModel {
+    /** Constant arrival rate: iterations start on a fixed schedule regardless of how long earlier ones take. */
+    OPEN,
+    /** A fixed number of virtual users, each running iterations back to back with a think time in between. */
+    CLOSED;
+
+    /**
+     * Resolves a {@code load_model} property value (case-insensitive) to a {@link LoadModel}.
+     *
+     * @param value The configured value, e.g. "open".
+     * @return The matching {@link LoadModel}, or {@link #CLOSED} if the value is blank or unknown.
+     */
+    public static LoadModel fromValue(String value) {
+        for (LoadModel model : values()) {
+            if (model.name().equalsIgnoreCase(value == null ? "" : value.trim())) {
+                return model;
+            }
+        }
+        return CLOSED;
+    }
+}
@@ -0,0 +1,67 @@
+package org.op_ra.enums;
+
+/**
+ * Enumeration of the OPEN services exercised by the framework.
+ * Each constant binds a service to the {@link ConfigProperties} keys holding its base URL and credentials,
+ * so that per-service infrastructure (HTTP client pools, request specifications, latency statistics)
+ * can be looked up by service rather than by repeating property keys at every call site.
+ */
+public enum ServiceType {
+    /** Actor service. */
+    ACTOR(ConfigProperties.OPEN_ACTOR_BASE_URL, ConfigProperties.OPEN_ACTOR_USERNAME, ConfigProperties.OPEN_ACTOR_PASSWORD),
+    /** Chart service. */
+    CHART(ConfigProperties.OPEN_CHART_BASE_URL, ConfigProperties.OPEN_CHART_USERNAME, ConfigProperties.OPEN_CHART_PASSWORD),
+    /** Community Health Center service. */
+    CHC(ConfigProperties.OPEN_CHC_BASE_URL, ConfigProperties.OPEN_CHC_USERNAME, ConfigProperties.OPEN_CHC_PASSWORD),
+    /** Coding service. */
+    CODING(ConfigProperties.OPEN_CODING_BASE_URL, ConfigProperties.OPEN_CODING_USERNAME, ConfigProperties.OPEN_CODING_PASSWORD),
+    /** Document service. */
+    DOCUMENT(ConfigProperties.OPEN_DOCUMENT_BASE_URL, ConfigProperties.OPEN_DOCUMENT_USERNAME, ConfigProperties.OPEN_DOCUMENT_PASSWORD),
+    /** ePrescription service. */
+    ERX(ConfigProperties.OPEN_ERX_BASE_URL, ConfigProperties.OPEN_ERX_USERNAME, ConfigProperties.OPEN_ERX_PASSWORD),
+    /** Laboratory service. */
+    LAB(ConfigProperties.OPEN_LAB_BASE_URL, ConfigProperties.OPEN_LAB_USERNAME, ConfigProperties.OPEN_LAB_PASSWORD),
+    /** Job service. */
+    JOB(ConfigProperties.OPEN_JOB_BASE_URL, ConfigProperties.OPEN_JOB_USERNAME, ConfigProperties.OPEN_JOB_PASSWORD);
+
+    private final ConfigProperties baseUrlKey;
+    private final ConfigProperties usernameKey;
+    private final ConfigProperties passwordKey;
+
+    ServiceType(ConfigProperties baseUrlKey, ConfigProperties usernameKey, ConfigProperties passwordKey) {
+        this.baseUrlKey = baseUrlKey;
+        this.usernameKey = usernameKey;
+        this.passwordKey = passwordKey;
+    }
+
+    /**
+     * @return The {@link ConfigProperties} key of the service base URL (e.g. {@code open_erx_base_url}).
+     */
+    public ConfigProperties getBaseUrlKey() {
+        return baseUrlKey;
+    }
+
+    /**
+     * @return The {@link ConfigProperties} key of the basic-auth username for the service.
+     */
+    public ConfigProperties getUsernameKey() {
+        return usernameKey;
+    }
+
+    /**
+     * @return The {@link ConfigProperties} key of the basic-auth password for the service.
+     */
+    public ConfigProperties getPasswordKey() {
+        return passwordKey;
+    }
+
+    /**
+     * Prefix used for the per-service property keys, e.g. {@code open_erx} for {@link #ERX}.
+     * Keys such as {@code open_erx_accept_header} are derived from it.
+     *
+     * @return The lowercase property prefix of the service.
+     */
+    public String getPropertyPrefix() {
+        return "open_" + name().toLowerCase();
+    }
+}
@@ -1,6 +1,8 @@
 package org.op_ra.listeners;
 
+import org.op_ra.enums.ConfigProperties;
 import org.op_ra.utils.DataProviderUtils; // Assuming DataProviderUtils is in utils
+import org.op_ra.utils.PropertyUtils;
 import org.testng.IAnnotationTransformer;
 import org.testng.annotations.ITestAnnotation;
 
@@ -11,7 +13,8 @@ import java.lang.reflect.Method;
  * Implements {@link org.testng.IAnnotationTransformer} to modify TestNG annotations at runtime.
  * This transformer specifically sets the {@code dataProvider} and {@code dataProviderClass}
  * attributes for all test methods (annotated with {@code @Test}) to use the
- * "getJsonData" data provider from {@link DataProviderUtils}.
+ * "getJsonData" data provider from {@link DataProviderUtils}, or its iterator variant "getJsonDataIterator"
+ * when {@code lazy_data_provider=yes}. Tests that name a data provider in their {@code @Test} annotation keep it.
  * <p>
  * This allows centralizing the data provider logic and avoids having to specify
  * it in every {@code @Test} annotation.
@@ -30,7 +33,7 @@ public class AnnotationTransformer implements IAnnotationTransformer {
 
     /**
      * Transforms the {@link org.testng.annotations.ITestAnnotation} of a test method.
-     * This implementation sets the data provider to "getJsonData" and the data provider class
+     * This implementation sets the data provider to "getJsonData" (or "getJsonDataIterator") and the data provider class
      * to {@link DataProviderUtils} for all test methods.
      *
      * @param annotation      The annotation that will be examined.
@@ -45,7 +48,11 @@ public class AnnotationTransformer implements IAnnotationTransformer {
                           Method testMethod) {
         // This will apply to all @Test methods encountered by TestNG
         // if this transformer is registered.
-        annotation.setDataProvider("getJsonData");
+        if (!annotation.getDataProvider().isEmpty()) {
+            return; // Chosen explicitly on the test, e.g. DataProviderUtils' "streamTestData"
+        }
+        annotation.setDataProvider(PropertyUtils.getValueOrDefault(ConfigProperties.LAZY_DATA_PROVIDER, "no").trim()
+                .equalsIgnoreCase("yes") ? "getJsonDataIterator" : "getJsonData");
         annotation.setDataProviderClass(DataProviderUtils.class);
 
         // Optionally, you could add logic here to only apply the data provider
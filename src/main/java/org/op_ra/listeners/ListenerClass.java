@@ -4,13 +4,22 @@ import org.op_ra.annotations.FrameworkAnnotation;
 import org.op_ra.reports.ExtentLogger;
 import org.op_ra.reports.ExtentReport;
 import org.op_ra.reports.FrameworkLogger;
+import org.op_ra.reports.LatencyReport;
+import org.op_ra.requestbuilder.AssertionUtils;
+import org.op_ra.requestbuilder.AsyncApiRequestBuilder;
+import org.op_ra.requestbuilder.ServiceClientRegistry;
+import org.op_ra.requestbuilder.ServiceSpecCache;
+import org.op_ra.utils.DataBaseConnectionUtils;
+import org.op_ra.utils.ReportDatabaseController;
 import org.op_ra.utils.SendEmailWithResults;
+import org.op_ra.utils.TestDataStore;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
 import org.testng.ISuite;
 import org.testng.ISuiteListener;
 import org.testng.ITestListener;
 import org.testng.ITestResult;
 
-import java.io.IOException; // Added import for IOException
 import java.util.Arrays;
 
 import static org.op_ra.enums.LogType.*;
@@ -18,11 +27,12 @@ import static org.op_ra.reports.FrameworkLogger.log;
 import static org.op_ra.utils.ReportDatabaseController.storeReportInDatabase;
 
 /**
- * Implements {@link org.testng.ITestListener} and {@link org.testng.ISuiteListener}
- * to customize TestNG test execution lifecycle.
+ * Implements {@link org.testng.ITestListener}, {@link org.testng.ISuiteListener} and
+ * {@link org.testng.IInvokedMethodListener} to customize TestNG test execution lifecycle.
  * This class is primarily used for initializing and flushing ExtentReports,
  * creating test entries in the report, logging test status (pass/fail/skip),
  * and triggering actions like sending email notifications or storing results in a database.
+ * Latency SLOs declared with {@link FrameworkAnnotation#slo()} are checked after each passing test method.
  * <br>
  * Ensure this listener is configured in your TestNG XML suite file:
  * <pre>{@code
@@ -31,43 +41,52 @@ import static org.op_ra.utils.ReportDatabaseController.storeReportInDatabase;
  * </listeners>
  * }</pre>
  */
-public class ListenerClass implements ITestListener, ISuiteListener {
+public class ListenerClass implements ITestListener, ISuiteListener, IInvokedMethodListener {
 
     /**
      * Initializes the ExtentReports at the beginning of a TestNG suite execution.
      * Retrieves the suite name from the TestNG XML file to be used in the report.
+     * Also pre-builds the per-service request specifications and prefetches the test-data tables.
      *
      * @param suite The TestNG suite that is about to start.
      * @see ExtentReport#initReports(String)
+     * @see ServiceSpecCache#init()
+     * @see TestDataStore#prefetch()
      */
     @Override
     public void onStart(ISuite suite) {
         ExtentReport.initReports(suite.getXmlSuite().getName());
+        ServiceSpecCache.init();
+        TestDataStore.prefetch();
         log(INFO, "Test Suite Started: " + suite.getName());
     }
 
     /**
-     * Flushes the ExtentReports at the end of a TestNG suite execution.
-     * This ensures all test information is written to the report file.
-     * Also triggers sending an email with the test results.
+     * Publishes the results at the end of a TestNG suite execution with {@link SuiteFinalizer}: the latency summary,
+     * the Extent report and the test results still queued for the database, then the email with the report, the
+     * report archive and the report in a browser (only when there is a display), each within a shared timeout.
+     * Then releases the pooled HTTP and database connections.
      *
      * @param suite The TestNG suite that has finished.
+     * @see LatencyReport#publish()
      * @see ExtentReport#flushReports()
      * @see SendEmailWithResults#sendEmail()
+     * @see AsyncApiRequestBuilder#shutdown()
+     * @see ServiceClientRegistry#shutdown()
+     * @see ReportDatabaseController#flush()
+     * @see DataBaseConnectionUtils#closeAllConnections()
      */
     @Override
     public void onFinish(ISuite suite) {
         try {
-            ExtentReport.flushReports();
-            SendEmailWithResults.sendEmail(); // Consider making this configurable
+            SuiteFinalizer.run();
             log(INFO, "Test Suite Finished: " + suite.getName());
-        } catch (IOException e) { // Catch specific IOException
-            log(ERROR, "Error during report flushing or email sending: " + e.getMessage());
-            // Consider re-throwing as a runtime exception if it is critical
-            // throw new RuntimeException("Error finalizing reports or sending email", e);
         } catch (Exception e) { // Catch other potential exceptions
             log(ERROR, "An unexpected error occurred during suite finish: " + e.getMessage());
-            // throw new RuntimeException("Unexpected error during suite finish", e);
+        } finally {
+            AsyncApiRequestBuilder.shutdown();
+            ServiceClientRegistry.shutdown();
+            DataBaseConnectionUtils.closeAllConnections();
         }
     }
 
@@ -92,7 +111,37 @@ public class ListenerClass implements ITestListener, ISuiteListener {
             ExtentReport.addAuthors(annotation.author());
             ExtentReport.addCategories(annotation.category());
         }
-        log(INFO, "Test Started: " + result.getMethod().getMethodName());
+        log(INFO, () -> "Test Started: " + result.getMethod().getMethodName());
+    }
+
+    /**
+     * Checks the latency SLOs declared with {@link FrameworkAnnotation#slo()} once a test method has passed.
+     * A missed SLO turns the result into a failure before {@link #onTestSuccess(ITestResult)} or
+     * {@link #onTestFailure(ITestResult)} is reported.
+     *
+     * @param method The invoked method.
+     * @param result The result of the invocation.
+     * @see AssertionUtils#assertSlo(String)
+     */
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult result) {
+        if (!method.isTestMethod() || result.getStatus() != ITestResult.SUCCESS) {
+            return;
+        }
+        FrameworkAnnotation annotation = result.getMethod().getConstructorOrMethod()
+                .getMethod().getAnnotation(FrameworkAnnotation.class);
+        if (annotation == null) {
+            return;
+        }
+        for (String slo : annotation.slo()) {
+            try {
+                AssertionUtils.assertSlo(slo);
+            } catch (AssertionError | IllegalArgumentException e) {
+                result.setStatus(ITestResult.FAILURE);
+                result.setThrowable(e);
+                return;
+            }
+        }
     }
 
     /**
@@ -100,14 +149,16 @@ public class ListenerClass implements ITestListener, ISuiteListener {
      *
      * @param result The result of the successfully completed test method.
      * @see ExtentLogger#pass(String)
-     * @see org.op_ra.utils.ReportDatabaseController#storeReportInDatabase(String, String)
+     * @see org.op_ra.utils.ReportDatabaseController#storeReportInDatabase(String, String, String, Long)
      */
     @Override
     public void onTestSuccess(ITestResult result) {
-        storeReportInDatabase(result.getMethod().getMethodName(), "Pass");
+        storeReportInDatabase(result.getMethod().getRealClass().getName(), result.getMethod().getMethodName(), "Pass",
+                result.getEndMillis() - result.getStartMillis());
         ExtentLogger.pass("<span style='font-weight:bold;color:green;'>PASSED: </span>" + result.getMethod().getMethodName());
-        log(INFO, result.getMethod().getMethodName() + " is PASSED.");
+        log(INFO, () -> result.getMethod().getMethodName() + " is PASSED.");
         log(INFO, "------------------------------------------------------------");
+        ExtentReport.endTest();
     }
 
     /**
@@ -116,20 +167,22 @@ public class ListenerClass implements ITestListener, ISuiteListener {
      *
      * @param result The result of the failed test method.
      * @see ExtentLogger#fail(String)
-     * @see org.op_ra.utils.ReportDatabaseController#storeReportInDatabase(String, String)
+     * @see org.op_ra.utils.ReportDatabaseController#storeReportInDatabase(String, String, String, Long)
      */
     @Override
     public void onTestFailure(ITestResult result) {
-        storeReportInDatabase(result.getMethod().getMethodName(), "Fail");
+        storeReportInDatabase(result.getMethod().getRealClass().getName(), result.getMethod().getMethodName(), "Fail",
+                result.getEndMillis() - result.getStartMillis());
         String testName = result.getMethod().getMethodName();
         ExtentLogger.fail("<span style='font-weight:bold;color:red;'>FAILED: </span>" + testName);
         ExtentLogger.fail("Failure Reason: " + result.getThrowable().getMessage());
         // ExtentLogger.fail("<details><summary>Click to see Stack Trace</summary>"
         //         + Arrays.toString(result.getThrowable().getStackTrace()).replaceAll(",", "<br>")
         //         + "</details>"); // Logging stack trace in a collapsible way
-        log(ERROR, testName + " is FAILED due to: " + result.getThrowable().getMessage());
-        FrameworkLogger.log(DEBUG, Arrays.toString(result.getThrowable().getStackTrace())); // Use FrameworkLogger for consistency
+        log(ERROR, () -> testName + " is FAILED due to: " + result.getThrowable().getMessage());
+        FrameworkLogger.log(DEBUG, () -> Arrays.toString(result.getThrowable().getStackTrace())); // Built only if DEBUG is logged or there is a current test
         log(INFO, "------------------------------------------------------------");
+        ExtentReport.endTest();
     }
 
     /**
@@ -137,18 +190,19 @@ public class ListenerClass implements ITestListener, ISuiteListener {
      *
      * @param result The result of the skipped test method.
      * @see ExtentLogger#skip(String)
-     * @see org.op_ra.utils.ReportDatabaseController#storeReportInDatabase(String, String)
+     * @see org.op_ra.utils.ReportDatabaseController#storeReportInDatabase(String, String, String, Long)
      */
     @Override
     public void onTestSkipped(ITestResult result) {
-        storeReportInDatabase(result.getMethod().getMethodName(), "Skip");
+        storeReportInDatabase(result.getMethod().getRealClass().getName(), result.getMethod().getMethodName(), "Skip", null);
         ExtentLogger.skip("<span style='font-weight:bold;color:orange;'>SKIPPED: </span>" + result.getMethod().getMethodName());
         if (result.getThrowable() != null) {
             ExtentLogger.skip("Skip Reason: " + result.getThrowable().getMessage());
-            log(INFO, result.getMethod().getMethodName() + " is SKIPPED due to: " + result.getThrowable().getMessage());
+            log(INFO, () -> result.getMethod().getMethodName() + " is SKIPPED due to: " + result.getThrowable().getMessage());
         } else {
-            log(INFO, result.getMethod().getMethodName() + " is SKIPPED.");
+            log(INFO, () -> result.getMethod().getMethodName() + " is SKIPPED.");
         }
         log(INFO, "------------------------------------------------------------");
+        ExtentReport.endTest();
     }
 }
@@ -1,13 +1,36 @@
 package org.op_ra.listeners;
 
-import org.op_ra.utils.JsonUtils; // Assuming JsonUtils for test data/runner lists
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.utils.JsonUtils;
+import org.op_ra.utils.PropertyUtils;
+import org.op_ra.utils.ReportDatabaseController;
+import org.op_ra.utils.TestShard;
 import org.testng.IMethodInstance;
 import org.testng.IMethodInterceptor;
 import org.testng.ITestContext;
+import org.testng.ITestNGMethod;
 
+import java.io.File;
+import java.sql.SQLException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.op_ra.enums.LogType.DEBUG;
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
 
 /**
  * Implements {@link org.testng.IMethodInterceptor} to dynamically control which test methods are run.
@@ -16,6 +39,28 @@ import java.util.Map;
  * It then filters the provided list of TestNG methods, allowing only those specified in the
  * external list to be executed.
  * <p>
+ * Each row of the list names a method in {@code testcasename}, has {@code execute} set to "yes" to run it, and may
+ * name its class in {@code classname} (simple or fully qualified name), so methods with the same name in different
+ * classes can be selected separately. A row without {@code classname} selects the method in every class.
+ * The list is compiled once per run manager into a hash set, so each method is looked up in constant time.
+ * </p>
+ * <p>
+ * With {@code test_scheduling=duration} (or {@code -Dtest.scheduling=duration}) the selected methods are returned
+ * longest first, using their average duration over the last {@code test_scheduling_history_days} days as recorded
+ * by {@link ReportDatabaseController} for the method of the same class. Methods without recorded durations are
+ * assumed to take the median duration.
+ * Because each free worker thread takes the next method, this is longest-processing-time-first scheduling: the
+ * short methods at the end fill in the gaps, instead of one thread running the slowest tests alone at the end.
+ * Durations are recorded per invocation, so a data-driven method counts as one invocation.
+ * </p>
+ * <p>
+ * When the suite is split across JVMs with {@code -Dshard.total} and {@code -Dshard.index}, only the selected methods
+ * of this shard are returned; see {@link TestShard#select(List, java.util.function.ToLongFunction, java.util.function.Function)}.
+ * The split uses the same recorded durations, so shards of the same size finish at about the same time. Every shard
+ * reads them up to the cut-off {@link TestShard#getDurationsUntil()}, and a shard that cannot read them fails the run
+ * rather than splitting differently from the others.
+ * </p>
+ * <p>
  * This is useful for creating dynamic test suites or for running a subset of tests based on
  * external configuration without modifying TestNG XML files directly.
  * </p>
@@ -31,6 +76,11 @@ import java.util.Map;
  */
 public class MethodInterceptor implements IMethodInterceptor {
 
+    // Compiled runner lists by run manager; TestNG calls intercept once per <test> of the suite
+    private static final Map<String, Selection> SELECTIONS = new ConcurrentHashMap<>();
+    // Average recorded duration by class-qualified method name, read once per run for duration scheduling
+    private static volatile Map<String, Long> durations;
+
     /**
      * Intercepts the list of test methods that TestNG intends to run and returns a modified list.
      * This implementation filters test methods based on an execution list fetched from
@@ -44,72 +94,194 @@ public class MethodInterceptor implements IMethodInterceptor {
      */
     @Override
     public List<IMethodInstance> intercept(List<IMethodInstance> methods, ITestContext context) {
-        List<IMethodInstance> result = new ArrayList<>();
-        // Assuming getRunmanager() and "testCaseLists" are the correct keys for your runner list JSON.
-        // These might need to be fetched from FrameworkConstants or context.
-        String runManager = context.getCurrentXmlTest().getSuite().getParameter("runmanager"); // Or from FrameworkConstants
-        if (runManager == null || runManager.isEmpty()){
-             // Attempt to get from suite name if parameter not set
+        String runManager = context.getCurrentXmlTest().getSuite().getParameter("runmanager");
+        if (runManager == null || runManager.isEmpty()) {
+            // Attempt to get from suite name if parameter not set
             runManager = context.getSuite().getName();
         }
-
-        // Fallback if still null, or use a default from FrameworkConstants
         if (runManager == null || runManager.isEmpty()) {
-            runManager = org.op_ra.constants.FrameworkConstants.getRunmanager();
+            runManager = FrameworkConstants.getRunmanager();
         }
 
+        Selection selection = selectionFor(runManager);
+        List<IMethodInstance> result = new ArrayList<>();
+        for (IMethodInstance methodInstance : methods) {
+            ITestNGMethod method = methodInstance.getMethod();
+            if (selection.contains(method)) {
+                result.add(methodInstance);
+                log(DEBUG, () -> "MethodInterceptor: Adding method to run: " + method.getQualifiedName());
+            } else {
+                log(DEBUG, () -> "MethodInterceptor: Skipping method (not in execution list or not marked 'yes'): " + method.getQualifiedName());
+            }
+        }
+        log(DEBUG, "MethodInterceptor: selected " + result.size() + " of " + methods.size() + " method(s) for run manager " + runManager);
 
-        List<Map<String, Object>> list = JsonUtils.getTestDetails(runManager, "testCaseLists");
-        // If JsonUtils.getTestDetails expects FrameworkConstants.getRunmanager(), ensure it'''s set appropriately.
+        if (result.isEmpty() && !methods.isEmpty()) {
+            if (selection.isEmpty()) {
+                log(WARN, "MethodInterceptor: No tests will run as the execution list from JSON is empty for run manager: " + runManager);
+            } else {
+                log(WARN, "MethodInterceptor resulted in an empty list of tests to run, "
+                        + "even though TestNG discovered methods and an execution list was provided. "
+                        + "Check testcasename, classname and execute flags in your runner JSON for run manager: " + runManager);
+            }
+        }
+        boolean byDuration = "duration".equalsIgnoreCase(PropertyUtils.getOverridableValue(ConfigProperties.TEST_SCHEDULING, "discovery").trim());
+        if (result.isEmpty() || !(byDuration || TestShard.isSharded())) {
+            return result;
+        }
+        Map<String, Long> recorded = recordedDurations();
+        Map<IMethodInstance, Long> expected = expectedDurations(result, recorded);
+        if (TestShard.isSharded()) {
+            if (recorded.isEmpty()) {
+                log(WARN, "MethodInterceptor: no recorded test durations; splitting shards by method count");
+            }
+            result = TestShard.select(result, expected::get, method -> method.getMethod().getQualifiedName());
+        }
+        if (byDuration && result.size() > 1) {
+            if (recorded.isEmpty()) {
+                log(INFO, "MethodInterceptor: no recorded test durations; keeping discovery order");
+            } else {
+                result = longestFirst(result, expected, context);
+            }
+        }
+        return result;
+    }
 
-        if (list.isEmpty()) {
-            System.out.println("WARNING: Test execution list from JSON is empty for run manager: " + runManager + ". Running all discovered tests.");
-            // If the list is empty, you might choose to run all methods or none.
-            // Running all is TestNG'''s default behavior if interceptor returns original list or empty.
-            // To run none, return an empty list: return new ArrayList<>();
-            // To run all, return methods: return methods;
-            // For safety, if the JSON list is empty, it might be better to run no tests or log a severe error.
-            // However, current implementation will add all methods if the condition below is not met.
-            // This behavior has been changed to run only specified tests. If list is empty, result will be empty.
+    /**
+     * Returns the expected duration of each method: the recorded average of its class-qualified name, or the median
+     * of the recorded averages (1 ms if there are none).
+     */
+    private static Map<IMethodInstance, Long> expectedDurations(List<IMethodInstance> methods, Map<String, Long> recorded) {
+        long median = 1;
+        if (!recorded.isEmpty()) {
+            List<Long> known = new ArrayList<>(recorded.values());
+            Collections.sort(known);
+            median = known.get(known.size() / 2);
+        }
+        Map<IMethodInstance, Long> expected = new IdentityHashMap<>();
+        for (IMethodInstance method : methods) {
+            expected.put(method, recorded.getOrDefault(method.getMethod().getQualifiedName(), median));
         }
+        return expected;
+    }
 
-        for (IMethodInstance methodInstance : methods) {
-            String methodName = methodInstance.getMethod().getMethodName();
-            boolean found = false;
-            for (Map<String, Object> testDetails : list) {
-                String testCaseName = String.valueOf(testDetails.get("testcasename"));
-                String executeFlag = String.valueOf(testDetails.get("execute"));
-
-                if (methodName.equalsIgnoreCase(testCaseName) && executeFlag.equalsIgnoreCase("yes")) {
-                    // Additional check: ensure the method belongs to the correct class if class names are also in JSON
-                    // String classNameFromJson = String.valueOf(testDetails.get("classname"));
-                    // String currentMethodClassName = methodInstance.getMethod().getTestClass().getName();
-                    // if (classNameFromJson != null && currentMethodClassName.endsWith(classNameFromJson)) {
-                    //    result.add(methodInstance);
-                    //    found = true;
-                    //    break;
-                    // } else if (classNameFromJson == null) { // if classname is not in JSON, just match method name
-                         result.add(methodInstance);
-                         found = true;
-                         break;
-                    // }
+    /**
+     * Orders the methods by descending expected duration; methods with the same duration keep their order.
+     */
+    private static List<IMethodInstance> longestFirst(List<IMethodInstance> methods, Map<IMethodInstance, Long> expected, ITestContext context) {
+        List<IMethodInstance> ordered = new ArrayList<>(methods);
+        ordered.sort(Comparator.comparingLong((IMethodInstance method) -> expected.get(method)).reversed());
+
+        int threads = context.getCurrentXmlTest().getParallel().isParallel() ? Math.max(1, context.getCurrentXmlTest().getThreadCount()) : 1;
+        log(INFO, "MethodInterceptor: ordered " + ordered.size() + " method(s) longest first; expected finish on " + threads
+                + " thread(s) " + makespan(ordered, expected, threads) + " ms (discovery order " + makespan(methods, expected, threads) + " ms)");
+        return ordered;
+    }
+
+    /**
+     * Expected time until the last thread finishes, when each free thread takes the next method of the list.
+     */
+    private static long makespan(List<IMethodInstance> methods, Map<IMethodInstance, Long> expected, int threads) {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>();
+        for (int i = 0; i < threads; i++) {
+            finishTimes.add(0L);
+        }
+        long makespan = 0;
+        for (IMethodInstance method : methods) {
+            long finish = finishTimes.poll() + expected.get(method);
+            makespan = Math.max(makespan, finish);
+            finishTimes.add(finish);
+        }
+        return makespan;
+    }
+
+    /**
+     * Reads the recorded durations once per run. Sharded runs read them up to the shared cut-off and fail if they cannot
+     * be read, since a shard splitting by method count would not match the shards that split by duration.
+     *
+     * @throws IllegalStateException if the run is sharded and the cut-off is missing or the durations cannot be read.
+     */
+    private static Map<String, Long> recordedDurations() {
+        if (Objects.isNull(durations)) {
+            synchronized (MethodInterceptor.class) {
+                if (Objects.isNull(durations)) {
+                    int historyDays = (int) PropertyUtils.getLongOrDefault(ConfigProperties.TEST_SCHEDULING_HISTORY_DAYS, 30);
+                    if (TestShard.isSharded()) {
+                        Instant until = TestShard.getDurationsUntil();
+                        try {
+                            durations = ReportDatabaseController.getAverageDurations(until, historyDays);
+                        } catch (SQLException | RuntimeException e) {
+                            throw new IllegalStateException("Shard " + TestShard.getIndex() + " of " + TestShard.getTotal()
+                                    + ": could not read the recorded test durations, so this shard cannot split the suite"
+                                    + " the same way as the others: " + e.getMessage(), e);
+                        }
+                        log(INFO, "MethodInterceptor: read " + durations.size() + " recorded duration(s) before " + until);
+                    } else {
+                        try {
+                            durations = ReportDatabaseController.getAverageDurations(historyDays);
+                        } catch (SQLException | RuntimeException e) {
+                            log(WARN, "MethodInterceptor: could not read recorded test durations: " + e.getMessage());
+                            durations = Collections.emptyMap();
+                        }
+                    }
                 }
             }
-            if (found) {
-                System.out.println("MethodInterceptor: Adding method to run: " + methodName);
-            } else {
-                 System.out.println("MethodInterceptor: Skipping method (not in execution list or not marked 'yes'): " + methodName);
+        }
+        return durations;
+    }
+
+    /**
+     * Returns the compiled runner list of a run manager, compiling it again if the runner JSON changed since.
+     */
+    private static Selection selectionFor(String runManager) {
+        long modified = new File(FrameworkConstants.getTestCaseJsonPath()).lastModified();
+        Selection selection = SELECTIONS.get(runManager);
+        if (Objects.isNull(selection) || selection.modified != modified) {
+            selection = new Selection(JsonUtils.getTestDetails(runManager, "testCaseLists"), modified);
+            SELECTIONS.put(runManager, selection);
+        }
+        return selection;
+    }
+
+    /**
+     * The methods of a runner list marked to execute, as lower-case {@code class#method} keys (by simple and by
+     * fully qualified class name) and bare method names for rows without a class.
+     */
+    private static final class Selection {
+        private final Set<String> qualified = new HashSet<>();
+        private final Set<String> unqualified = new HashSet<>();
+        private final long modified;
+
+        private Selection(List<Map<String, Object>> rows, long modified) {
+            this.modified = modified;
+            for (Map<String, Object> row : rows) {
+                Object testCaseName = row.get("testcasename");
+                if (Objects.isNull(testCaseName) || !"yes".equalsIgnoreCase(String.valueOf(row.get("execute")).trim())) {
+                    continue;
+                }
+                Object className = row.get("classname");
+                if (Objects.isNull(className) || String.valueOf(className).trim().isEmpty()) {
+                    unqualified.add(key(String.valueOf(testCaseName)));
+                } else {
+                    qualified.add(key(String.valueOf(className)) + "#" + key(String.valueOf(testCaseName)));
+                }
             }
         }
 
-        if (result.isEmpty() && !methods.isEmpty() && !list.isEmpty()){
-            System.out.println("WARNING: MethodInterceptor resulted in an empty list of tests to run, " +
-                               "even though TestNG discovered methods and an execution list was provided. " +
-                               "Check testcasename matches and execute flags in your runner JSON for run manager: " + runManager);
-        } else if (result.isEmpty() && !methods.isEmpty() && list.isEmpty()){
-             System.out.println("WARNING: MethodInterceptor: No tests will run as the execution list from JSON is empty for run manager: " + runManager);
+        private boolean contains(ITestNGMethod method) {
+            String methodName = key(method.getMethodName());
+            Class<?> testClass = method.getRealClass();
+            return unqualified.contains(methodName)
+                    || qualified.contains(key(testClass.getName()) + "#" + methodName)
+                    || qualified.contains(key(testClass.getSimpleName()) + "#" + methodName);
         }
 
-        return result;
+        private boolean isEmpty() {
+            return qualified.isEmpty() && unqualified.isEmpty();
+        }
+
+        private static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
     }
 }
@@ -0,0 +1,64 @@
+package org.op_ra.listeners;
+
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.utils.PropertyUtils;
+import org.testng.IAlterSuiteListener;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+import java.util.Objects;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Implements {@link org.testng.IAlterSuiteListener} to switch a suite to parallel execution from configuration,
+ * without editing the TestNG XML files.
+ * <p>
+ * {@code parallel_mode} ({@code none}, {@code methods}, {@code classes}, {@code instances} or {@code tests}) and
+ * {@code parallel_thread_count} are read from the properties file and can be overridden with
+ * {@code -Dparallel.mode} and {@code -Dparallel.thread.count}. With {@code none} (the default) the suite runs exactly
+ * as written in the XML. Otherwise the mode and thread count are applied to the suite and to each of its
+ * {@code <test>} elements, and data-provider rows are run with the same number of threads.
+ * </p>
+ * Suite alter listeners are only picked up from the suite XML (or the service loader):
+ * <pre>{@code
+ * <listeners>
+ *     <listener class-name="org.op_ra.listeners.ParallelSuiteListener"/>
+ * </listeners>
+ * }</pre>
+ */
+public class ParallelSuiteListener implements IAlterSuiteListener {
+
+    /**
+     * Applies the configured parallel mode and thread count to every suite about to run.
+     *
+     * @param suites The suites parsed from the XML files.
+     */
+    @Override
+    public void alter(List<XmlSuite> suites) {
+        String mode = PropertyUtils.getOverridableValue(ConfigProperties.PARALLEL_MODE, "none");
+        XmlSuite.ParallelMode parallelMode = XmlSuite.ParallelMode.getValidParallel(mode);
+        if (Objects.isNull(parallelMode)) {
+            throw new IllegalArgumentException("Unknown parallel_mode '" + mode + "'. Use none, methods, classes, instances or tests");
+        }
+        if (!parallelMode.isParallel()) {
+            return;
+        }
+        int threadCount = Integer.parseInt(PropertyUtils.getOverridableValue(ConfigProperties.PARALLEL_THREAD_COUNT, "8"));
+        if (threadCount <= 0) {
+            throw new IllegalArgumentException("parallel_thread_count must be positive: " + threadCount);
+        }
+        for (XmlSuite suite : suites) {
+            suite.setParallel(parallelMode);
+            suite.setThreadCount(threadCount);
+            suite.setDataProviderThreadCount(threadCount);
+            for (XmlTest test : suite.getTests()) {
+                test.setParallel(parallelMode);
+                test.setThreadCount(threadCount);
+            }
+            log(INFO, "Suite " + suite.getName() + " runs in parallel: " + parallelMode + " with " + threadCount + " threads");
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package org.op_ra.listeners;
+
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.reports.ExtentReport;
+import org.op_ra.reports.LatencyReport;
+import org.op_ra.utils.PropertyUtils;
+import org.op_ra.utils.ReportDatabaseController;
+import org.op_ra.utils.SendEmailWithResults;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.op_ra.enums.LogType.ERROR;
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Publishes the results of a suite when it finishes, running independent steps in parallel on daemon threads, so a
+ * slow or hanging step (e.g. an unreachable SMTP server) neither delays the others nor keeps the JVM alive.
+ * <ol>
+ *     <li>The latency summary and the Extent report ({@link LatencyReport#publish()}, then
+ *     {@link ExtentReport#flushReports()}), and, at the same time, the test results still queued for the database
+ *     ({@link ReportDatabaseController#flush()}).</li>
+ *     <li>Once the report is written: the email with the report ({@link SendEmailWithResults#sendEmail()}), the zip
+ *     of the report files when {@link ConfigProperties#REPORT_ARCHIVE} is "yes", and opening the report in a browser
+ *     when there is a display ({@link ExtentReport#openReport()}).</li>
+ * </ol>
+ * All steps share the deadline of {@link ConfigProperties#SUITE_FINALIZE_TIMEOUT_SECONDS}; a step still running at
+ * the deadline is interrupted and reported as timed out, and is given {@value #CANCEL_GRACE_SECONDS} seconds to
+ * exit before {@link #run()} returns and the caller closes the shared connections. The time taken by each step is
+ * logged.
+ */
+final class SuiteFinalizer {
+
+    private static final long TIMEOUT_SECONDS = PropertyUtils.getLongOrDefault(ConfigProperties.SUITE_FINALIZE_TIMEOUT_SECONDS, 300);
+    private static final long CANCEL_GRACE_SECONDS = 5;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private SuiteFinalizer() {
+        // Private constructor
+    }
+
+    /**
+     * Runs the steps and waits for them until the deadline.
+     */
+    static void run() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "suite-finalizer-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        Map<String, String> timings = new LinkedHashMap<>();
+        try {
+            Map<String, Future<Long>> steps = new LinkedHashMap<>();
+            steps.put("result database", submit(executor, ReportDatabaseController::flush));
+            Future<Long> report = submit(executor, () -> {
+                LatencyReport.publish(); // Adds the latency summary to the report, so it comes first
+                ExtentReport.flushReports();
+            });
+            boolean reportWritten = await("report", report, deadline, timings);
+            if (reportWritten) {
+                steps.put("email", submit(executor, SendEmailWithResults::sendEmail));
+                if ("yes".equalsIgnoreCase(PropertyUtils.getValueOrDefault(ConfigProperties.REPORT_ARCHIVE, "no").trim())) {
+                    steps.put("archive", submit(executor, SuiteFinalizer::archive));
+                }
+                steps.put("open report", submit(executor, ExtentReport::openReport));
+            } else {
+                log(WARN, "Suite finalization: the report was not written; not sending the email or archiving it");
+            }
+            for (Map.Entry<String, Future<Long>> step : steps.entrySet()) {
+                await(step.getKey(), step.getValue(), deadline, timings);
+            }
+        } finally {
+            executor.shutdownNow();
+            awaitExit(executor);
+        }
+        log(INFO, "Suite finalization took " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms: " + timings);
+    }
+
+    /**
+     * Starts a step.
+     *
+     * @return The step, completing with its duration in milliseconds.
+     */
+    private static Future<Long> submit(ExecutorService executor, Step step) {
+        return executor.submit(() -> {
+            long start = System.nanoTime();
+            step.run();
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Waits for a step until the deadline and records how it ended.
+     *
+     * @return Whether the step completed without an error.
+     */
+    private static boolean await(String name, Future<Long> step, long deadline, Map<String, String> timings) {
+        try {
+            long millis = step.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            timings.put(name, millis + " ms");
+            return true;
+        } catch (TimeoutException e) {
+            step.cancel(true);
+            timings.put(name, "timed out");
+            log(WARN, "Suite finalization: " + name + " did not finish within suite_finalize_timeout_seconds ("
+                    + TIMEOUT_SECONDS + " s)");
+        } catch (ExecutionException e) {
+            timings.put(name, "failed");
+            log(ERROR, "Suite finalization: " + name + " failed: " + e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            timings.put(name, "interrupted");
+        }
+        return false;
+    }
+
+    /**
+     * Gives the interrupted steps a short grace period to exit, so they are no longer writing when the caller closes
+     * the database and HTTP connections they use.
+     */
+    private static void awaitExit(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(CANCEL_GRACE_SECONDS, TimeUnit.SECONDS)) {
+                log(WARN, "Suite finalization: steps still running " + CANCEL_GRACE_SECONDS
+                        + " s after being interrupted; their connections are closed anyway");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Zips the files of this run's report (the HTML report and the files named after it) with the response bodies it
+     * links to into {@link FrameworkConstants#getReportArchivePath()}.
+     */
+    private static void archive() throws IOException {
+        File report = new File(FrameworkConstants.getReportPath());
+        String baseName = report.getName().replaceFirst("\\.html$", "");
+        File archive = new File(FrameworkConstants.getReportArchivePath());
+        List<Path> files = new ArrayList<>();
+        File[] reportFiles = report.getParentFile().listFiles(
+                (dir, name) -> name.startsWith(baseName) && !name.startsWith(archive.getName()));
+        if (Objects.nonNull(reportFiles)) {
+            for (File file : reportFiles) {
+                files.add(file.toPath());
+            }
+        }
+        File bodies = new File(FrameworkConstants.getResponseBodyFolderPath());
+        for (String name : ExtentReport.getResponseBodyFiles()) { // Not the bodies of earlier runs in the same folder
+            File body = new File(bodies, name);
+            if (body.isFile()) {
+                files.add(body.toPath());
+            }
+        }
+        Path root = report.getParentFile().toPath();
+        Path tmp = archive.toPath().resolveSibling(archive.getName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Path file : files) {
+                zip.putNextEntry(new ZipEntry(root.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, zip);
+                zip.closeEntry();
+            }
+        }
+        Files.move(tmp, archive.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        log(INFO, "Archived " + files.size() + " report file(s) in " + archive);
+    }
+
+    /**
+     * One step of the finalization.
+     */
+    @FunctionalInterface
+    private interface Step {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,138 @@
+package org.op_ra.load;
+
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.LatencyCorrection;
+import org.op_ra.enums.LoadModel;
+import org.op_ra.utils.PropertyUtils;
+
+import java.time.Duration;
+
+/**
+ * Immutable description of a load run: which {@link LoadModel} to use, how hard to drive it and for how long.
+ * <p>
+ * Every setting is read from its {@code load_*} configuration property and can be overridden on the command line
+ * with a system property of the same name using dots, e.g. {@code -Dload.rate.per.second=50} overrides
+ * {@code load_rate_per_second}.
+ * </p>
+ */
+public final class LoadProfile {
+
+    private final LoadModel model;
+    private final double ratePerSecond;
+    private final int virtualUsers;
+    private final long thinkTimeMs;
+    private final Duration duration;
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private final long pacingMs;
+    private final LatencyCorrection correction;
+    private final String targets;
+
+    private LoadProfile(LoadModel model, double ratePerSecond, int virtualUsers, long thinkTimeMs,
+                        Duration duration, int maxConcurrency, int maxQueued, long pacingMs,
+                        LatencyCorrection correction, String targets) {
+        this.model = model;
+        this.ratePerSecond = ratePerSecond;
+        this.virtualUsers = virtualUsers;
+        this.thinkTimeMs = thinkTimeMs;
+        this.duration = duration;
+        this.maxConcurrency = maxConcurrency;
+        this.maxQueued = maxQueued;
+        this.pacingMs = pacingMs;
+        this.correction = correction;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the profile from configuration and system properties.
+     *
+     * @return The configured {@link LoadProfile}.
+     * @throws IllegalArgumentException if the rate, user count or duration is not positive.
+     */
+    public static LoadProfile fromConfig() {
+        LoadProfile profile = new LoadProfile(
+                LoadModel.fromValue(setting(ConfigProperties.LOAD_MODEL, "closed")),
+                Double.parseDouble(setting(ConfigProperties.LOAD_RATE_PER_SECOND, "10")),
+                Integer.parseInt(setting(ConfigProperties.LOAD_VIRTUAL_USERS, "5")),
+                Long.parseLong(setting(ConfigProperties.LOAD_THINK_TIME_MS, "0")),
+                Duration.ofSeconds(Long.parseLong(setting(ConfigProperties.LOAD_DURATION_SECONDS, "60"))),
+                Integer.parseInt(setting(ConfigProperties.LOAD_MAX_CONCURRENCY, "64")),
+                Integer.parseInt(setting(ConfigProperties.LOAD_MAX_QUEUED, "1000")),
+                Long.parseLong(setting(ConfigProperties.LOAD_PACING_MS, "0")),
+                LatencyCorrection.fromValue(setting(ConfigProperties.LOAD_LATENCY_CORRECTION, "intended_start")),
+                setting(ConfigProperties.LOAD_TARGETS, ""));
+        if (profile.ratePerSecond <= 0 || profile.virtualUsers <= 0 || profile.maxConcurrency <= 0 || profile.maxQueued <= 0
+                || profile.duration.isZero() || profile.duration.isNegative()) {
+            throw new IllegalArgumentException("Load rate, virtual users, max concurrency, max queued and duration must be positive: " + profile);
+        }
+        return profile;
+    }
+
+    private static String setting(ConfigProperties key, String defaultValue) {
+        return PropertyUtils.getOverridableValue(key, defaultValue);
+    }
+
+    /** @return The workload model. */
+    public LoadModel getModel() {
+        return model;
+    }
+
+    /** @return Iterations started per second across all targets (open model). */
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    /** @return Number of concurrent virtual users (closed model). */
+    public int getVirtualUsers() {
+        return virtualUsers;
+    }
+
+    /** @return Pause in milliseconds between iterations of one virtual user (closed model). */
+    public long getThinkTimeMs() {
+        return thinkTimeMs;
+    }
+
+    /** @return How long iterations keep being started. */
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /** @return Maximum iterations in flight at once (open model). */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /** @return Maximum iterations waiting for a free worker before new arrivals are shed (open model). */
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * @return Intended time in milliseconds between iteration starts of one virtual user (closed model);
+     *         0 runs iterations back to back with {@link #getThinkTimeMs()} in between instead.
+     */
+    public long getPacingMs() {
+        return pacingMs;
+    }
+
+    /** @return The coordinated-omission correction applied to recorded latencies. */
+    public LatencyCorrection getCorrection() {
+        return correction;
+    }
+
+    /**
+     * @return Comma-separated {@code Class.method} names to drive, or empty to drive every method
+     *         tagged {@link org.op_ra.enums.CategoryType#PERFORMANCE}.
+     */
+    public String getTargets() {
+        return targets;
+    }
+
+    @Override
+    public String toString() {
+        return model == LoadModel.OPEN
+                ? "OPEN model, " + ratePerSecond + " it/s for " + duration.getSeconds() + "s (max " + maxConcurrency + " in flight, " + maxQueued + " queued)"
+                : "CLOSED model, " + virtualUsers + " VU(s), "
+                + (pacingMs > 0 ? "pacing " + pacingMs : "think time " + thinkTimeMs) + "ms for " + duration.getSeconds() + "s";
+    }
+}
@@ -0,0 +1,119 @@
+package org.op_ra.load;
+
+import org.op_ra.enums.LatencyCorrection;
+import org.op_ra.metrics.LatencyHistogram;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Iteration counters and iteration-time histograms of one {@link LoadTarget} during a load run.
+ * Updated concurrently by every thread driving the target, without locking.
+ * <p>
+ * Two histograms are kept side by side: the measured service time of each iteration, and the same iteration time
+ * corrected for coordinated omission according to the profile's {@link LatencyCorrection}.
+ * </p>
+ */
+public final class LoadResult {
+
+    private final LoadTarget target;
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LatencyHistogram correctedTime = new LatencyHistogram();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+
+    LoadResult(LoadTarget target) {
+        this.target = target;
+    }
+
+    /**
+     * Records one finished iteration.
+     *
+     * @param intendedStartNanos    When the scheduler intended the iteration to start ({@link System#nanoTime()}).
+     * @param startNanos            When it actually started.
+     * @param endNanos              When it finished.
+     * @param expectedIntervalNanos The scheduled time between iterations of the same thread or target.
+     * @param correction            The coordinated-omission correction to apply.
+     * @param failure               What the iteration threw, or {@code null} if it passed.
+     * @return {@code true} if this was the first failure of the target.
+     */
+    boolean record(long intendedStartNanos, long startNanos, long endNanos, long expectedIntervalNanos,
+                   LatencyCorrection correction, Throwable failure) {
+        long measured = TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos);
+        serviceTime.record(measured);
+        switch (correction) {
+            case INTENDED_START:
+                correctedTime.record(TimeUnit.NANOSECONDS.toMicros(endNanos - Math.min(startNanos, intendedStartNanos)));
+                break;
+            case EXPECTED_INTERVAL:
+                correctedTime.recordWithExpectedInterval(measured, TimeUnit.NANOSECONDS.toMicros(expectedIntervalNanos));
+                break;
+            case NONE:
+            default:
+                correctedTime.record(measured);
+                break;
+        }
+        if (Objects.isNull(failure)) {
+            return false;
+        }
+        failures.increment();
+        return firstFailure.compareAndSet(null, failure.getClass().getSimpleName() + ": " + failure.getMessage());
+    }
+
+    /**
+     * Records an iteration that was not run because the queue of iterations waiting for a worker was full.
+     *
+     * @return {@code true} if this was the first shed iteration of the target.
+     */
+    boolean recordShed() {
+        shed.increment();
+        return shed.sum() == 1;
+    }
+
+    /** @return The target these counters belong to. */
+    public LoadTarget getTarget() {
+        return target;
+    }
+
+    /** @return Number of finished iterations. */
+    public long getIterations() {
+        return serviceTime.getCount();
+    }
+
+    /** @return Number of iterations that threw (assertion failures included). */
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    /** @return Number of iterations due to start that were shed because too many were already waiting (open model). */
+    public long getShed() {
+        return shed.sum();
+    }
+
+    /** @return The first failure seen, or {@code null}. */
+    public String getFirstFailure() {
+        return firstFailure.get();
+    }
+
+    /** @return Measured iteration times in microseconds, from actual start to end. */
+    public LatencyHistogram getServiceTime() {
+        return serviceTime;
+    }
+
+    /** @return Iteration times in microseconds corrected for coordinated omission. */
+    public LatencyHistogram getCorrectedTime() {
+        return correctedTime;
+    }
+
+    /**
+     * @param elapsed The wall-clock length of the run.
+     * @return Finished iterations per second.
+     */
+    public double getThroughput(Duration elapsed) {
+        return elapsed.isZero() ? 0 : getIterations() * 1000.0 / elapsed.toMillis();
+    }
+}
@@ -0,0 +1,290 @@
+package org.op_ra.load;
+
+import org.op_ra.enums.CategoryType;
+import org.op_ra.enums.LatencyCorrection;
+import org.op_ra.enums.LoadModel;
+import org.op_ra.exceptions.FrameworkException;
+import org.op_ra.metrics.LatencyHistogram;
+import org.op_ra.metrics.LatencyRecorder;
+import org.op_ra.reports.ExtentLogger;
+import org.op_ra.reports.ExtentReport;
+import org.op_ra.reports.LatencyReport;
+import org.op_ra.requestbuilder.AsyncApiRequestBuilder;
+import org.op_ra.requestbuilder.ServiceClientRegistry;
+import org.op_ra.requestbuilder.ServiceSpecCache;
+import org.op_ra.utils.DataBaseConnectionUtils;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+import org.testng.xml.internal.Parser;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Drives existing TestNG test methods as a load workload, so endpoint knowledge lives in one place:
+ * the functional tests and their {@code ApiRequestBuilder} calls.
+ * <p>
+ * Two models are supported (see {@link LoadModel}):
+ * </p>
+ * <ul>
+ *     <li>{@link LoadModel#OPEN} starts iterations at a constant arrival rate, spread round-robin over the targets,
+ *     with at most {@code load_max_concurrency} in flight. Iterations that cannot start on time wait in a queue
+ *     rather than being skipped, so a slow backend does not lower the offered load. The queue holds at most
+ *     {@code load_max_queued} iterations; arrivals beyond that are shed, so memory stays bounded when the target
+ *     cannot keep up, and counted in the report, since they lower the load actually offered.</li>
+ *     <li>{@link LoadModel#CLOSED} runs {@code load_virtual_users} threads, each executing targets back to back
+ *     with {@code load_think_time_ms} between iterations, or on a fixed cadence of {@code load_pacing_ms}.</li>
+ * </ul>
+ * Every iteration has an intended start time (its slot in the arrival schedule or the pacing cadence). A stalled
+ * request delays the iterations behind it, and measuring from the actual start would hide that delay
+ * (coordinated omission). Iteration times and per-endpoint latencies are therefore also recorded corrected
+ * according to {@code load_latency_correction} (see {@link LatencyCorrection}), and both are reported side by side.
+ * Without pacing, the closed model has no schedule to fall behind, so its corrected and measured values match.
+ * Targets are the methods listed in {@code load_targets}, or every {@code @Test} tagged
+ * {@link CategoryType#PERFORMANCE} in the classes of the given suite XML. Run it with:
+ * <pre>{@code
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.op_ra.load.LoadRunner \
+ *     -Dexec.args=src/test/resources/testrunner/open.xml \
+ *     -Dload.model=open -Dload.rate.per.second=20 -Dload.targets=TestOpenERX.TC007_GET_Erx_GetDrugList
+ * }</pre>
+ * A summary per target is logged and written to the Extent report, followed by the per-endpoint latency
+ * percentiles of {@link LatencyReport}.
+ */
+public final class LoadRunner {
+
+    private static final String DEFAULT_SUITE = "src/test/resources/testrunner/open.xml";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private LoadRunner() {
+        // Private constructor
+    }
+
+    /**
+     * Runs the configured load against the targets of a suite and reports the results.
+     *
+     * @param args Optional path of the TestNG suite XML whose classes hold the targets (defaults to open.xml).
+     */
+    public static void main(String[] args) {
+        String suiteFile = args.length > 0 ? args[0] : DEFAULT_SUITE;
+        LoadProfile profile = LoadProfile.fromConfig();
+        ExtentReport.initReports("LOAD");
+        ServiceSpecCache.init();
+        try {
+            List<LoadTarget> targets = LoadTarget.resolve(getSuiteClasses(suiteFile), profile.getTargets());
+            if (targets.isEmpty()) {
+                log(WARN, "No load targets: set load_targets or tag tests with CategoryType.PERFORMANCE in " + suiteFile);
+                return;
+            }
+            long start = System.nanoTime();
+            List<LoadResult> results = run(profile, targets);
+            report(profile, results, Duration.ofNanos(System.nanoTime() - start));
+        } finally {
+            try {
+                LatencyReport.publish();
+                ExtentReport.flushReports();
+            } catch (Exception e) {
+                log(WARN, "Could not finalize the load report: " + e.getMessage());
+            }
+            AsyncApiRequestBuilder.shutdown();
+            ServiceClientRegistry.shutdown();
+            DataBaseConnectionUtils.closeAllConnections();
+        }
+    }
+
+    /**
+     * Drives the targets according to the profile and blocks until the run is over.
+     *
+     * @param profile The load profile.
+     * @param targets The test methods to drive.
+     * @return One {@link LoadResult} per target, in target order.
+     */
+    public static List<LoadResult> run(LoadProfile profile, List<LoadTarget> targets) {
+        List<LoadResult> results = new ArrayList<>();
+        for (LoadTarget target : targets) {
+            results.add(new LoadResult(target));
+        }
+        log(INFO, "Starting load run: " + profile + ", " + profile.getCorrection() + " correction, over " + targets);
+        if (profile.getModel() == LoadModel.CLOSED && profile.getPacingMs() <= 0 && profile.getCorrection() != LatencyCorrection.NONE) {
+            log(WARN, "Closed model without load_pacing_ms: no intended schedule, corrected latencies equal measured ones");
+        }
+        if (profile.getModel() == LoadModel.OPEN) {
+            runOpen(profile, results);
+        } else {
+            runClosed(profile, results);
+        }
+        log(INFO, "Load run finished");
+        return results;
+    }
+
+    private static void runOpen(LoadProfile profile, List<LoadResult> results) {
+        // Rejects (AbortPolicy) once load_max_queued iterations are waiting
+        ExecutorService workers = new ThreadPoolExecutor(profile.getMaxConcurrency(), profile.getMaxConcurrency(),
+                0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(profile.getMaxQueued()), threadFactory("load-worker-"));
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / profile.getRatePerSecond());
+        long targetIntervalNanos = periodNanos * results.size();
+        long start = System.nanoTime();
+        long end = start + profile.getDuration().toNanos();
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * periodNanos;
+            if (intendedStart - end >= 0) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadResult result = results.get((int) (i % results.size()));
+            long iteration = i / results.size();
+            try {
+                workers.execute(() -> runIteration(result, iteration, intendedStart, targetIntervalNanos, profile.getCorrection()));
+            } catch (RejectedExecutionException e) {
+                if (result.recordShed()) {
+                    log(WARN, "Shedding iterations of " + result.getTarget() + ": " + profile.getMaxQueued()
+                            + " already waiting for one of " + profile.getMaxConcurrency() + " workers");
+                }
+            }
+        }
+        awaitCompletion(workers, profile);
+    }
+
+    private static void runClosed(LoadProfile profile, List<LoadResult> results) {
+        ExecutorService users = Executors.newFixedThreadPool(profile.getVirtualUsers(), threadFactory("load-vu-"));
+        long pacingNanos = TimeUnit.MILLISECONDS.toNanos(profile.getPacingMs());
+        long start = System.nanoTime();
+        long end = start + profile.getDuration().toNanos();
+        for (int vu = 0; vu < profile.getVirtualUsers(); vu++) {
+            int offset = vu;
+            users.execute(() -> {
+                for (long i = 0; System.nanoTime() - end < 0; i++) {
+                    long intendedStart = System.nanoTime();
+                    if (pacingNanos > 0) {
+                        // Start on the cadence; if an earlier iteration overran, start now but keep the intended time.
+                        intendedStart = start + i * pacingNanos;
+                        long wait = intendedStart - System.nanoTime();
+                        if (wait > 0) {
+                            LockSupport.parkNanos(wait);
+                        }
+                    }
+                    runIteration(results.get((int) ((offset + i) % results.size())), i, intendedStart,
+                            pacingNanos, profile.getCorrection());
+                    if (pacingNanos <= 0 && profile.getThinkTimeMs() > 0) {
+                        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(profile.getThinkTimeMs()));
+                    }
+                }
+            });
+        }
+        awaitCompletion(users, profile);
+    }
+
+    private static void runIteration(LoadResult result, long iteration, long intendedStart, long expectedIntervalNanos,
+                                     LatencyCorrection correction) {
+        Throwable failure = null;
+        LatencyRecorder.beginScheduledCall(intendedStart, expectedIntervalNanos, correction);
+        long begin = System.nanoTime();
+        try {
+            result.getTarget().invoke(iteration);
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            LatencyRecorder.endScheduledCall();
+        }
+        if (result.record(intendedStart, begin, System.nanoTime(), expectedIntervalNanos, correction, failure)) {
+            log(WARN, "First failure of " + result.getTarget() + ": " + result.getFirstFailure());
+        }
+    }
+
+    private static void awaitCompletion(ExecutorService executor, LoadProfile profile) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(profile.getDuration().getSeconds() + 60, TimeUnit.SECONDS)) {
+                log(WARN, "Load iterations still running after the grace period; abandoning them");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void report(LoadProfile profile, List<LoadResult> results, Duration elapsed) {
+        for (LoadResult result : results) {
+            long[] measured = result.getServiceTime().getValuesAtPercentiles(50, 99, 99.9);
+            long[] corrected = result.getCorrectedTime().getValuesAtPercentiles(50, 99, 99.9);
+            log(result.getShed() > 0 ? WARN : INFO, String.format("%s: %d iterations, %d failed, %d shed, %.1f it/s, p99 %.1f ms (corrected %.1f ms)",
+                    result.getTarget(), result.getIterations(), result.getFailures(), result.getShed(),
+                    result.getThroughput(elapsed), measured[1] / 1000.0, corrected[1] / 1000.0));
+
+            ExtentReport.createTest("<span style='font-weight:bold;color:darkblue;'>Load: </span>" + result.getTarget());
+            ExtentReport.addCategories(new CategoryType[]{CategoryType.PERFORMANCE});
+            ExtentLogger.info(profile + ", " + profile.getCorrection() + " correction");
+            ExtentLogger.info(String.format("Iterations: %d, failed: %d, throughput: %.1f it/s",
+                    result.getIterations(), result.getFailures(), result.getThroughput(elapsed)));
+            if (result.getShed() > 0) {
+                ExtentLogger.warn(result.getShed() + " iteration(s) shed: more than load_max_queued were waiting for a"
+                        + " worker, so the target was offered less than the configured rate");
+            }
+            String table = "<table class='table table-sm'>"
+                    + "<tr><th>Iteration time (ms)</th><th>p50</th><th>p99</th><th>p99.9</th><th>Max</th></tr>"
+                    + toTableRow("Measured", measured, result.getServiceTime())
+                    + toTableRow("Corrected", corrected, result.getCorrectedTime())
+                    + "</table>";
+            if (result.getFailures() > 0) {
+                ExtentLogger.fail(table);
+                ExtentLogger.fail("First failure: " + result.getFirstFailure());
+            } else {
+                ExtentLogger.pass(table);
+            }
+        }
+    }
+
+    private static String toTableRow(String label, long[] percentiles, LatencyHistogram histogram) {
+        return String.format("<tr><td>%s</td><td>%.1f</td><td>%.1f</td><td>%.1f</td><td>%.1f</td></tr>", label,
+                percentiles[0] / 1000.0, percentiles[1] / 1000.0, percentiles[2] / 1000.0, histogram.getMax() / 1000.0);
+    }
+
+    private static List<Class<?>> getSuiteClasses(String suiteFile) {
+        List<Class<?>> classes = new ArrayList<>();
+        try {
+            for (XmlSuite suite : new Parser(suiteFile).parseToList()) {
+                for (XmlTest test : suite.getTests()) {
+                    for (XmlClass xmlClass : test.getXmlClasses()) {
+                        if (Objects.nonNull(xmlClass.getSupportClass()) && !classes.contains(xmlClass.getSupportClass())) {
+                            classes.add(xmlClass.getSupportClass());
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new FrameworkException("Cannot read suite file " + suiteFile, e);
+        }
+        return classes;
+    }
+
+    private static ThreadFactory threadFactory(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,139 @@
+package org.op_ra.load;
+
+import org.op_ra.annotations.FrameworkAnnotation;
+import org.op_ra.enums.CategoryType;
+import org.op_ra.exceptions.FrameworkException;
+import org.op_ra.utils.DataProviderUtils;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A TestNG test method used as a load-generation workload.
+ * <p>
+ * Each thread driving the target gets its own instance of the test class, because test classes keep
+ * per-test state in fields (e.g. the {@code data} map of {@code TestOpenERX}). Methods that take parameters
+ * are fed from {@link DataProviderUtils#getJsonData(Method)}, cycling through its rows.
+ * </p>
+ */
+public final class LoadTarget {
+
+    private final Class<?> testClass;
+    private final Method method;
+    private final List<Object[]> rows;
+    private final ThreadLocal<Object> instance = ThreadLocal.withInitial(this::newInstance);
+
+    private LoadTarget(Class<?> testClass, Method method, List<Object[]> rows) {
+        this.testClass = testClass;
+        this.method = method;
+        this.rows = rows;
+    }
+
+    /**
+     * Resolves the targets to drive from the test classes of a suite.
+     *
+     * @param classes The candidate test classes, typically those listed in the TestNG suite XML.
+     * @param names   Comma-separated {@code Class.method} names (simple or fully qualified class name).
+     *                If blank, every {@code @Test} method tagged {@link CategoryType#PERFORMANCE}
+     *                in its {@link FrameworkAnnotation} is selected.
+     * @return The resolved targets, in the order given (or declaration order when discovered).
+     * @throws FrameworkException if a named method cannot be found.
+     */
+    public static List<LoadTarget> resolve(List<Class<?>> classes, String names) {
+        List<LoadTarget> targets = new ArrayList<>();
+        if (Objects.isNull(names) || names.trim().isEmpty()) {
+            for (Class<?> testClass : classes) {
+                for (Method method : testClass.getMethods()) {
+                    if (method.isAnnotationPresent(Test.class) && isPerformanceTest(method)) {
+                        targets.add(of(testClass, method));
+                    }
+                }
+            }
+            return targets;
+        }
+        Set<String> requested = Arrays.stream(names.split(","))
+                .map(String::trim).filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        for (String name : requested) {
+            int separator = name.lastIndexOf('.');
+            if (separator <= 0) {
+                throw new FrameworkException("Load target '" + name + "' must be written as Class.method");
+            }
+            String className = name.substring(0, separator);
+            String methodName = name.substring(separator + 1);
+            targets.add(classes.stream()
+                    .filter(c -> c.getName().equals(className) || c.getSimpleName().equals(className))
+                    .flatMap(c -> Arrays.stream(c.getMethods())
+                            .filter(m -> m.getName().equals(methodName) && m.isAnnotationPresent(Test.class))
+                            .map(m -> of(c, m)))
+                    .findFirst()
+                    .orElseThrow(() -> new FrameworkException("Load target '" + name + "' not found in the suite classes")));
+        }
+        return targets;
+    }
+
+    private static boolean isPerformanceTest(Method method) {
+        FrameworkAnnotation annotation = method.getAnnotation(FrameworkAnnotation.class);
+        return Objects.nonNull(annotation) && Arrays.asList(annotation.category()).contains(CategoryType.PERFORMANCE);
+    }
+
+    private static LoadTarget of(Class<?> testClass, Method method) {
+        if (method.getParameterCount() == 0) {
+            return new LoadTarget(testClass, method, Collections.singletonList(new Object[0]));
+        }
+        List<Object[]> rows = new ArrayList<>();
+        for (Object row : DataProviderUtils.getJsonData(method)) {
+            rows.add(row instanceof Object[] ? (Object[]) row : new Object[]{row});
+        }
+        return new LoadTarget(testClass, method, rows);
+    }
+
+    /**
+     * Runs one iteration of the test method on the calling thread's instance of the test class.
+     *
+     * @param iteration The iteration number, used to pick the data-provider row.
+     * @throws Throwable Whatever the test method threw, e.g. an {@link AssertionError} for a failed check.
+     */
+    public void invoke(long iteration) throws Throwable {
+        if (rows.isEmpty()) {
+            throw new FrameworkException("No test data rows with execute=yes for " + getName());
+        }
+        try {
+            method.invoke(instance.get(), rows.get((int) (iteration % rows.size())));
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Object newInstance() {
+        try {
+            return testClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new FrameworkException("Cannot instantiate test class " + testClass.getName() + " for load generation", e);
+        }
+    }
+
+    /** @return The test method being driven. */
+    public Method getMethod() {
+        return method;
+    }
+
+    /** @return The target name as {@code SimpleClassName.methodName}. */
+    public String getName() {
+        return testClass.getSimpleName() + "." + method.getName();
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
@@ -0,0 +1,4 @@
+package org.op_ra.load;
+/**
+ * This package contains the load-generation mode, which drives existing TestNG test methods as workload.
+ */
\ No newline at end of file
@@ -0,0 +1,108 @@
+package org.op_ra.metrics;
+
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.LatencyCorrection;
+import org.op_ra.utils.PropertyUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram and call counters of one service endpoint template, e.g.
+ * {@code ERX GET /erx/drug/search_drug_detail?searchString&maxResults&searchType}.
+ * Instances are created and updated by {@link LatencyRecorder}.
+ */
+public final class EndpointMetrics {
+
+    /** Most recent calls kept per endpoint ({@code slo_window_capacity}); the largest window an SLO can evaluate. */
+    static final int WINDOW_CAPACITY = (int) PropertyUtils.getLongOrDefault(ConfigProperties.SLO_WINDOW_CAPACITY, 1000);
+
+    private final String service;
+    private final String method;
+    private final String template;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LatencyHistogram correctedHistogram = new LatencyHistogram();
+    private final LongAdder errors = new LongAdder();
+    private final RecentCalls recentCalls = new RecentCalls(WINDOW_CAPACITY);
+    private final LongAccumulator firstStartNanos = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator lastEndNanos = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    EndpointMetrics(String service, String method, String template) {
+        this.service = service;
+        this.method = method;
+        this.template = template;
+    }
+
+    void record(long startNanos, long endNanos, boolean error) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(endNanos - startNanos);
+        histogram.record(micros);
+        recentCalls.add(micros, error);
+        if (error) {
+            errors.increment();
+        }
+        firstStartNanos.accumulate(startNanos);
+        lastEndNanos.accumulate(endNanos);
+    }
+
+    void recordCorrected(long micros, long expectedIntervalMicros) {
+        correctedHistogram.recordWithExpectedInterval(micros, expectedIntervalMicros);
+    }
+
+    /** @return The service name, e.g. {@code ERX}. */
+    public String getService() {
+        return service;
+    }
+
+    /** @return The HTTP method, e.g. {@code GET}. */
+    public String getMethod() {
+        return method;
+    }
+
+    /** @return The endpoint template, with ids and query values stripped. */
+    public String getTemplate() {
+        return template;
+    }
+
+    /** @return The measured (uncorrected) latency histogram in microseconds. */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * @return The coordinated-omission-corrected latency histogram in microseconds.
+     *         Only calls made by the load scheduler are recorded here; empty otherwise.
+     * @see LatencyRecorder#beginScheduledCall(long, long, LatencyCorrection)
+     */
+    public LatencyHistogram getCorrectedHistogram() {
+        return correctedHistogram;
+    }
+
+    /**
+     * Adds up to {@code lastCalls} of this endpoint's most recent calls to a window.
+     *
+     * @param lastCalls The number of calls wanted; capped at {@code slo_window_capacity}.
+     * @param window    The window to add to.
+     */
+    void addRecentCallsTo(int lastCalls, LatencyWindow window) {
+        recentCalls.addTo(lastCalls, window);
+    }
+
+    /** @return Number of calls that failed (exception or 5xx status). */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @return Calls per second between the start of the first and the end of the last recorded call.
+     */
+    public double getThroughput() {
+        long window = lastEndNanos.get() - firstStartNanos.get();
+        return window <= 0 ? 0 : histogram.getCount() * (double) TimeUnit.SECONDS.toNanos(1) / window;
+    }
+
+    @Override
+    public String toString() {
+        return service + " " + method + " " + template;
+    }
+}
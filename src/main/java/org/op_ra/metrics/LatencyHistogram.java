@@ -0,0 +1,219 @@
+package org.op_ra.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with HdrHistogram-style log-linear buckets.
+ * <p>
+ * Values (microseconds) below 128 get one bucket each; above that every power of two is split into 64 equal
+ * sub-buckets, so any recorded value is reported within 1/64 (about 1.6%) of its true value while the whole range
+ * from 1&micro;s to about 19 hours fits in roughly two thousand counters. Recording is a single atomic increment,
+ * so any number of threads can record concurrently without contention on a lock.
+ * </p>
+ * Percentiles are computed from a copy of the counters, so reading while other threads record is safe
+ * (the result reflects some point during the read). {@link #toMap()} and {@link #fromMap(Map)} carry the counters
+ * through JSON, so the histograms of several JVMs can be merged without losing precision.
+ */
+public final class LatencyHistogram {
+
+    /** Values below this are counted exactly. */
+    private static final int LINEAR_LIMIT = 128;
+    /** Sub-buckets per power of two above {@link #LINEAR_LIMIT}. */
+    private static final int SUB_BUCKETS = 64;
+    private static final int SUB_BUCKET_BITS = 6;
+    /** Largest trackable value, 2^36 - 1 microseconds (about 19 hours); larger values are clamped. */
+    private static final long HIGHEST_TRACKABLE = (1L << 36) - 1;
+    private static final int BUCKET_COUNT = indexOf(HIGHEST_TRACKABLE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalValue = new LongAdder();
+    private final LongAccumulator maxValue = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Records one value.
+     *
+     * @param micros The latency in microseconds. Negative values are recorded as 0.
+     */
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), HIGHEST_TRACKABLE);
+        counts.incrementAndGet(indexOf(value));
+        totalCount.increment();
+        totalValue.add(value);
+        maxValue.accumulate(value);
+    }
+
+    /**
+     * Records one value and corrects for coordinated omission, as HdrHistogram's
+     * {@code recordValueWithExpectedInterval} does: if the value exceeds the expected interval between calls,
+     * the calls that should have been issued during the stall are recorded too, with latencies
+     * {@code micros - interval}, {@code micros - 2 * interval}, ... down to the interval.
+     *
+     * @param micros                 The measured latency in microseconds.
+     * @param expectedIntervalMicros The expected time between calls; 0 or less records {@code micros} only.
+     */
+    public void recordWithExpectedInterval(long micros, long expectedIntervalMicros) {
+        record(micros);
+        if (expectedIntervalMicros <= 0) {
+            return;
+        }
+        for (long missing = micros - expectedIntervalMicros; missing >= expectedIntervalMicros; missing -= expectedIntervalMicros) {
+            record(missing);
+        }
+    }
+
+    /**
+     * Adds all values recorded in another histogram to this one.
+     *
+     * @param other The histogram to merge in.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalValue.add(other.totalValue.sum());
+        maxValue.accumulate(other.maxValue.get());
+    }
+
+    /**
+     * Returns the counters in a form that can be written as JSON: the totals, and the non-empty buckets by index.
+     *
+     * @return The counters; read back with {@link #fromMap(Map)}.
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                buckets.put(String.valueOf(i), count);
+            }
+        }
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("count", getCount());
+        map.put("sum", totalValue.sum());
+        map.put("max", getMax());
+        map.put("buckets", buckets);
+        return map;
+    }
+
+    /**
+     * Rebuilds a histogram written with {@link #toMap()}, e.g. after reading it back from JSON.
+     *
+     * @param map The counters.
+     * @return A histogram with the same counters.
+     */
+    public static LatencyHistogram fromMap(Map<String, Object> map) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Object buckets = map.get("buckets");
+        if (buckets instanceof Map) {
+            for (Map.Entry<?, ?> bucket : ((Map<?, ?>) buckets).entrySet()) {
+                histogram.counts.addAndGet(Integer.parseInt(String.valueOf(bucket.getKey())), ((Number) bucket.getValue()).longValue());
+            }
+        }
+        histogram.totalCount.add(((Number) map.getOrDefault("count", 0)).longValue());
+        histogram.totalValue.add(((Number) map.getOrDefault("sum", 0)).longValue());
+        histogram.maxValue.accumulate(((Number) map.getOrDefault("max", 0)).longValue());
+        return histogram;
+    }
+
+    /** @return Number of recorded values. */
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    /** @return Largest recorded value in microseconds (exact). */
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    /** @return Mean of the recorded values in microseconds. */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : totalValue.sum() / (double) count;
+    }
+
+    /**
+     * Returns the values at several percentiles, computed from one consistent copy of the counters.
+     * Like HdrHistogram, each result is the highest value equivalent to the bucket the percentile falls in,
+     * capped at the exact maximum.
+     *
+     * @param percentiles Percentiles in the range 0-100, e.g. {@code 50, 99, 99.9}.
+     * @return The values in microseconds, in the same order; all 0 if nothing was recorded.
+     */
+    public long[] getValuesAtPercentiles(double... percentiles) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long max = getMax();
+        long[] values = new long[percentiles.length];
+        if (total == 0) {
+            return values;
+        }
+        for (int p = 0; p < percentiles.length; p++) {
+            long rank = Math.max(1, (long) Math.ceil(Math.min(percentiles[p], 100.0) / 100.0 * total));
+            long seen = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    values[p] = Math.min(highestEquivalentValue(i), max);
+                    break;
+                }
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param percentile A percentile in the range 0-100.
+     * @return The value at that percentile in microseconds.
+     * @see #getValuesAtPercentiles(double...)
+     */
+    public long getValueAtPercentile(double percentile) {
+        return getValuesAtPercentiles(percentile)[0];
+    }
+
+    /**
+     * Renders the distribution as plain text, one line per percentile, in the spirit of HdrHistogram's
+     * {@code outputPercentileDistribution}. Used to attach the histogram to reports.
+     *
+     * @return The percentile distribution in milliseconds.
+     */
+    public String toPercentileDistribution() {
+        double[] percentiles = {0, 25, 50, 75, 90, 95, 99, 99.9, 99.99, 100};
+        long[] values = getValuesAtPercentiles(percentiles);
+        StringBuilder text = new StringBuilder(String.format("%12s %12s%n", "Percentile", "Value (ms)"));
+        for (int i = 0; i < percentiles.length; i++) {
+            text.append(String.format("%12s %12.3f%n", percentiles[i], values[i] / 1000.0));
+        }
+        return text.append(String.format("#[Count = %d, Mean = %.3f ms, Max = %.3f ms]",
+                getCount(), getMean() / 1000.0, getMax() / 1000.0)).toString();
+    }
+
+    private static int indexOf(long value) {
+        if (value < LINEAR_LIMIT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+        long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,195 @@
+package org.op_ra.metrics;
+
+import org.op_ra.enums.LatencyCorrection;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Suite-wide registry of per-endpoint latency, fed by every request sent through
+ * {@link org.op_ra.requestbuilder.ApiRequestBuilder}.
+ * <p>
+ * Calls are grouped by service, HTTP method and endpoint template, where the template is the request path with
+ * the scheme and host removed, id-like path segments replaced by {@code {id}} and query values dropped
+ * (parameter names are kept). This keeps e.g. every drug search in one histogram regardless of the search string.
+ * </p>
+ * <p>
+ * Calls made by the load scheduler ({@link org.op_ra.load.LoadRunner}) are additionally recorded in a
+ * coordinated-omission-corrected histogram, using the intended start time announced with
+ * {@link #beginScheduledCall(long, long, LatencyCorrection)}.
+ * </p>
+ * Recording is lock-free; see {@link LatencyHistogram}. Results are published by
+ * {@link org.op_ra.reports.LatencyReport} at suite end.
+ */
+public final class LatencyRecorder {
+
+    private static final Map<String, EndpointMetrics> METRICS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<ScheduledCall> SCHEDULED_CALL = new ThreadLocal<>();
+
+    // A path segment is treated as an id if it is numeric, a UUID, or long and contains digits.
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "\\d+|[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|(?=.*\\d)[\\w-]{8,}");
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private LatencyRecorder() {
+        // Private constructor
+    }
+
+    /**
+     * Records one call.
+     *
+     * @param service    The service name, e.g. {@code ERX}.
+     * @param method     The HTTP method.
+     * @param endpoint   The endpoint as passed to the request builder (absolute or relative).
+     * @param startNanos {@link System#nanoTime()} when the call started.
+     * @param endNanos   {@link System#nanoTime()} when the response was received (or the call failed).
+     * @param error      Whether the call failed.
+     */
+    public static void record(String service, String method, String endpoint, long startNanos, long endNanos, boolean error) {
+        String template = templateOf(endpoint);
+        EndpointMetrics metrics = METRICS.computeIfAbsent(service + " " + method + " " + template,
+                key -> new EndpointMetrics(service, method, template));
+        metrics.record(startNanos, endNanos, error);
+
+        ScheduledCall scheduled = SCHEDULED_CALL.get();
+        if (Objects.nonNull(scheduled) && scheduled.correction != LatencyCorrection.NONE) {
+            long latencyNanos = endNanos - startNanos;
+            long intervalMicros = 0;
+            if (scheduled.correction == LatencyCorrection.INTENDED_START && !scheduled.started) {
+                // Only the first call of an iteration can be late; later calls start right after the previous one.
+                latencyNanos = endNanos - Math.min(startNanos, scheduled.intendedStartNanos);
+            } else if (scheduled.correction == LatencyCorrection.EXPECTED_INTERVAL) {
+                intervalMicros = TimeUnit.NANOSECONDS.toMicros(scheduled.expectedIntervalNanos);
+            }
+            scheduled.started = true;
+            metrics.recordCorrected(TimeUnit.NANOSECONDS.toMicros(latencyNanos), intervalMicros);
+        }
+    }
+
+    /**
+     * Announces that the calls the current thread makes next belong to a scheduled load iteration.
+     * Must be paired with {@link #endScheduledCall()}.
+     *
+     * @param intendedStartNanos    {@link System#nanoTime()} at which the scheduler intended the iteration to start.
+     * @param expectedIntervalNanos The scheduled time between iterations, used by {@link LatencyCorrection#EXPECTED_INTERVAL}.
+     * @param correction            The correction to apply to the calls of this iteration.
+     */
+    public static void beginScheduledCall(long intendedStartNanos, long expectedIntervalNanos, LatencyCorrection correction) {
+        SCHEDULED_CALL.set(new ScheduledCall(intendedStartNanos, expectedIntervalNanos, correction));
+    }
+
+    /**
+     * Ends the scheduled iteration started with {@link #beginScheduledCall(long, long, LatencyCorrection)}.
+     */
+    public static void endScheduledCall() {
+        SCHEDULED_CALL.remove();
+    }
+
+    /**
+     * Reduces an endpoint to its template, e.g.
+     * {@code https://host/erx/servicelevel/prescriber/123/location/456?x=1} becomes
+     * {@code /erx/servicelevel/prescriber/{id}/location/{id}?x}.
+     *
+     * @param endpoint The endpoint, absolute or relative.
+     * @return The endpoint template.
+     */
+    public static String templateOf(String endpoint) {
+        if (Objects.isNull(endpoint)) {
+            return "";
+        }
+        String path = endpoint;
+        int scheme = path.indexOf("://");
+        if (scheme >= 0) {
+            int pathStart = path.indexOf('/', scheme + 3);
+            path = pathStart >= 0 ? path.substring(pathStart) : "/";
+        }
+        String query = null;
+        int queryStart = path.indexOf('?');
+        if (queryStart >= 0) {
+            query = path.substring(queryStart + 1);
+            path = path.substring(0, queryStart);
+        }
+
+        String[] segments = path.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (ID_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "{id}";
+            }
+        }
+        StringBuilder template = new StringBuilder(String.join("/", segments));
+        if (Objects.nonNull(query)) {
+            StringBuilder names = new StringBuilder();
+            for (String parameter : query.split("&")) {
+                int equals = parameter.indexOf('=');
+                names.append(names.length() > 0 ? "&" : "").append(equals >= 0 ? parameter.substring(0, equals) : parameter);
+            }
+            template.append('?').append(names);
+        }
+        return template.toString();
+    }
+
+    /**
+     * @return All endpoint metrics recorded so far, ordered by service, template and method.
+     */
+    public static List<EndpointMetrics> getMetrics() {
+        List<EndpointMetrics> metrics = new ArrayList<>(METRICS.values());
+        metrics.sort(Comparator.comparing(EndpointMetrics::getService)
+                .thenComparing(EndpointMetrics::getTemplate)
+                .thenComparing(EndpointMetrics::getMethod));
+        return metrics;
+    }
+
+    /**
+     * Collects the most recent calls of an endpoint, across all services exposing it, for SLO evaluation.
+     *
+     * @param method    The HTTP method, or {@code null} for any method.
+     * @param endpoint  An endpoint template or raw endpoint. A template without query part matches the
+     *                  endpoint with any query parameters, e.g. {@code /erx/drug/search_drug_detail}.
+     * @param lastCalls The number of most recent calls per matching endpoint.
+     * @return The window; empty if nothing matched.
+     */
+    public static LatencyWindow getWindow(String method, String endpoint, int lastCalls) {
+        String template = templateOf(endpoint);
+        LatencyWindow window = new LatencyWindow();
+        for (EndpointMetrics metrics : METRICS.values()) {
+            boolean methodMatches = Objects.isNull(method) || metrics.getMethod().equalsIgnoreCase(method);
+            boolean endpointMatches = metrics.getTemplate().equals(template)
+                    || (!template.contains("?") && metrics.getTemplate().startsWith(template + "?"));
+            if (methodMatches && endpointMatches) {
+                metrics.addRecentCallsTo(lastCalls, window);
+            }
+        }
+        return window;
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public static void reset() {
+        METRICS.clear();
+    }
+
+    /**
+     * The schedule of the load iteration running on a thread.
+     */
+    private static final class ScheduledCall {
+        private final long intendedStartNanos;
+        private final long expectedIntervalNanos;
+        private final LatencyCorrection correction;
+        private boolean started;
+
+        private ScheduledCall(long intendedStartNanos, long expectedIntervalNanos, LatencyCorrection correction) {
+            this.intendedStartNanos = intendedStartNanos;
+            this.expectedIntervalNanos = expectedIntervalNanos;
+            this.correction = correction;
+        }
+    }
+}
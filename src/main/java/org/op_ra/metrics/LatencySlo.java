@@ -0,0 +1,145 @@
+package org.op_ra.metrics;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A latency or error-rate objective over the most recent calls of an endpoint, written as a one-line spec:
+ * <pre>{@code
+ * GET /erx/drug/search_drug_detail p95 < 300ms over 500
+ * GET /erx/drug/search_drug_detail error_rate < 0.5% over 500
+ * /erx/drug/get_drug_detail p99.9 < 1000ms
+ * }</pre>
+ * The HTTP method is optional (any method matches). The unit is optional too, but must be {@code ms} for a
+ * percentile and {@code %} for {@code error_rate}. {@code over N} is optional and defaults to {@link #DEFAULT_WINDOW}
+ * calls, or {@code slo_window_capacity} if that is smaller; N may not exceed {@code slo_window_capacity}, the number
+ * of calls kept per endpoint. Endpoints are matched as described in {@link LatencyRecorder#getWindow(String, String, int)}.
+ */
+public final class LatencySlo {
+
+    /** Number of most recent calls evaluated when the spec has no {@code over N}. */
+    public static final int DEFAULT_WINDOW = 500;
+
+    private static final Pattern SPEC = Pattern.compile(
+            "^\\s*(?:(GET|POST|PUT|DELETE|PATCH|HEAD|OPTIONS)\\s+)?(\\S+)\\s+"
+                    + "(?:p(\\d+(?:\\.\\d+)?)|(error_rate))\\s*<\\s*(\\d+(?:\\.\\d+)?)\\s*(ms|%)?"
+                    + "(?:\\s+over\\s+(\\d+))?\\s*$",
+            Pattern.CASE_INSENSITIVE);
+
+    private final String method;
+    private final String endpoint;
+    private final double percentile;
+    private final boolean errorRate;
+    private final double threshold;
+    private final int window;
+
+    private LatencySlo(String method, String endpoint, double percentile, boolean errorRate, double threshold, int window) {
+        if (window <= 0 || window > EndpointMetrics.WINDOW_CAPACITY) {
+            throw new IllegalArgumentException("SLO window of " + window + " calls for " + endpoint + " must be between 1 and "
+                    + EndpointMetrics.WINDOW_CAPACITY + " (slo_window_capacity, the number of calls kept per endpoint)");
+        }
+        this.method = method;
+        this.endpoint = endpoint;
+        this.percentile = percentile;
+        this.errorRate = errorRate;
+        this.threshold = threshold;
+        this.window = window;
+    }
+
+    /**
+     * Parses an SLO spec.
+     *
+     * @param spec The spec, e.g. {@code "GET /erx/drug/search_drug_detail p95 < 300ms over 500"}.
+     * @return The parsed objective.
+     * @throws IllegalArgumentException if the spec does not follow the format above, its unit does not fit the
+     *                                  metric, or its window exceeds {@code slo_window_capacity}.
+     */
+    public static LatencySlo parse(String spec) {
+        Matcher matcher = SPEC.matcher(Objects.isNull(spec) ? "" : spec);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid SLO '" + spec
+                    + "'. Expected e.g. 'GET /path p95 < 300ms over 500' or 'GET /path error_rate < 0.5% over 500'");
+        }
+        boolean errorRate = Objects.nonNull(matcher.group(4));
+        String unit = Objects.isNull(matcher.group(6)) ? null : matcher.group(6).toLowerCase(Locale.ROOT);
+        if (Objects.nonNull(unit) && !unit.equals(errorRate ? "%" : "ms")) {
+            throw new IllegalArgumentException("Invalid SLO '" + spec + "': "
+                    + (errorRate ? "error_rate is a percentage, e.g. 'error_rate < 0.5%'" : "percentiles are in ms, e.g. 'p95 < 300ms'"));
+        }
+        return new LatencySlo(
+                Objects.isNull(matcher.group(1)) ? null : matcher.group(1).toUpperCase(Locale.ROOT),
+                matcher.group(2),
+                Objects.isNull(matcher.group(3)) ? 0 : Double.parseDouble(matcher.group(3)),
+                errorRate,
+                Double.parseDouble(matcher.group(5)),
+                Objects.isNull(matcher.group(7)) ? Math.min(DEFAULT_WINDOW, EndpointMetrics.WINDOW_CAPACITY)
+                        : Integer.parseInt(matcher.group(7)));
+    }
+
+    /**
+     * Creates a latency objective.
+     *
+     * @param method     The HTTP method, or {@code null} for any.
+     * @param endpoint   The endpoint template or path.
+     * @param percentile The percentile, e.g. 95.
+     * @param maxMillis  The exclusive upper bound for that percentile in milliseconds.
+     * @param lastCalls  The number of most recent calls to evaluate, at most {@code slo_window_capacity}.
+     * @return The objective.
+     */
+    public static LatencySlo percentile(String method, String endpoint, double percentile, double maxMillis, int lastCalls) {
+        return new LatencySlo(method, endpoint, percentile, false, maxMillis, lastCalls);
+    }
+
+    /**
+     * Creates an error-rate objective.
+     *
+     * @param method             The HTTP method, or {@code null} for any.
+     * @param endpoint           The endpoint template or path.
+     * @param maxErrorRatePercent The exclusive upper bound for the error rate, in percent.
+     * @param lastCalls          The number of most recent calls to evaluate, at most {@code slo_window_capacity}.
+     * @return The objective.
+     */
+    public static LatencySlo errorRate(String method, String endpoint, double maxErrorRatePercent, int lastCalls) {
+        return new LatencySlo(method, endpoint, 0, true, maxErrorRatePercent, lastCalls);
+    }
+
+    /** @return The recent calls this objective applies to. */
+    public LatencyWindow getWindow() {
+        return LatencyRecorder.getWindow(method, endpoint, window);
+    }
+
+    /**
+     * @param window The calls to evaluate.
+     * @return The measured value: the percentile in milliseconds, or the error rate in percent.
+     */
+    public double measure(LatencyWindow window) {
+        return errorRate ? window.getErrorRatePercent() : window.getHistogram().getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * @param window The calls to evaluate.
+     * @return {@code true} if the window has calls and the measured value is below the threshold.
+     */
+    public boolean isMet(LatencyWindow window) {
+        return window.getCalls() > 0 && measure(window) < threshold;
+    }
+
+    /**
+     * @param window The calls evaluated.
+     * @return A one-line description of the objective and the measured value.
+     */
+    public String describe(LatencyWindow window) {
+        String measured = window.getCalls() == 0 ? "no calls recorded"
+                : String.format("actual %.3f%s over %d call(s)", measure(window), errorRate ? "%" : "ms", window.getCalls());
+        return toString() + " (" + measured + ")";
+    }
+
+    @Override
+    public String toString() {
+        return (Objects.isNull(method) ? "" : method + " ") + endpoint + " "
+                + (errorRate ? "error_rate < " + threshold + "%" : "p" + percentile + " < " + threshold + "ms")
+                + " over " + window;
+    }
+}
@@ -0,0 +1,38 @@
+package org.op_ra.metrics;
+
+/**
+ * The most recent calls of one or more endpoints, as returned by {@link LatencyRecorder#getWindow(String, String, int)}.
+ * Used for SLO checks such as "p95 below 300 ms over the last 500 calls".
+ */
+public final class LatencyWindow {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private long errors;
+
+    void add(long micros, boolean error) {
+        histogram.record(micros);
+        if (error) {
+            errors++;
+        }
+    }
+
+    /** @return The latencies of the calls in the window, in microseconds. */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /** @return Number of calls in the window. */
+    public long getCalls() {
+        return histogram.getCount();
+    }
+
+    /** @return Number of failed calls in the window. */
+    public long getErrors() {
+        return errors;
+    }
+
+    /** @return Failed calls as a percentage of the calls in the window (0 if empty). */
+    public double getErrorRatePercent() {
+        return getCalls() == 0 ? 0 : errors * 100.0 / getCalls();
+    }
+}
@@ -0,0 +1,39 @@
+package org.op_ra.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size ring of the most recent calls of one endpoint (latency in microseconds plus an error flag),
+ * used to evaluate SLOs over "the last N calls". Lock-free: a writer claims a slot with one atomic increment.
+ * A slot claimed but not yet written while a window is being read may show its previous value.
+ */
+final class RecentCalls {
+
+    private final AtomicLongArray entries;
+    private final AtomicLong next = new AtomicLong();
+
+    RecentCalls(int capacity) {
+        this.entries = new AtomicLongArray(Math.max(1, capacity));
+    }
+
+    void add(long micros, boolean error) {
+        long slot = next.getAndIncrement() % entries.length();
+        entries.set((int) slot, (Math.max(micros, 0) << 1) | (error ? 1 : 0));
+    }
+
+    /**
+     * Adds up to {@code lastCalls} of the most recent calls to the given window.
+     *
+     * @param lastCalls The number of calls wanted; capped at the ring capacity.
+     * @param window    The window to add to.
+     */
+    void addTo(int lastCalls, LatencyWindow window) {
+        long end = next.get();
+        long count = Math.min(Math.min(lastCalls, end), entries.length());
+        for (long k = 1; k <= count; k++) {
+            long entry = entries.get((int) ((end - k) % entries.length()));
+            window.add(entry >>> 1, (entry & 1) == 1);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package org.op_ra.reports;
+
+import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
+import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Author;
+import com.aventstack.extentreports.model.Category;
+import com.aventstack.extentreports.model.Log;
+import com.aventstack.extentreports.model.Test;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.utils.PropertyUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Append-only log of the finished tests of a run, from which the Extent report is built, so a long run does not keep
+ * every test in memory and the tests finished before a crash are not lost.
+ * <p>
+ * With {@link ConfigProperties#REPORT_EVENT_LOG} set to "yes", each test is written as one JSON line to
+ * {@link FrameworkConstants#getReportEventLogPath()} when it ends ({@link ExtentReport#endTest()}), then removed from
+ * the report in memory. The line holds the name, start and end time, authors, categories and log entries of the test,
+ * and is flushed to the file straight away. {@link ExtentReport#flushReports()} builds the reports from the file at the
+ * end of the suite; after a crash, or while the suite is still running, the tests finished so far can be rendered
+ * with:
+ * </p>
+ * <pre>{@code
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.op_ra.reports.ExtentEventLog \
+ *     -Dexec.args="extent-test-output/ExtentReport_..._events.jsonl"
+ * }</pre>
+ * Log entries are kept as text: exceptions and media attached to an entry are not written.
+ */
+public final class ExtentEventLog {
+
+    private static final boolean ENABLED =
+            "yes".equalsIgnoreCase(PropertyUtils.getValueOrDefault(ConfigProperties.REPORT_EVENT_LOG, "no").trim());
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Tests created but not ended yet; written by close() if they never end
+    private static final Set<ExtentTest> OPEN = Collections.newSetFromMap(new IdentityHashMap<>());
+    private static Writer writer;
+    private static int written;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ExtentEventLog() {
+        // Private constructor
+    }
+
+    /**
+     * Renders an event log into an HTML report.
+     * {@code --suite <class name> <report path>} instead renders every report of a suite run, as the run itself would
+     * have; {@link ExtentReport#flushReports()} starts a separate JVM with these arguments for large event logs.
+     *
+     * @param args The event log, then optionally the HTML report to write (defaults to the event log name with
+     *             {@code _events.jsonl} replaced by {@code .html}).
+     * @throws IOException If the event log cannot be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && "--suite".equals(args[0])) {
+            FrameworkConstants.setReportClassName(args[1]);
+            FrameworkConstants.setReportPath(args[2]);
+            ExtentReport.renderSuiteReports(new File(FrameworkConstants.getReportEventLogPath()), args[1]);
+            return;
+        }
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Usage: ExtentEventLog <events.jsonl> [report.html]");
+        }
+        File eventLog = new File(args[0]);
+        File report = new File(args.length > 1 ? args[1] : args[0].replaceFirst("(_events)?\\.jsonl$", "") + ".html");
+        ExtentReport.render(eventLog, report);
+        log(INFO, "Rendered " + eventLog + " into " + report);
+    }
+
+    /** @return Whether the report is built from the event log. */
+    static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * Registers a test that was just created, so it is written at the end of the suite even if it never ends.
+     *
+     * @param test The new test.
+     */
+    static synchronized void opened(ExtentTest test) {
+        OPEN.add(test);
+    }
+
+    /**
+     * Appends a finished test to the event log.
+     *
+     * @param test The test, with all its log entries.
+     */
+    static synchronized void append(ExtentTest test) {
+        if (!OPEN.remove(test)) {
+            return; // Already written
+        }
+        File file = new File(FrameworkConstants.getReportEventLogPath());
+        try {
+            if (Objects.isNull(writer)) {
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            }
+            writer.write(MAPPER.writeValueAsString(toRecord(test.getModel())));
+            writer.write(System.lineSeparator());
+            writer.flush();
+            written++;
+        } catch (IOException e) {
+            log(WARN, "Could not write test '" + test.getModel().getName() + "' to " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Writes the tests that were never ended and closes the event log.
+     *
+     * @return The event log file.
+     */
+    static synchronized File close() {
+        for (ExtentTest test : new ArrayList<>(OPEN)) {
+            append(test);
+        }
+        if (Objects.nonNull(writer)) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log(WARN, "Could not close the report event log: " + e.getMessage());
+            }
+            writer = null;
+        }
+        log(INFO, written + " test(s) written to the report event log " + FrameworkConstants.getReportEventLogPath());
+        return new File(FrameworkConstants.getReportEventLogPath());
+    }
+
+    /**
+     * Adds the tests of an event log to a report. A line that cannot be read, e.g. the last one when the run was
+     * killed while writing it, is skipped.
+     *
+     * @param eventLog The event log.
+     * @param reports  The report to add the tests to.
+     * @return Number of tests added.
+     * @throws IOException If the event log cannot be read.
+     */
+    static int replay(File eventLog, ExtentReports reports) throws IOException {
+        int tests = 0;
+        int lineNumber = 0;
+        try (BufferedReader reader = Files.newBufferedReader(eventLog.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Map<?, ?> record;
+                try {
+                    record = MAPPER.readValue(line, Map.class);
+                } catch (JsonProcessingException e) {
+                    log(WARN, "Skipping unreadable line " + lineNumber + " of " + eventLog + ": " + e.getOriginalMessage());
+                    continue;
+                }
+                addTest(reports, record);
+                tests++;
+            }
+        }
+        return tests;
+    }
+
+    private static Map<String, Object> toRecord(Test model) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("name", model.getName());
+        record.put("description", model.getDescription());
+        record.put("start", model.getStartTime().getTime());
+        record.put("end", model.getEndTime().getTime());
+        List<String> authors = new ArrayList<>();
+        for (Author author : model.getAuthorSet()) {
+            authors.add(author.getName());
+        }
+        record.put("authors", authors);
+        List<String> categories = new ArrayList<>();
+        for (Category category : model.getCategorySet()) {
+            categories.add(category.getName());
+        }
+        record.put("categories", categories);
+        List<Map<String, Object>> logs = new ArrayList<>();
+        for (Log entry : model.getLogs()) {
+            Map<String, Object> logRecord = new LinkedHashMap<>();
+            logRecord.put("status", entry.getStatus().name());
+            logRecord.put("details", entry.getDetails());
+            logRecord.put("timestamp", entry.getTimestamp().getTime());
+            logs.add(logRecord);
+        }
+        record.put("logs", logs);
+        return record;
+    }
+
+    private static void addTest(ExtentReports reports, Map<?, ?> record) {
+        Object description = record.get("description");
+        ExtentTest test = Objects.isNull(description)
+                ? reports.createTest(String.valueOf(record.get("name")))
+                : reports.createTest(String.valueOf(record.get("name")), String.valueOf(description));
+        for (Object author : (List<?>) record.get("authors")) {
+            test.assignAuthor(String.valueOf(author));
+        }
+        for (Object category : (List<?>) record.get("categories")) {
+            test.assignCategory(String.valueOf(category));
+        }
+        List<Log> logs = test.getModel().getLogs();
+        for (Object entry : (List<?>) record.get("logs")) {
+            Map<?, ?> logRecord = (Map<?, ?>) entry;
+            test.log(Status.valueOf(String.valueOf(logRecord.get("status"))), Objects.toString(logRecord.get("details"), ""));
+            logs.get(logs.size() - 1).setTimestamp(new Date(((Number) logRecord.get("timestamp")).longValue()));
+        }
+        test.getModel().setStartTime(new Date(((Number) record.get("start")).longValue()));
+        test.getModel().setEndTime(new Date(((Number) record.get("end")).longValue()));
+    }
+}
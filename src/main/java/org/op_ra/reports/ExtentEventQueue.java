@@ -0,0 +1,206 @@
+package org.op_ra.reports;
+
+import com.aventstack.extentreports.ExtentTest;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.utils.PropertyUtils;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Applies report events to the Extent model on a single background thread, so test threads only enqueue them.
+ * <p>
+ * Each event carries the {@link ExtentTest} it belongs to, captured on the test thread when the event is submitted,
+ * and an action run against it on the writer thread; building the message (e.g. pretty-printing a response body) is
+ * part of the action. The queue is a lock-free {@link ConcurrentLinkedQueue} with many producers and one consumer,
+ * which applies the events in batches while holding the report lock of {@link ExtentReport}.
+ * </p>
+ * <p>
+ * {@link ConfigProperties#REPORT_QUEUE_CAPACITY} bounds the events waiting to be applied: a producer reserves a slot
+ * before enqueueing, so the queue never holds more. When it is full,
+ * {@link ConfigProperties#REPORT_QUEUE_FULL_POLICY} decides: {@code block} (default) waits for room and {@code drop}
+ * discards the event (the count is logged when the report is flushed). Events are never applied on the test thread
+ * while the queue is in use, as they would then overtake the queued events of the same test, e.g. a PASS entry being
+ * applied after the test was ended. With {@link ConfigProperties#REPORT_ASYNC} set to "no" every event is applied on
+ * the test thread.
+ * </p>
+ */
+final class ExtentEventQueue {
+
+    private static final boolean ASYNC = !"no".equalsIgnoreCase(PropertyUtils.getValueOrDefault(ConfigProperties.REPORT_ASYNC, "yes").trim());
+    private static final int CAPACITY = (int) PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_QUEUE_CAPACITY, 10_000);
+    private static final boolean DROP_WHEN_FULL = dropWhenFull();
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final ConcurrentLinkedQueue<Event> QUEUE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger SIZE = new AtomicInteger();
+    private static final AtomicLong SUBMITTED = new AtomicLong();
+    private static final AtomicLong APPLIED = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+
+    private static volatile Thread writer;
+    // Set by the writer before it parks, so producers only unpark it when it is waiting
+    private static volatile boolean writerIdle;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ExtentEventQueue() {
+        // Private constructor
+    }
+
+    /**
+     * Queues an action against a test of the report.
+     *
+     * @param test   The test the event belongs to.
+     * @param action What to do with the test, e.g. {@code t -> t.info(message)}.
+     */
+    static void submit(ExtentTest test, Consumer<ExtentTest> action) {
+        if (!ASYNC) {
+            apply(new Event(test, action));
+            return;
+        }
+        if (!reserveSlot()) {
+            DROPPED.incrementAndGet();
+            return;
+        }
+        startWriter();
+        SUBMITTED.incrementAndGet();
+        QUEUE.offer(new Event(test, action));
+        if (writerIdle) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * Waits until every event submitted so far has been applied, for at most {@code timeoutMs}.
+     * Called before the report is written.
+     *
+     * @param timeoutMs Maximum time to wait, in milliseconds.
+     */
+    static void drain(long timeoutMs) {
+        long target = SUBMITTED.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (APPLIED.get() < target && System.nanoTime() < deadline) {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        if (APPLIED.get() < target) {
+            log(WARN, "Extent report written with " + (target - APPLIED.get()) + " event(s) still queued");
+        }
+        long dropped = DROPPED.getAndSet(0);
+        if (dropped > 0) {
+            log(WARN, dropped + " Extent report event(s) were dropped because the report queue was full ("
+                    + CAPACITY + " events); raise report_queue_capacity or use report_queue_full_policy=block");
+        }
+    }
+
+    /**
+     * Takes one of the {@code CAPACITY} slots for an event, with compare-and-set so that concurrent producers cannot
+     * both take the last one. When the queue is full, waits for the writer to free a slot, unless events are dropped.
+     *
+     * @return Whether a slot was taken; {@code false} if the queue is full and the event is to be dropped.
+     */
+    private static boolean reserveSlot() {
+        while (true) {
+            int size = SIZE.get();
+            if (size < CAPACITY) {
+                if (SIZE.compareAndSet(size, size + 1)) {
+                    return true;
+                }
+                continue;
+            }
+            if (DROP_WHEN_FULL) {
+                return false;
+            }
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+
+    private static boolean dropWhenFull() {
+        String policy = PropertyUtils.getValueOrDefault(ConfigProperties.REPORT_QUEUE_FULL_POLICY, "block").trim().toLowerCase(Locale.ROOT);
+        if (!"block".equals(policy) && !"drop".equals(policy)) {
+            log(WARN, "Unknown report_queue_full_policy '" + policy + "'; expected block or drop, using block");
+        }
+        return "drop".equals(policy);
+    }
+
+    private static void startWriter() {
+        if (Objects.nonNull(writer)) {
+            return;
+        }
+        synchronized (ExtentEventQueue.class) {
+            if (Objects.isNull(writer)) {
+                Thread thread = new Thread(ExtentEventQueue::run, "extent-report-writer");
+                thread.setDaemon(true);
+                thread.start();
+                writer = thread;
+            }
+        }
+    }
+
+    private static void run() {
+        Event[] batch = new Event[BATCH_SIZE];
+        while (true) {
+            int size = 0;
+            Event event;
+            while (size < BATCH_SIZE && Objects.nonNull(event = QUEUE.poll())) {
+                batch[size++] = event;
+            }
+            if (size == 0) {
+                writerIdle = true;
+                if (QUEUE.isEmpty()) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                writerIdle = false;
+                continue;
+            }
+            synchronized (ExtentReport.LOCK) {
+                for (int i = 0; i < size; i++) {
+                    run(batch[i]);
+                    batch[i] = null;
+                }
+            }
+            SIZE.addAndGet(-size);
+            APPLIED.addAndGet(size);
+        }
+    }
+
+    private static void apply(Event event) {
+        synchronized (ExtentReport.LOCK) {
+            run(event);
+        }
+    }
+
+    private static void run(Event event) {
+        try {
+            event.action.accept(event.test);
+        } catch (RuntimeException e) {
+            log(WARN, "Could not add an event to the Extent report: " + e);
+        }
+    }
+
+    /**
+     * One queued action and the test it belongs to.
+     */
+    private static final class Event {
+        private final ExtentTest test;
+        private final Consumer<ExtentTest> action;
+
+        private Event(ExtentTest test, Consumer<ExtentTest> action) {
+            this.test = test;
+            this.action = action;
+        }
+    }
+}
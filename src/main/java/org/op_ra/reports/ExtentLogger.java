@@ -1,5 +1,6 @@
 package org.op_ra.reports;
 
+import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.MediaEntityBuilder;
 import com.aventstack.extentreports.markuputils.MarkupHelper;
 import io.restassured.http.Header;
@@ -9,9 +10,11 @@ import io.restassured.specification.QueryableRequestSpecification;
 import io.restassured.specification.RequestSpecification;
 import io.restassured.specification.SpecificationQuerier;
 import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.ServiceType;
 import org.op_ra.utils.PropertyUtils; // Assuming PropertyUtils is in utils
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Provides static methods to log messages and details to ExtentReports.
@@ -22,6 +25,12 @@ import java.util.List;
  * It ensures that logs are associated with the correct test in the report by using
  * the thread-safe {@link ExtentManager#getExtentTest()}.
  * </p>
+ * <p>
+ * The test is looked up on the calling thread, but the log entry is added by the report writer thread of
+ * {@link ExtentEventQueue}, so test threads do not wait on the shared report. Request and response details
+ * are also formatted on the writer thread. Response bodies are embedded up to a size limit, with larger bodies linked
+ * to compressed side files, and are pretty-printed in the browser when opened; see {@link ResponseBodyCapture}.
+ * </p>
  */
 public final class ExtentLogger {
 
@@ -38,9 +47,7 @@ public final class ExtentLogger {
      * @param message The message to log.
      */
     public static void pass(String message) {
-        if (ExtentManager.getExtentTest() != null) {
-            ExtentManager.getExtentTest().pass(message);
-        }
+        report(test -> test.pass(message));
     }
 
     /**
@@ -52,13 +59,11 @@ public final class ExtentLogger {
      * @see ConfigProperties#FAILEDSTEPSSCREENSHOT
      */
     public static void fail(String message) {
-        if (ExtentManager.getExtentTest() != null) {
-            ExtentManager.getExtentTest().fail(message);
-            // Optionally attach screenshot on failure - this logic might be better in a listener
+        report(test -> test.fail(message));
+        // Optionally attach screenshot on failure - this logic might be better in a listener
             // if (PropertyUtils.getValue(ConfigProperties.FAILEDSTEPSSCREENSHOT).equalsIgnoreCase("yes")) {
             //     addScreenshotToReport("Screenshot on failure"); // Assuming a screenshot utility exists
             // }
-        }
     }
 
     /**
@@ -67,9 +72,7 @@ public final class ExtentLogger {
      * @param message The message to log (e.g., reason for skipping).
      */
     public static void skip(String message) {
-        if (ExtentManager.getExtentTest() != null) {
-            ExtentManager.getExtentTest().skip(message);
-        }
+        report(test -> test.skip(message));
     }
 
     /**
@@ -78,9 +81,16 @@ public final class ExtentLogger {
      * @param message The informational message to log.
      */
     public static void info(String message) {
-        if (ExtentManager.getExtentTest() != null) {
-            ExtentManager.getExtentTest().info(message);
-        }
+        report(test -> test.info(message));
+    }
+
+    /**
+     * Logs a message with INFO status in the Extent report; same as {@link #info(String)}.
+     *
+     * @param message The informational message to log.
+     */
+    public static void log(String message) {
+        info(message);
     }
 
     /**
@@ -89,9 +99,7 @@ public final class ExtentLogger {
      * @param message The warning message to log.
      */
     public static void warn(String message) {
-        if (ExtentManager.getExtentTest() != null) {
-            ExtentManager.getExtentTest().warning(message); // Corrected method name to .warning()
-        }
+        report(test -> test.warning(message));
     }
 
     /**
@@ -101,84 +109,134 @@ public final class ExtentLogger {
      * @param requestSpecification The {@link RequestSpecification} of the API request.
      */
     public static void logRequestToReport(RequestSpecification requestSpecification) {
-        if (ExtentManager.getExtentTest() != null && requestSpecification != null) {
+        if (requestSpecification != null) {
             QueryableRequestSpecification queryableRequest = SpecificationQuerier.query(requestSpecification);
-            ExtentManager.getExtentTest().info("Request Details:");
-
-            String requestDetails = "<details><summary><b>Click to view Request Details</b></summary>"
-                + "<pre>"
-                + "Method: " + queryableRequest.getMethod() + "<br>"
-                + "URI: " + queryableRequest.getURI() + "<br>"
-                + "Headers: " + formatHeaders(queryableRequest.getHeaders()) + "<br>"
-                + (queryableRequest.getBody() != null ? "Body: <br>" + queryableRequest.getBody() : "Body: Not available or empty")
-                + "</pre>"
-                + "</details>";
-            ExtentManager.getExtentTest().info(requestDetails);
+            report(test -> {
+                test.info("Request Details:");
+                String requestDetails = "<details><summary><b>Click to view Request Details</b></summary>"
+                    + "<pre>"
+                    + "Method: " + queryableRequest.getMethod() + "<br>"
+                    + "URI: " + queryableRequest.getURI() + "<br>"
+                    + "Headers: " + formatHeaders(queryableRequest.getHeaders()) + "<br>"
+                    + (queryableRequest.getBody() != null ? "Body: <br>" + queryableRequest.getBody() : "Body: Not available or empty")
+                    + "</pre>"
+                    + "</details>";
+                test.info(requestDetails);
+            });
         }
     }
 
     /**
      * Logs the details of an API response to the Extent report.
-     * This includes the status code, headers, and the response body (pretty printed if JSON/XML).
+     * This includes the status code, headers, and the response body, captured as described in
+     * {@link ResponseBodyCapture} with the default limit.
      *
      * @param response The {@link Response} object from the API call.
      */
     public static void logResponseToReport(Response response) {
-        if (ExtentManager.getExtentTest() != null && response != null) {
-             ExtentManager.getExtentTest().info("Response Details:");
-             String responseDetails = "<details><summary><b>Click to view Response Details</b> (Status: " + response.getStatusCode() + ") </summary>"
-                + "<pre>"
-                + "Status Code: " + response.getStatusCode() + "<br>"
-                + "Response Time (ms): " + response.getTime() + "<br>"
-                + "Headers: " + formatHeaders(response.getHeaders()) + "<br>"
-                + "Body: <br>" + response.getBody().asPrettyString() // Assumes body is printable
-                + "</pre>"
-                + "</details>";
-            ExtentManager.getExtentTest().info(responseDetails);
+        logResponseToReport(response, null);
+    }
+
+    /**
+     * Logs the details of an API response to the Extent report, capturing the body with the limit of the service
+     * that returned it ({@code open_<service>_report_body_max_bytes}).
+     *
+     * @param response The {@link Response} object from the API call.
+     * @param service  The service that returned the response, or {@code null} for the default limit.
+     */
+    public static void logResponseToReport(Response response, ServiceType service) {
+        if (response != null) {
+            report(test -> {
+                test.info("Response Details:");
+                String responseDetails = "<details><summary><b>Click to view Response Details</b> (Status: " + response.getStatusCode() + ") </summary>"
+                    + "<pre>"
+                    + "Status Code: " + response.getStatusCode() + "<br>"
+                    + "Response Time (ms): " + response.getTime() + "<br>"
+                    + "Headers: " + formatHeaders(response.getHeaders())
+                    + "</pre>"
+                    + ResponseBodyCapture.render(response.getBody().asByteArray(), response.getContentType(), service)
+                    + "</details>";
+                test.info(responseDetails);
+            });
         }
     }
 
     /**
-     * Logs a pretty-printed JSON string to the Extent report, typically for API responses.
-     * The JSON is wrapped in {@code <pre>} tags for formatting.
+     * Logs a JSON response body to the Extent report, typically for API responses.
+     * The body is embedded as received, up to the default limit of {@link ResponseBodyCapture}, and pretty-printed
+     * when it is opened in the report.
      *
      * @param jsonResponse The {@link Response} object containing the JSON.
      */
     public static void logPrettyJsonResponseToReport(Response jsonResponse) {
-        if (ExtentManager.getExtentTest() != null && jsonResponse != null) {
-            try {
-                String prettyJson = jsonResponse.getBody().asPrettyString();
-                 String logMessage = "<details><summary><b>Click to view JSON Response Body</b></summary>"
-                                 + "<pre>" + prettyJson + "</pre>"
-                                 + "</details>";
-                ExtentManager.getExtentTest().info(logMessage);
-            } catch (Exception e) {
-                ExtentManager.getExtentTest().info("Could not log JSON response: " + e.getMessage());
-                ExtentManager.getExtentTest().info("Raw Response Body: " + jsonResponse.getBody().asString());
-            }
+        logPrettyJsonResponseToReport(jsonResponse, null);
+    }
+
+    /**
+     * Logs a JSON response body to the Extent report, up to the limit of the service that returned it
+     * ({@code open_<service>_report_body_max_bytes}). The body is pretty-printed when it is opened in the report.
+     *
+     * @param jsonResponse The {@link Response} object containing the JSON.
+     * @param service      The service that returned the response, or {@code null} for the default limit.
+     */
+    public static void logPrettyJsonResponseToReport(Response jsonResponse, ServiceType service) {
+        if (jsonResponse != null) {
+            report(test -> {
+                try {
+                    String logMessage = "<details><summary><b>Click to view JSON Response Body</b></summary>"
+                                     + ResponseBodyCapture.render(jsonResponse.getBody().asByteArray(), "application/json", service)
+                                     + "</details>";
+                    test.info(logMessage);
+                } catch (Exception e) {
+                    test.info("Could not log JSON response: " + e.getMessage());
+                }
+            });
         }
     }
 
     /**
-     * Logs a pretty-printed XML string to the Extent report.
-     * The XML is wrapped in {@code <pre>} tags for formatting.
-     * (Actual pretty printing of XML might require an external library if not directly supported by RestAssured asPrettyString for XML)
+     * Logs an XML response body to the Extent report, up to the default limit of {@link ResponseBodyCapture}.
+     * The XML is shown as received, with its HTML special characters escaped.
      *
      * @param xmlResponse The {@link Response} object containing the XML.
      */
     public static void logPrettyXmlResponseToReport(Response xmlResponse) {
-        if (ExtentManager.getExtentTest() != null && xmlResponse != null) {
-            try {
-                // RestAssured asPrettyString() works well for JSON, XML might need specific handling for "pretty"
-                String prettyXml = xmlResponse.getBody().asPrettyString(); // Check if this provides good XML formatting
-                String logMessage = "<details><summary><b>Click to view XML Response Body</b></summary>"
-                                 + "<pre>" + escapeHtml(prettyXml) + "</pre>" // Escape HTML characters in XML content
-                                 + "</details>";
-                ExtentManager.getExtentTest().info(logMessage);
-            } catch (Exception e) {
-                 ExtentManager.getExtentTest().info("Could not log XML response: " + e.getMessage());
-                 ExtentManager.getExtentTest().info("Raw Response Body: " + xmlResponse.getBody().asString());
-            }
+        if (xmlResponse != null) {
+            report(test -> {
+                try {
+                    String logMessage = "<details><summary><b>Click to view XML Response Body</b></summary>"
+                                     + ResponseBodyCapture.render(xmlResponse.getBody().asByteArray(), "application/xml", null)
+                                     + "</details>";
+                    test.info(logMessage);
+                } catch (Exception e) {
+                     test.info("Could not log XML response: " + e.getMessage());
+                }
+            });
+        }
+    }
+
+    /**
+     * Logs the body of a response with FAIL status, e.g. after a failed assertion on it.
+     * The body is captured as described in {@link ResponseBodyCapture} with the default limit.
+     *
+     * @param response The {@link Response} whose body to log.
+     */
+    public static void failResponseBody(Response response) {
+        if (response != null) {
+            report(test -> test.fail("Response Body: "
+                    + ResponseBodyCapture.render(response.getBody().asByteArray(), response.getContentType(), null)));
+        }
+    }
+
+    /**
+     * Queues an action against the current test of the calling thread, if there is one.
+     *
+     * @param action What to add to the test; run on the report writer thread.
+     */
+    static void report(Consumer<ExtentTest> action) {
+        ExtentTest test = ExtentManager.getExtentTest();
+        if (test != null) {
+            ExtentEventQueue.submit(test, action);
         }
     }
 
@@ -212,24 +270,12 @@ public final class ExtentLogger {
      */
     @Deprecated
     public static void addScreenshotToReport(String message) {
-        if (ExtentManager.getExtentTest() != null) {
-            // String base64Image = SeleniumUtils.getBase64Image(); // Placeholder for actual screenshot capture
-            // if (base64Image != null && !base64Image.isEmpty()) {
-            //     ExtentManager.getExtentTest().info(message, MediaEntityBuilder.createScreenCaptureFromBase64String(base64Image).build());
-            // } else {
-            //     ExtentManager.getExtentTest().info(message + " (Screenshot not available)");
-            // }
-            ExtentManager.getExtentTest().info(message + " (Screenshot capture logic not implemented in ExtentLogger)");
-        }
-    }
-
-    /**
-     * Escapes HTML special characters in a string to prevent them from being interpreted as HTML.
-     * @param text The text to escape.
-     * @return The escaped text.
-     */
-    private static String escapeHtml(String text) {
-        if (text == null) return null;
-        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+        // String base64Image = SeleniumUtils.getBase64Image(); // Placeholder for actual screenshot capture
+        // if (base64Image != null && !base64Image.isEmpty()) {
+        //     ExtentManager.getExtentTest().info(message, MediaEntityBuilder.createScreenCaptureFromBase64String(base64Image).build());
+        // } else {
+        //     ExtentManager.getExtentTest().info(message + " (Screenshot not available)");
+        // }
+        report(test -> test.info(message + " (Screenshot capture logic not implemented in ExtentLogger)"));
     }
 }
@@ -1,30 +1,57 @@
 package org.op_ra.reports;
 
 import com.aventstack.extentreports.ExtentReports;
+import com.aventstack.extentreports.ExtentTest;
 import com.aventstack.extentreports.Status;
+import com.aventstack.extentreports.model.Report;
 import com.aventstack.extentreports.reporter.ExtentSparkReporter;
+import com.aventstack.extentreports.reporter.JsonFormatter;
 import com.aventstack.extentreports.reporter.configuration.Theme;
 import com.aventstack.extentreports.reporter.configuration.ViewName;
 import org.op_ra.constants.FrameworkConstants;
 import org.op_ra.enums.CategoryType;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.utils.PropertyUtils;
+import org.op_ra.utils.TestShard;
 
-import java.awt.*;
+import java.awt.Desktop;
+import java.awt.GraphicsEnvironment;
 import java.io.File;
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.op_ra.constants.FrameworkConstants.getReportPath;
 import static org.op_ra.constants.FrameworkConstants.getServiceName;
 import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
 import static org.op_ra.reports.FrameworkLogger.log;
 
 /**
  * Manages the creation and configuration of ExtentReports.
  * This class provides methods to initialize, flush, and create test entries in the report.
- * It ensures thread safety for report generation using {@link ExtentManager}.
+ * It ensures thread safety for report generation using {@link ExtentManager}: the current test is kept per thread,
+ * while initialising, flushing and creating tests on the shared {@link ExtentReports} are serialised on a lock.
+ * Log entries, authors and categories are added to the tests by the report writer thread of {@link ExtentEventQueue},
+ * which holds the same lock while it does.
+ * When the suite is split across JVMs ({@link TestShard}), each shard also writes its report as a JSON archive,
+ * which {@link #merge(List, File)} combines into one report.
+ * With {@link ExtentEventLog} enabled, finished tests are written to an event log instead of being kept in memory,
+ * and the reports are built from that log when they are flushed (or later, with {@link #render(File, File)}).
+ * Building them replays every test of the log into a new {@link ExtentReports}, so the whole report model is in
+ * memory while the reports are written; logs larger than {@link ConfigProperties#REPORT_EVENT_LOG_INLINE_MAX_MB} are
+ * therefore rendered by a separate JVM, and only smaller ones in the test JVM.
  */
 public final class ExtentReport {
-    private static ExtentReports extentReports;
+    static final Object LOCK = new Object(); // Also held by ExtentEventQueue while it changes the tests
+    private static volatile ExtentReports extentReports;
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -36,63 +63,204 @@ public final class ExtentReport {
     /**
      * Initializes the ExtentReports instance and configures the reporters (SparkReporter for main report,
      * and a separate SparkReporter for failed tests).
-     * Sets up report document title, report name, theme, and view order.
+     * Sets up report document title, report name, theme, and view order, and the script that pretty-prints
+     * response bodies when they are opened ({@link ResponseBodyCapture}).
      * This method should be called once before any tests start, usually from a TestNG suite listener.
      *
      * @param classname The name of the test class or suite, used for the report title and path.
      *                  Parameterized from the listener class.
      */
     public static void initReports(String classname) {
-        if (Objects.isNull(extentReports)) {
-            extentReports = new ExtentReports();
+        synchronized (LOCK) {
+            if (Objects.nonNull(extentReports)) {
+                return;
+            }
+            ExtentReports reports = new ExtentReports();
             FrameworkConstants.setReportClassName(classname); // Store classname for report path generation
-
-            // Main report configuration
-            ExtentSparkReporter sparkReporter = new ExtentSparkReporter(getReportPath())
-                    .viewConfigurer()
-                    .viewOrder()
-                    .as(new ViewName[]{ViewName.DASHBOARD, ViewName.TEST})
-                    .apply();
-            sparkReporter.config().setTheme(Theme.STANDARD);
-            sparkReporter.config().setEncoding("utf-8");
-            sparkReporter.config().setDocumentTitle(classname + "_Automation Report");
-            sparkReporter.config().setReportName(getServiceName().toUpperCase() + " Service Automation Testing Report");
-
-            // Failed test cases report configuration
-            ExtentSparkReporter failedSparkReporter = new ExtentSparkReporter(getServiceName().toLowerCase() + "_failed_testcase.html")
-                    .filter()
-                    .statusFilter()
-                    .as(new Status[]{Status.FAIL})
-                    .apply();
-            failedSparkReporter.config().setDocumentTitle(getServiceName().toUpperCase() + " Service Automation Failed Test Case");
-            failedSparkReporter.config().setTheme(Theme.STANDARD);
-            failedSparkReporter.config().setEncoding("utf-8");
-
-            extentReports.attachReporter(sparkReporter, failedSparkReporter);
+            if (!ExtentEventLog.isEnabled()) {
+                attachReporters(reports, classname);
+            } // Else the reporters are attached when the report is built from the event log
+            extentReports = reports;
             log(INFO, "Report file location is " + getReportPath());
         }
     }
 
     /**
      * Flushes the ExtentReports instance, writing all logs to the report file.
-     * Opens the generated HTML report in the default desktop browser.
+     * First waits (up to 30 seconds) for the queued log entries to be added to the tests.
+     * When the tests were written to the event log ({@link ExtentEventLog}), the reports are built from it: in this JVM
+     * if the log is at most {@link ConfigProperties#REPORT_EVENT_LOG_INLINE_MAX_MB} (default 64 MB), otherwise in a
+     * separate JVM that this method waits for, falling back to this JVM if that one fails.
      * Unloads the {@link ExtentManager} to clear the current test from thread-local storage.
      * This method should be called once after all tests in a suite have finished.
      *
-     * @throws IOException If an error occurs while opening the report file.
+     * @throws IOException If an error occurs while reading the event log.
      */
     public static void flushReports() throws IOException {
-        if (Objects.nonNull(extentReports)) {
-            extentReports.flush();
+        ExtentEventQueue.drain(TimeUnit.SECONDS.toMillis(30));
+        synchronized (LOCK) {
+            if (Objects.nonNull(extentReports)) {
+                if (ExtentEventLog.isEnabled()) {
+                    File eventLog = ExtentEventLog.close();
+                    long inlineMaxBytes = PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_EVENT_LOG_INLINE_MAX_MB, 64) * 1024 * 1024;
+                    if (eventLog.length() <= inlineMaxBytes || !renderInSeparateJvm(eventLog)) {
+                        renderSuiteReports(eventLog, FrameworkConstants.getReportClassName());
+                    }
+                } else {
+                    extentReports.flush();
+                }
+            }
         }
         ExtentManager.unloadExtentTest(); // Clear thread-local test instance
-        // Open the report in the default browser
+    }
+
+    /**
+     * Builds the reports of the suite (the HTML report, the failed-tests report and, for a shard, the JSON archive)
+     * from its event log.
+     *
+     * @param eventLog  The event log of the suite; a missing file gives empty reports.
+     * @param classname The report class name of the suite.
+     * @throws IOException If the event log cannot be read.
+     */
+    static void renderSuiteReports(File eventLog, String classname) throws IOException {
+        ExtentReports reports = new ExtentReports();
+        attachReporters(reports, classname);
+        if (eventLog.exists()) {
+            ExtentEventLog.replay(eventLog, reports);
+        }
+        reports.flush();
+    }
+
+    /**
+     * Renders the reports of the suite in a new JVM ({@code ExtentEventLog --suite}), with the classpath, working
+     * directory, system properties and {@code --add-opens} options of this one plus
+     * {@link ConfigProperties#REPORT_RENDER_JVM_OPTIONS}, and waits for it.
+     *
+     * @return Whether the reports were rendered.
+     */
+    private static boolean renderInSeparateJvm(File eventLog) {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-D") || argument.startsWith("--add-opens")) {
+                command.add(argument);
+            }
+        }
+        String options = PropertyUtils.getValueOrDefault(ConfigProperties.REPORT_RENDER_JVM_OPTIONS, "").trim();
+        if (!options.isEmpty()) {
+            command.addAll(Arrays.asList(options.split("\\s+")));
+        }
+        command.addAll(Arrays.asList("-cp", System.getProperty("java.class.path"), ExtentEventLog.class.getName(),
+                "--suite", FrameworkConstants.getReportClassName(), getReportPath()));
+        log(INFO, "Report event log " + eventLog + " is " + eventLog.length() / (1024 * 1024)
+                + " MB; rendering the reports in a separate JVM");
+        Process process;
+        try {
+            process = new ProcessBuilder(command)
+                    .directory(new File(System.getProperty("user.dir")))
+                    .inheritIO()
+                    .start();
+        } catch (IOException e) {
+            log(WARN, "Could not start a JVM to render the reports (" + e.getMessage() + "); rendering them here");
+            return false;
+        }
+        try {
+            int exitCode = process.waitFor();
+            if (exitCode == 0) {
+                return true;
+            }
+            log(WARN, "Rendering the reports in a separate JVM failed with exit code " + exitCode + "; rendering them here");
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            log(WARN, "Interrupted while rendering the reports in a separate JVM; rendering them here");
+        }
+        return false;
+    }
+
+    /**
+     * Opens the generated HTML report in the default desktop browser, if there is one: nothing is opened without a
+     * display (e.g. on a CI agent) or with {@link ConfigProperties#OPEN_REPORT} (or {@code -Dopen.report}) set to "no".
+     *
+     * @throws IOException If the browser cannot be launched.
+     */
+    public static void openReport() throws IOException {
         File reportFile = new File(getReportPath());
-        if (reportFile.exists()) {
-            Desktop.getDesktop().browse(reportFile.toURI());
-        } else {
+        if (!reportFile.exists()) {
             log(INFO, "Report file not found at: " + getReportPath());
+            return;
         }
+        if ("no".equalsIgnoreCase(PropertyUtils.getOverridableValue(ConfigProperties.OPEN_REPORT, "yes").trim())
+                || GraphicsEnvironment.isHeadless()
+                || !Desktop.isDesktopSupported()
+                || !Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)) {
+            log(INFO, "Not opening the report (no desktop browser or open_report=no): " + reportFile);
+            return;
+        }
+        Desktop.getDesktop().browse(reportFile.toURI());
+    }
+
+    /**
+     * Returns the response bodies stored as side files and linked from the report of this run
+     * (see {@link ResponseBodyCapture}).
+     *
+     * @return The file names, in {@link FrameworkConstants#getResponseBodyFolderPath()}.
+     */
+    public static Set<String> getResponseBodyFiles() {
+        return ResponseBodyCapture.storedFiles();
+    }
+
+    /**
+     * Builds one HTML report from the JSON archives written by the shards of a run.
+     *
+     * @param archives The {@code *_extent.json} files of the shards.
+     * @param report   The HTML report to write.
+     * @throws IOException If an archive cannot be read.
+     */
+    public static void merge(List<File> archives, File report) throws IOException {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(report)
+                .viewConfigurer()
+                .viewOrder()
+                .as(new ViewName[]{ViewName.DASHBOARD, ViewName.TEST})
+                .apply();
+        sparkReporter.config().setTheme(Theme.STANDARD);
+        sparkReporter.config().setEncoding("utf-8");
+        sparkReporter.config().setDocumentTitle("Merged Automation Report");
+        sparkReporter.config().setReportName(getServiceName().toUpperCase() + " Service Automation Testing Report ("
+                + archives.size() + " shards)");
+        sparkReporter.config().setJs(ResponseBodyCapture.PRETTY_PRINT_SCRIPT);
+        ExtentReports merged = new ExtentReports();
+        merged.attachReporter(sparkReporter);
+        for (File archive : archives) {
+            merged.createDomainFromJsonArchive(archive);
+        }
+        merged.flush();
+    }
+
+    /**
+     * Builds an HTML report from an event log written by {@link ExtentEventLog}, e.g. the tests finished before a run
+     * was killed.
+     *
+     * @param eventLog The {@code *_events.jsonl} file.
+     * @param report   The HTML report to write.
+     * @throws IOException If the event log cannot be read.
+     */
+    public static void render(File eventLog, File report) throws IOException {
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(report)
+                .viewConfigurer()
+                .viewOrder()
+                .as(new ViewName[]{ViewName.DASHBOARD, ViewName.TEST})
+                .apply();
+        sparkReporter.config().setTheme(Theme.STANDARD);
+        sparkReporter.config().setEncoding("utf-8");
+        sparkReporter.config().setDocumentTitle(eventLog.getName().replaceFirst("(_events)?\\.jsonl$", "") + "_Automation Report");
+        sparkReporter.config().setReportName(getServiceName().toUpperCase() + " Service Automation Testing Report");
+        sparkReporter.config().setJs(ResponseBodyCapture.PRETTY_PRINT_SCRIPT);
+        ExtentReports reports = new ExtentReports();
+        reports.attachReporter(sparkReporter);
+        int tests = ExtentEventLog.replay(eventLog, reports);
+        reports.flush();
+        log(INFO, tests + " test(s) of " + eventLog + " written to " + report);
     }
 
     /**
@@ -103,25 +271,52 @@ public final class ExtentReport {
      * @param testcasename The name of the test case to be reflected in the report.
      */
     public static void createTest(String testcasename) {
-        if (Objects.nonNull(extentReports)) {
-            ExtentManager.setExtentTest(extentReports.createTest(testcasename));
+        ExtentReports reports = extentReports;
+        if (Objects.nonNull(reports)) {
+            ExtentTest test;
+            synchronized (LOCK) {
+                test = reports.createTest(testcasename);
+                if (ExtentEventLog.isEnabled()) {
+                    ExtentEventLog.opened(test);
+                }
+            }
+            ExtentManager.setExtentTest(test);
         } else {
             // Log an error or throw an exception if extentReports is not initialized
             log(INFO, "ExtentReports is not initialized. Cannot create test: " + testcasename);
         }
     }
 
+    /**
+     * Marks the current test as finished, after its last log entry. When the report is built from the event log
+     * ({@link ExtentEventLog}), the test is then written to the log and removed from the report in memory; entries
+     * logged to it afterwards are not reported. Otherwise this does nothing.
+     */
+    public static void endTest() {
+        if (ExtentEventLog.isEnabled()) {
+            ExtentLogger.report(test -> {
+                ExtentEventLog.append(test);
+                extentReports.removeTest(test);
+                // removeTest leaves the test in the author, category and device lists of the report
+                Report report = extentReports.getReport();
+                report.getAuthorCtx().removeTest(test.getModel());
+                report.getCategoryCtx().removeTest(test.getModel());
+                report.getDeviceCtx().removeTest(test.getModel());
+            });
+        }
+    }
+
     /**
      * Assigns authors to the current test in the Extent report.
      *
      * @param authors An array of author names.
      */
     public static void addAuthors(String[] authors) {
-        if (Objects.nonNull(ExtentManager.getExtentTest())) {
+        ExtentLogger.report(test -> {
             for (String temp : authors) {
-                ExtentManager.getExtentTest().assignAuthor(temp);
+                test.assignAuthor(temp);
             }
-        }
+        });
     }
 
     /**
@@ -130,10 +325,72 @@ public final class ExtentReport {
      * @param categories An array of {@link CategoryType} enums.
      */
     public static void addCategories(CategoryType[] categories) {
-        if (Objects.nonNull(ExtentManager.getExtentTest())) {
+        ExtentLogger.report(test -> {
             for (CategoryType temp : categories) {
-                ExtentManager.getExtentTest().assignCategory(temp.toString()); // Corrected method to assignCategory
+                test.assignCategory(temp.toString()); // Corrected method to assignCategory
+            }
+        });
+    }
+
+    /**
+     * Wraps a task so that, wherever it runs, its Extent logs go to the test that is current on the calling thread.
+     * {@link ExtentManager} keeps the current test in a {@link ThreadLocal}, so work handed to another thread
+     * (e.g. an async request) would otherwise log nowhere.
+     *
+     * @param task The task to run on another thread.
+     * @param <T>  The result type of the task.
+     * @return A supplier that installs the captured test for the duration of {@code task}.
+     */
+    public static <T> Supplier<T> withCurrentTest(Supplier<T> task) {
+        ExtentTest owner = ExtentManager.getExtentTest();
+        return () -> {
+            ExtentTest previous = ExtentManager.getExtentTest();
+            ExtentManager.setExtentTest(owner);
+            try {
+                return task.get();
+            } finally {
+                if (Objects.isNull(previous)) {
+                    ExtentManager.unloadExtentTest();
+                } else {
+                    ExtentManager.setExtentTest(previous);
+                }
             }
+        };
+    }
+
+    /**
+     * Attaches the main and failed-test Spark reporters to a report, and the JSON archive when the suite is sharded.
+     *
+     * @param reports   The report.
+     * @param classname The name of the test class or suite, used for the report title.
+     */
+    private static void attachReporters(ExtentReports reports, String classname) {
+        // Main report configuration
+        ExtentSparkReporter sparkReporter = new ExtentSparkReporter(getReportPath())
+                .viewConfigurer()
+                .viewOrder()
+                .as(new ViewName[]{ViewName.DASHBOARD, ViewName.TEST})
+                .apply();
+        sparkReporter.config().setTheme(Theme.STANDARD);
+        sparkReporter.config().setEncoding("utf-8");
+        sparkReporter.config().setDocumentTitle(classname + "_Automation Report");
+        sparkReporter.config().setReportName(getServiceName().toUpperCase() + " Service Automation Testing Report");
+        sparkReporter.config().setJs(ResponseBodyCapture.PRETTY_PRINT_SCRIPT);
+
+        // Failed test cases report configuration
+        ExtentSparkReporter failedSparkReporter = new ExtentSparkReporter(getServiceName().toLowerCase() + "_failed_testcase.html")
+                .filter()
+                .statusFilter()
+                .as(new Status[]{Status.FAIL})
+                .apply();
+        failedSparkReporter.config().setDocumentTitle(getServiceName().toUpperCase() + " Service Automation Failed Test Case");
+        failedSparkReporter.config().setTheme(Theme.STANDARD);
+        failedSparkReporter.config().setEncoding("utf-8");
+        failedSparkReporter.config().setJs(ResponseBodyCapture.PRETTY_PRINT_SCRIPT);
+
+        reports.attachReporter(sparkReporter, failedSparkReporter);
+        if (TestShard.isSharded()) {
+            reports.attachReporter(new JsonFormatter(FrameworkConstants.getExtentJsonPath()));
         }
     }
 }
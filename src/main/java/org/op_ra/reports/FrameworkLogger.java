@@ -1,12 +1,15 @@
 package org.op_ra.reports;
 
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.op_ra.enums.LogType; // Assuming LogType enum exists
 
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.Objects;
 import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * A custom framework logger that provides a simplified interface over Log4j2
@@ -18,10 +21,19 @@ import java.util.function.BiConsumer;
  * <p>
  * To use this logger, simply call {@code FrameworkLogger.log(LogType, String)}.
  * </p>
+ * <p>
+ * Log4j2 is only called when the level of the type is enabled (INFO by default, see {@code log4j2.xml}), and the
+ * Extent message is only built when the calling thread has a current test. REQUEST and RESPONSE entries pass their
+ * details to Log4j2 as parameters ({@code {}}); other types pass the message as given, so a message concatenated at
+ * the call site is built even when neither uses it. On hot paths (per request or per test), use
+ * {@link #log(LogType, Supplier)}, which builds the message only when one of the two will use it. Log4j2 writes the
+ * log file on a background thread (an async appender), so logging does not wait for the disk.
+ * </p>
  * Example:
  * <pre>{@code
  * FrameworkLogger.log(LogType.INFO, "This is an informational message.");
  * FrameworkLogger.log(LogType.ERROR, "An error occurred: " + e.getMessage());
+ * FrameworkLogger.log(LogType.DEBUG, () -> "Stack trace: " + Arrays.toString(e.getStackTrace()));
  * }</pre>
  */
 public final class FrameworkLogger {
@@ -31,8 +43,10 @@ public final class FrameworkLogger {
 
     // Map to associate LogType enums with their corresponding logging actions.
     // This avoids large switch-case or if-else blocks.
-    private static final Map<LogType, BiConsumer<String, String>> LOG_ACTIONS_LOG4J = new HashMap<>();
-    private static final Map<LogType, BiConsumer<String, String>> LOG_ACTIONS_EXTENT = new HashMap<>();
+    private static final Map<LogType, BiConsumer<String, String>> LOG_ACTIONS_LOG4J = new EnumMap<>(LogType.class);
+    private static final Map<LogType, BiConsumer<String, String>> LOG_ACTIONS_EXTENT = new EnumMap<>(LogType.class);
+    // Log4j level of each type, checked before a message is formatted; CONSOLE has none
+    private static final Map<LogType, Level> LOG4J_LEVELS = new EnumMap<>(LogType.class);
 
 
     static {
@@ -45,10 +59,21 @@ public final class FrameworkLogger {
         LOG_ACTIONS_LOG4J.put(LogType.PASS, (message, details) -> LOGGER.info(message)); // Log PASS as INFO in Log4j
         LOG_ACTIONS_LOG4J.put(LogType.FAIL, (message, details) -> LOGGER.error(message)); // Log FAIL as ERROR in Log4j
         LOG_ACTIONS_LOG4J.put(LogType.SKIP, (message, details) -> LOGGER.info(message)); // Log SKIP as INFO in Log4j
-        LOG_ACTIONS_LOG4J.put(LogType.REQUEST, (message, details) -> LOGGER.info("REQUEST: " + message + (details != null ? "\n" + details : "")));
-        LOG_ACTIONS_LOG4J.put(LogType.RESPONSE, (message, details) -> LOGGER.info("RESPONSE: " + message + (details != null ? "\n" + details : "")));
+        LOG_ACTIONS_LOG4J.put(LogType.REQUEST, (message, details) -> LOGGER.info("REQUEST: {}{}{}", message, details != null ? "\n" : "", details != null ? details : ""));
+        LOG_ACTIONS_LOG4J.put(LogType.RESPONSE, (message, details) -> LOGGER.info("RESPONSE: {}{}{}", message, details != null ? "\n" : "", details != null ? details : ""));
         LOG_ACTIONS_LOG4J.put(LogType.CONSOLE, (message, details) -> System.out.println(message)); // Special case for console
 
+        LOG4J_LEVELS.put(LogType.DEBUG, Level.DEBUG);
+        LOG4J_LEVELS.put(LogType.INFO, Level.INFO);
+        LOG4J_LEVELS.put(LogType.WARN, Level.WARN);
+        LOG4J_LEVELS.put(LogType.ERROR, Level.ERROR);
+        LOG4J_LEVELS.put(LogType.FATAL, Level.FATAL);
+        LOG4J_LEVELS.put(LogType.PASS, Level.INFO);
+        LOG4J_LEVELS.put(LogType.FAIL, Level.ERROR);
+        LOG4J_LEVELS.put(LogType.SKIP, Level.INFO);
+        LOG4J_LEVELS.put(LogType.REQUEST, Level.INFO);
+        LOG4J_LEVELS.put(LogType.RESPONSE, Level.INFO);
+
         // Initialize ExtentReport logging actions
         // Assuming ExtentLogger has methods like pass(), fail(), skip(), info(), warn()
         LOG_ACTIONS_EXTENT.put(LogType.PASS, (message, details) -> ExtentLogger.pass(message + (details != null ? ": " + details : "")));
@@ -84,14 +109,23 @@ public final class FrameworkLogger {
      *                Currently, this is appended to the main message for most log types.
      */
     public static void log(LogType type, String message, String details) {
-        if (LOG_ACTIONS_LOG4J.containsKey(type)) {
-            LOG_ACTIONS_LOG4J.get(type).accept(message, details);
-        } else {
-            LOGGER.info(message + (details != null ? " | Details: " + details : "")); // Default Log4j action
+        BiConsumer<String, String> log4jAction = LOG_ACTIONS_LOG4J.get(type);
+        if (Objects.isNull(log4jAction)) {
+            if (details != null) {
+                LOGGER.info("{} | Details: {}", message, details); // Default Log4j action
+            } else {
+                LOGGER.info(message);
+            }
+        } else if (isLog4jEnabled(type)) {
+            log4jAction.accept(message, details);
         }
 
-        if (LOG_ACTIONS_EXTENT.containsKey(type)) {
-            LOG_ACTIONS_EXTENT.get(type).accept(message, details);
+        if (Objects.isNull(ExtentManager.getExtentTest())) {
+            return; // No test to add the message to
+        }
+        BiConsumer<String, String> extentAction = LOG_ACTIONS_EXTENT.get(type);
+        if (Objects.nonNull(extentAction)) {
+            extentAction.accept(message, details);
         } else {
             ExtentLogger.info(message + (details != null ? " | Details: " + details : "")); // Default Extent action
         }
@@ -107,4 +141,23 @@ public final class FrameworkLogger {
     public static void log(LogType type, String message) {
         log(type, message, null); // Call the main log method with null details
     }
+
+    /**
+     * Logs a message built only when it is used: when Log4j2 is enabled for the level of {@code type}, or the calling
+     * thread has a current Extent test. Use it for messages that are costly to build, e.g. stack traces or
+     * per-method debug output.
+     *
+     * @param type    The {@link LogType} of the message.
+     * @param message Builds the message string.
+     */
+    public static void log(LogType type, Supplier<String> message) {
+        if (isLog4jEnabled(type) || Objects.nonNull(ExtentManager.getExtentTest())) {
+            log(type, message.get(), null);
+        }
+    }
+
+    private static boolean isLog4jEnabled(LogType type) {
+        Level level = LOG4J_LEVELS.get(type);
+        return Objects.isNull(level) || LOGGER.isEnabled(level);
+    }
 }
@@ -0,0 +1,247 @@
+package org.op_ra.reports;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.op_ra.enums.CategoryType;
+import org.op_ra.metrics.EndpointMetrics;
+import org.op_ra.metrics.LatencyHistogram;
+import org.op_ra.metrics.LatencyRecorder;
+import org.op_ra.utils.ConnectionPoolMetrics;
+import org.op_ra.utils.DataBaseConnectionUtils;
+import org.op_ra.utils.DatabaseQueryExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.op_ra.constants.FrameworkConstants.getLatencyReportPath;
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Publishes the per-endpoint latency collected by {@link LatencyRecorder}: p50, p90, p99, p99.9, max and
+ * throughput per service and endpoint template. When a load run recorded coordinated-omission-corrected latencies,
+ * the corrected percentiles are reported next to the measured ones ({@code corrected*} columns).
+ * When the database was used, the JDBC pool counters (active, idle, connection wait times) are reported too,
+ * since time spent waiting for a connection is otherwise hidden inside the test timings, together with the hit and
+ * miss counters of the {@link DatabaseQueryExecutor#retrieveRowData(String, Object...)} row cache.
+ * <p>
+ * The summary is added to the Extent report as a "Latency Summary" test (category PERFORMANCE) and written as JSON
+ * to {@link org.op_ra.constants.FrameworkConstants#getLatencyReportPath()}, so builds can be compared by tooling.
+ * Must be called before {@link ExtentReport#flushReports()}.
+ * </p>
+ * The JSON also carries the histogram counters of each endpoint, so {@link #merge(List, File)} can combine the
+ * summaries of several shards into exact percentiles.
+ */
+public final class LatencyReport {
+
+    /** Percentiles reported for every endpoint. */
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p99.9"};
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private LatencyReport() {
+        // Private constructor
+    }
+
+    /**
+     * Writes the latency summary to the Extent report and the JSON file.
+     * Does nothing if no call was recorded and the database was not used.
+     */
+    public static void publish() {
+        List<EndpointMetrics> metrics = LatencyRecorder.getMetrics();
+        ConnectionPoolMetrics pool = DataBaseConnectionUtils.getPoolMetrics();
+        if (metrics.isEmpty() && Objects.isNull(pool)) {
+            return;
+        }
+        boolean corrected = metrics.stream().anyMatch(endpoint -> endpoint.getCorrectedHistogram().getCount() > 0);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (EndpointMetrics endpoint : metrics) {
+            rows.add(toRow(endpoint, corrected));
+        }
+        writeJson(rows, metrics, corrected, pool);
+        writeExtent(rows, pool);
+    }
+
+    /**
+     * Combines the latency JSON files of the shards of a run into one, merging the histograms of each endpoint.
+     * Throughputs are added up, since the shards ran at the same time; the database pool and row-cache counters
+     * are kept per shard.
+     *
+     * @param summaries The {@code *_latency.json} files of the shards.
+     * @param output    The merged JSON file to write.
+     * @throws IOException If a file cannot be read or written.
+     */
+    public static void merge(List<File> summaries, File output) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, Map<String, Object>> endpoints = new LinkedHashMap<>();
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        Map<String, LatencyHistogram> correctedHistograms = new LinkedHashMap<>();
+        List<Object> pools = new ArrayList<>();
+        for (File summary : summaries) {
+            Map<String, Object> document = mapper.readValue(summary, new TypeReference<Map<String, Object>>() {
+            });
+            for (Object value : (List<?>) document.getOrDefault("endpoints", new ArrayList<>())) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> row = (Map<String, Object>) value;
+                if (!row.containsKey("histogram")) {
+                    throw new IOException(summary + " has no latency histograms; it was not written by a shard");
+                }
+                String key = row.get("service") + " " + row.get("method") + " " + row.get("endpoint");
+                Map<String, Object> merged = endpoints.computeIfAbsent(key, k -> {
+                    Map<String, Object> totals = new LinkedHashMap<>();
+                    totals.put("service", row.get("service"));
+                    totals.put("method", row.get("method"));
+                    totals.put("endpoint", row.get("endpoint"));
+                    totals.put("errors", 0L);
+                    totals.put("throughputPerSecond", 0.0);
+                    return totals;
+                });
+                merged.put("errors", (Long) merged.get("errors") + ((Number) row.get("errors")).longValue());
+                merged.put("throughputPerSecond", (Double) merged.get("throughputPerSecond") + ((Number) row.get("throughputPerSecond")).doubleValue());
+                histograms.computeIfAbsent(key, k -> new LatencyHistogram()).add(histogramOf(row, "histogram"));
+                correctedHistograms.computeIfAbsent(key, k -> new LatencyHistogram()).add(histogramOf(row, "correctedHistogram"));
+            }
+            if (document.containsKey("databasePool")) {
+                Map<String, Object> pool = new LinkedHashMap<>();
+                pool.put("shard", summary.getName());
+                pool.put("databasePool", document.get("databasePool"));
+                pool.put("rowCache", document.get("rowCache"));
+                pools.add(pool);
+            }
+        }
+        boolean corrected = correctedHistograms.values().stream().anyMatch(histogram -> histogram.getCount() > 0);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<String, Map<String, Object>> endpoint : endpoints.entrySet()) {
+            Map<String, Object> totals = endpoint.getValue();
+            Map<String, Object> row = toRow((String) totals.get("service"), (String) totals.get("method"), (String) totals.get("endpoint"),
+                    histograms.get(endpoint.getKey()), correctedHistograms.get(endpoint.getKey()), (Long) totals.get("errors"),
+                    (Double) totals.get("throughputPerSecond"), corrected);
+            row.put("histogram", histograms.get(endpoint.getKey()).toMap());
+            if (corrected) {
+                row.put("correctedHistogram", correctedHistograms.get(endpoint.getKey()).toMap());
+            }
+            rows.add(row);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("generatedAt", System.currentTimeMillis());
+        document.put("shards", summaries.size());
+        document.put("endpoints", rows);
+        if (!pools.isEmpty()) {
+            document.put("databasePools", pools);
+        }
+        mapper.writerWithDefaultPrettyPrinter().writeValue(output, document);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static LatencyHistogram histogramOf(Map<String, Object> row, String field) {
+        Object counters = row.get(field);
+        return counters instanceof Map ? LatencyHistogram.fromMap((Map<String, Object>) counters) : new LatencyHistogram();
+    }
+
+    private static Map<String, Object> toRow(EndpointMetrics endpoint, boolean includeCorrected) {
+        return toRow(endpoint.getService(), endpoint.getMethod(), endpoint.getTemplate(), endpoint.getHistogram(),
+                endpoint.getCorrectedHistogram(), endpoint.getErrors(), endpoint.getThroughput(), includeCorrected);
+    }
+
+    private static Map<String, Object> toRow(String service, String method, String template, LatencyHistogram histogram,
+                                             LatencyHistogram correctedHistogram, long errors, double throughput,
+                                             boolean includeCorrected) {
+        long[] values = histogram.getValuesAtPercentiles(PERCENTILES);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("service", service);
+        row.put("method", method);
+        row.put("endpoint", template);
+        row.put("count", histogram.getCount());
+        row.put("errors", errors);
+        row.put("throughputPerSecond", round(throughput));
+        row.put("meanMs", toMillis(histogram.getMean()));
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            row.put(PERCENTILE_NAMES[i] + "Ms", toMillis(values[i]));
+        }
+        row.put("maxMs", toMillis(histogram.getMax()));
+        if (includeCorrected) {
+            long[] correctedValues = correctedHistogram.getValuesAtPercentiles(PERCENTILES);
+            row.put("correctedCount", correctedHistogram.getCount());
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                row.put("corrected" + Character.toUpperCase(PERCENTILE_NAMES[i].charAt(0))
+                        + PERCENTILE_NAMES[i].substring(1) + "Ms", toMillis(correctedValues[i]));
+            }
+            row.put("correctedMaxMs", toMillis(correctedHistogram.getMax()));
+        }
+        return row;
+    }
+
+    private static void writeJson(List<Map<String, Object>> rows, List<EndpointMetrics> metrics, boolean corrected,
+                                  ConnectionPoolMetrics pool) {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Map<String, Object> row = new LinkedHashMap<>(rows.get(i));
+            row.put("histogram", metrics.get(i).getHistogram().toMap());
+            if (corrected) {
+                row.put("correctedHistogram", metrics.get(i).getCorrectedHistogram().toMap());
+            }
+            endpoints.add(row);
+        }
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("generatedAt", System.currentTimeMillis());
+        document.put("endpoints", endpoints);
+        if (Objects.nonNull(pool)) {
+            document.put("databasePool", pool.toMap());
+            document.put("rowCache", DatabaseQueryExecutor.getRowCacheStats());
+        }
+        try {
+            new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(getLatencyReportPath()), document);
+            log(INFO, "Latency summary written to " + getLatencyReportPath());
+        } catch (IOException e) {
+            log(WARN, "Could not write latency summary: " + e.getMessage());
+        }
+    }
+
+    private static void writeExtent(List<Map<String, Object>> rows, ConnectionPoolMetrics pool) {
+        ExtentReport.createTest("<span style='font-weight:bold;color:darkblue;'>Latency Summary</span>");
+        ExtentReport.addCategories(new CategoryType[]{CategoryType.PERFORMANCE});
+        if (!rows.isEmpty()) {
+            ExtentLogger.info(toTable(rows));
+        }
+        if (Objects.nonNull(pool)) {
+            List<Map<String, Object>> poolRows = new ArrayList<>();
+            poolRows.add(pool.toMap());
+            ExtentLogger.info("Database connection pool: " + toTable(poolRows));
+            List<Map<String, Object>> cacheRows = new ArrayList<>();
+            cacheRows.add(DatabaseQueryExecutor.getRowCacheStats());
+            ExtentLogger.info("Row-data cache: " + toTable(cacheRows));
+        }
+    }
+
+    private static String toTable(List<Map<String, Object>> rows) {
+        StringBuilder table = new StringBuilder("<table class='table table-sm'><tr>");
+        for (String column : rows.get(0).keySet()) {
+            table.append("<th>").append(column).append("</th>");
+        }
+        table.append("</tr>");
+        for (Map<String, Object> row : rows) {
+            table.append("<tr>");
+            for (Object value : row.values()) {
+                table.append("<td>").append(value).append("</td>");
+            }
+            table.append("</tr>");
+        }
+        return table.append("</table>").toString();
+    }
+
+    private static double toMillis(double micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -0,0 +1,212 @@
+package org.op_ra.reports;
+
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.ServiceType;
+import org.op_ra.utils.PropertyUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Turns a response body into the HTML logged by {@link ExtentLogger}, keeping the report small whatever the size of
+ * the body.
+ * <p>
+ * At most {@link ConfigProperties#REPORT_BODY_MAX_BYTES} of a body are embedded, or
+ * {@code open_<service>_report_body_max_bytes} for the service that returned it (e.g.
+ * {@code open_document_report_body_max_bytes}); 0 embeds none. A longer body is cut in the middle: the report shows its
+ * start and its last {@link ConfigProperties#REPORT_BODY_TAIL_BYTES} bytes. With
+ * {@link ConfigProperties#REPORT_BODY_SIDE_FILES} set to "yes" (default) the whole body is also written, gzip-compressed,
+ * to {@link FrameworkConstants#getResponseBodyFolderPath()} under the SHA-256 of its content, and the report links to
+ * that file; a body returned many times is stored once.
+ * </p>
+ * <p>
+ * Bodies are embedded as received and pretty-printed by {@link #PRETTY_PRINT_SCRIPT} in the browser, when their entry
+ * is first opened, so writing the report does not format them.
+ * </p>
+ */
+final class ResponseBodyCapture {
+
+    /**
+     * Added to the reports (see {@link ExtentReport#initReports(String)}): pretty-prints a complete JSON body the first
+     * time the {@code <details>} element holding it is opened. Truncated bodies are not valid JSON and stay as they are.
+     */
+    static final String PRETTY_PRINT_SCRIPT = "document.addEventListener('toggle', function (e) {"
+            + " if (!e.target.open || !e.target.querySelectorAll) { return; }"
+            + " e.target.querySelectorAll('pre.response-body[data-format=json]:not([data-pretty])').forEach(function (pre) {"
+            + " pre.setAttribute('data-pretty', '1');"
+            + " try { pre.textContent = JSON.stringify(JSON.parse(pre.textContent), null, 2); } catch (ignored) { }"
+            + " });"
+            + " }, true);";
+
+    private static final int MAX_BYTES = (int) PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_BODY_MAX_BYTES, 65_536);
+    private static final int TAIL_BYTES = (int) PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_BODY_TAIL_BYTES, 4_096);
+    private static final boolean SIDE_FILES =
+            !"no".equalsIgnoreCase(PropertyUtils.getValueOrDefault(ConfigProperties.REPORT_BODY_SIDE_FILES, "yes").trim());
+    private static final Map<ServiceType, Integer> SERVICE_MAX_BYTES = new EnumMap<>(ServiceType.class);
+    // The side files linked from the report of this run; the folder also holds those of earlier runs
+    private static final Set<String> STORED = ConcurrentHashMap.newKeySet();
+
+    static {
+        for (ServiceType service : ServiceType.values()) {
+            String key = service.getPropertyPrefix() + "_report_body_max_bytes";
+            String value = PropertyUtils.getValueOrDefault(key, null);
+            if (Objects.nonNull(value)) {
+                try {
+                    SERVICE_MAX_BYTES.put(service, Integer.parseInt(value.trim()));
+                } catch (NumberFormatException e) {
+                    log(WARN, "Property " + key + " is not a number: '" + value + "'. Using report_body_max_bytes");
+                }
+            }
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ResponseBodyCapture() {
+        // Private constructor
+    }
+
+    /**
+     * Renders a body as a {@code <pre>} element, cut to the limit of its service, preceded by its size and the link
+     * to the side file when it was cut.
+     *
+     * @param body        The raw body.
+     * @param contentType The Content-Type of the response, used for the file extension and the pretty-printing.
+     * @param service     The service that returned the body, or {@code null} for the default limit.
+     * @return The HTML to log.
+     */
+    static String render(byte[] body, String contentType, ServiceType service) {
+        if (Objects.isNull(body) || body.length == 0) {
+            return "<pre>Body: Not available or empty</pre>";
+        }
+        String format = format(contentType);
+        int maxBytes = Math.max(0, SERVICE_MAX_BYTES.getOrDefault(service, MAX_BYTES));
+        if (body.length <= maxBytes) {
+            return pre(format, new String(body, StandardCharsets.UTF_8));
+        }
+
+        int tail = Math.min(TAIL_BYTES, maxBytes / 2);
+        int headEnd = utf8Boundary(body, maxBytes - tail, -1);
+        int tailStart = utf8Boundary(body, body.length - tail, 1);
+        StringBuilder html = new StringBuilder("<p>Body: ").append(body.length).append(" bytes, ")
+                .append(headEnd + body.length - tailStart).append(" shown");
+        String link = SIDE_FILES ? store(body, format) : null;
+        if (Objects.nonNull(link)) {
+            html.append(" - <a href=\"").append(link).append("\" target=\"_blank\">full body (gzip)</a>");
+        }
+        html.append("</p>");
+        if (maxBytes > 0) {
+            html.append(pre(format, new String(body, 0, headEnd, StandardCharsets.UTF_8)
+                    + "\n... " + (tailStart - headEnd) + " bytes omitted ...\n"
+                    + new String(body, tailStart, body.length - tailStart, StandardCharsets.UTF_8)));
+        }
+        return html.toString();
+    }
+
+    /**
+     * Returns the side files the report of this run links to.
+     *
+     * @return The file names, in {@link FrameworkConstants#getResponseBodyFolderPath()}.
+     */
+    static Set<String> storedFiles() {
+        return Collections.unmodifiableSet(STORED);
+    }
+
+    private static String pre(String format, String text) {
+        return "<pre class=\"response-body\" data-format=\"" + format + "\">" + escapeHtml(text) + "</pre>";
+    }
+
+    /**
+     * Moves an offset off the middle of a UTF-8 sequence, so the cut does not split a character.
+     */
+    private static int utf8Boundary(byte[] body, int offset, int direction) {
+        while (offset > 0 && offset < body.length && (body[offset] & 0xC0) == 0x80) {
+            offset += direction;
+        }
+        return offset;
+    }
+
+    private static String format(String contentType) {
+        String type = Objects.isNull(contentType) ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.contains("json")) {
+            return "json";
+        }
+        if (type.contains("xml")) {
+            return "xml";
+        }
+        return type.contains("html") ? "html" : "txt";
+    }
+
+    /**
+     * Writes a body to its side file unless it is already there.
+     *
+     * @return The path of the file relative to the report folder, or {@code null} if it could not be written.
+     */
+    private static String store(byte[] body, String extension) {
+        String name = sha256(body) + "." + extension + ".gz";
+        File folder = new File(FrameworkConstants.getResponseBodyFolderPath());
+        File file = new File(folder, name);
+        if (!file.exists()) {
+            Path tmp = null;
+            try {
+                Files.createDirectories(folder.toPath());
+                tmp = folder.toPath().resolve(name + "." + UUID.randomUUID() + ".tmp");
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                    out.write(body);
+                }
+                // Same name, same content: a concurrent writer of the same body can be replaced
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                log(WARN, "Could not store a response body of " + body.length + " bytes in " + file + ": " + e.getMessage());
+                try {
+                    if (Objects.nonNull(tmp)) {
+                        Files.deleteIfExists(tmp);
+                    }
+                } catch (IOException ignored) {
+                    // Left for the next clean of the report folder
+                }
+                return null;
+            }
+        }
+        STORED.add(name);
+        return folder.getName() + "/" + name;
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e); // Required on every Java platform
+        }
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+}
@@ -0,0 +1,113 @@
+package org.op_ra.reports;
+
+import org.op_ra.utils.DataBaseConnectionUtils;
+import org.op_ra.utils.ReportDatabaseController;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Combines the outputs of a suite split across JVMs ({@link org.op_ra.utils.TestShard}) into one report, once every
+ * shard has finished and their {@code extent-test-output} files are collected in one directory:
+ * <ul>
+ *     <li>the {@code *_extent.json} archives into {@code ExtentReport_merged.html} ({@link ExtentReport#merge(List, File)});</li>
+ *     <li>the {@code *_latency.json} summaries into {@code ExtentReport_merged_latency.json}, with percentiles computed
+ *     from the merged histograms ({@link LatencyReport#merge(List, File)});</li>
+ *     <li>the {@code *_results_spill.jsonl} files, holding results a shard could not store, into the results database
+ *     ({@link ReportDatabaseController#replaySpill(File)}). A loaded file is renamed to {@code *.loaded}, so running
+ *     the merge again does not insert it twice.</li>
+ * </ul>
+ * Run it with:
+ * <pre>{@code
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.op_ra.reports.ShardReportMerger \
+ *     -Dexec.args="shard-reports merged-report"
+ * }</pre>
+ */
+public final class ShardReportMerger {
+
+    private static final String DEFAULT_DIRECTORY = "extent-test-output";
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ShardReportMerger() {
+        // Private constructor
+    }
+
+    /**
+     * Merges the shard outputs of a directory.
+     *
+     * @param args Optional directory holding the shard outputs (defaults to extent-test-output), then optional
+     *             directory for the merged report (defaults to the same directory).
+     */
+    public static void main(String[] args) {
+        File input = new File(args.length > 0 ? args[0] : DEFAULT_DIRECTORY);
+        File output = args.length > 1 ? new File(args[1]) : input;
+        try {
+            merge(input, output);
+        } finally {
+            DataBaseConnectionUtils.closeAllConnections();
+        }
+    }
+
+    /**
+     * Merges the shard outputs found in {@code input} into {@code output}.
+     *
+     * @param input  Directory holding the files written by the shards.
+     * @param output Directory for the merged report; created if missing.
+     */
+    public static void merge(File input, File output) {
+        if (!output.isDirectory() && !output.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create output directory " + output);
+        }
+        List<File> archives = find(input, "_extent.json");
+        if (!archives.isEmpty()) {
+            File report = new File(output, "ExtentReport_merged.html");
+            try {
+                ExtentReport.merge(archives, report);
+                log(INFO, "Merged " + archives.size() + " Extent report(s) into " + report);
+            } catch (IOException e) {
+                log(WARN, "Could not merge the Extent reports: " + e.getMessage());
+            }
+        }
+        List<File> summaries = find(input, "_latency.json");
+        if (!summaries.isEmpty()) {
+            File summary = new File(output, "ExtentReport_merged_latency.json");
+            try {
+                LatencyReport.merge(summaries, summary);
+                log(INFO, "Merged " + summaries.size() + " latency summaries into " + summary);
+            } catch (IOException e) {
+                log(WARN, "Could not merge the latency summaries: " + e.getMessage());
+            }
+        }
+        for (File spill : find(input, "_results_spill.jsonl")) {
+            try {
+                int rows = ReportDatabaseController.replaySpill(spill);
+                if (!spill.renameTo(new File(spill.getPath() + ".loaded"))) {
+                    log(WARN, "Loaded " + spill + " but could not rename it; delete it before merging again");
+                }
+                log(INFO, "Stored " + rows + " spilled test result(s) of " + spill.getName() + " in the database");
+            } catch (IOException | SQLException | RuntimeException e) {
+                log(WARN, "Could not store the spilled test results of " + spill.getName() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Files of the shards only, so a previous merged report in the same directory is not merged again
+    private static List<File> find(File directory, String suffix) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(suffix) && name.matches(".*_shard\\d+of\\d+_.*"));
+        if (Objects.isNull(files)) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
+        }
+        return Arrays.stream(files).sorted().collect(Collectors.toList());
+    }
+}
@@ -1,9 +1,13 @@
 package org.op_ra.requestbuilder;
 
+import io.restassured.config.RestAssuredConfig;
+import io.restassured.http.Method;
 import io.restassured.response.Response;
+import io.restassured.specification.RequestSpecification;
 import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.ServiceType;
+import org.op_ra.metrics.LatencyRecorder;
 import org.op_ra.reports.ExtentLogger;
-import org.op_ra.utils.PropertyUtils;
 
 import static io.restassured.RestAssured.given;
 import static org.op_ra.enums.LogType.INFO;
@@ -14,9 +18,24 @@ import static org.op_ra.utils.PropertyUtils.getValue;
  * Builds and sends API requests using RestAssured.
  * This class provides methods for various HTTP methods (GET, POST, PUT)
  * and handles authentication, logging, and response extraction for different services.
+ * <p>
+ * Every request starts from the pre-built specification of its service in {@link ServiceSpecCache}
+ * (base URI, authentication and per-service headers) and runs on the pooled, keep-alive HTTP client
+ * of that service from {@link ServiceClientRegistry}, so connections and TLS sessions are reused across calls.
+ * </p>
  */
 public class ApiRequestBuilder {
 
+    /**
+     * Returns the non-blocking variant of this builder, whose methods return {@link java.util.concurrent.CompletableFuture}s.
+     * Example: {@code ApiRequestBuilder.async().getErxServiceResponse(endpoint)}.
+     *
+     * @return The shared {@link AsyncApiRequestBuilder}.
+     */
+    public static AsyncApiRequestBuilder async() {
+        return AsyncApiRequestBuilder.INSTANCE;
+    }
+
     /**
      * Sends a GET request to the Actor service.
      *
@@ -24,21 +43,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getActorServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_ACTOR_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_ACTOR_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.ACTOR, Method.GET, endpoint);
     }
 
     /**
@@ -48,21 +53,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getChartServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.CHART, Method.GET, endpoint);
     }
 
     /**
@@ -72,21 +63,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getChcServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHC_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHC_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.CHC, Method.GET, endpoint);
     }
 
     /**
@@ -96,21 +73,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getDocumentServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_DOCUMENT_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_DOCUMENT_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.DOCUMENT, Method.GET, endpoint);
     }
 
     /**
@@ -120,21 +83,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getErxServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_ERX_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_ERX_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.ERX, Method.GET, endpoint);
     }
 
     /**
@@ -144,21 +93,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getLabServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_LAB_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_LAB_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.LAB, Method.GET, endpoint);
     }
 
     /**
@@ -168,21 +103,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response getJobServiceResponse(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_JOB_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_JOB_PASSWORD))
-                .when()
-                .get(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.JOB, Method.GET, endpoint);
     }
 
     /**
@@ -192,21 +113,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postActorService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_ACTOR_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_ACTOR_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.ACTOR, Method.POST, endpoint);
     }
 
     /**
@@ -216,21 +123,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postChartService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.CHART, Method.POST, endpoint);
     }
 
     /**
@@ -240,21 +133,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postChcService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.CHC, Method.POST, endpoint);
     }
 
     /**
@@ -264,21 +143,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postDocumentService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.DOCUMENT, Method.POST, endpoint);
     }
 
     /**
@@ -288,21 +153,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postErxService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.ERX, Method.POST, endpoint);
     }
 
     /**
@@ -312,21 +163,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postLabService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.LAB, Method.POST, endpoint);
     }
 
     /**
@@ -336,21 +173,7 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response postJobService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_JOB_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_JOB_PASSWORD))
-                .when()
-                .post(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.JOB, Method.POST, endpoint);
     }
 
     /**
@@ -360,46 +183,43 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response putJobService(String endpoint) {
-        Response response = given()
-                .auth().preemptive().basic(PropertyUtils.getValue(ConfigProperties.OPEN_JOB_USERNAME), PropertyUtils.getValue(ConfigProperties.OPEN_JOB_PASSWORD))
-                .when()
-                .put(endpoint)
-                .then()
-                .extract()
-                .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-        return response;
+        return send(ServiceType.JOB, Method.PUT, endpoint);
     }
 
     /**
      * Sends a GET request with an invalid token to test unauthorized access.
+     * The pooled client is chosen from the host of the endpoint; use
+     * {@link #requestGetCallUsingInvalidToken(ServiceType, String)} when the service is known.
      *
      * @param endpoint The API endpoint to hit.
      * @return True if the status code is 401 (Unauthorized), false otherwise.
      */
     public static boolean requestGetCallUsingInvalidToken(String endpoint) {
+        return requestGetCallUsingInvalidToken(ServiceClientRegistry.getConfigForEndpoint(endpoint), endpoint);
+    }
+
+    /**
+     * Sends a GET request with an invalid token to test unauthorized access, through the pooled client of the
+     * given service.
+     *
+     * @param service  The target service.
+     * @param endpoint The API endpoint to hit.
+     * @return True if the status code is 401 (Unauthorized), false otherwise.
+     */
+    public static boolean requestGetCallUsingInvalidToken(ServiceType service, String endpoint) {
+        return requestGetCallUsingInvalidToken(ServiceClientRegistry.getConfig(service), endpoint);
+    }
+
+    private static boolean requestGetCallUsingInvalidToken(RestAssuredConfig config, String endpoint) {
         Response response = given()
+                .config(config)
                 .auth().preemptive().basic("Test", "Test12") // Invalid credentials
                 .when()
                 .put(endpoint) // Should this be GET? Assuming PUT based on original code.
                 .then()
                 .extract()
                 .response();
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
-
-        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
-        }
-
+        logResponse(null, response);
         return response.getStatusCode() == 401;
     }
 
@@ -412,53 +232,21 @@ public class ApiRequestBuilder {
      * @return The response from the API.
      */
     public static Response requestGetCallUsingInvalidHeader(String endpoint, String service) {
-        String username = "";
-        String password = "";
-
-        // Determine credentials based on the service
-        switch (service.toUpperCase()) {
-            case "ERX":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_ERX_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_ERX_PASSWORD);
-                break;
-            case "CHC":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_CHC_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_CHC_PASSWORD);
-                break;
-            case "CHART":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_CHART_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_CHART_PASSWORD);
-                break;
-            case "CODING":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_CODING_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_CODING_PASSWORD);
-                break;
-            case "ACTOR":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_ACTOR_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_ACTOR_PASSWORD);
-                break;
-            case "DOCUMENT":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_DOCUMENT_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_DOCUMENT_PASSWORD);
-                break;
-            case "LAB":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_LAB_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_LAB_PASSWORD);
-                break;
-            case "JOB":
-                username = PropertyUtils.getValue(ConfigProperties.OPEN_JOB_USERNAME);
-                password = PropertyUtils.getValue(ConfigProperties.OPEN_JOB_PASSWORD);
-                break;
-            default:
-                log(INFO, "Invalid service type provided: " + service);
-                ExtentLogger.log("Invalid service type provided: " + service);
-                // Return null or throw an exception for invalid service?
-                // For now, it will proceed with empty username/password if service is invalid.
-                break;
+        RequestSpecification request;
+        ServiceType serviceType = null;
+        try {
+            serviceType = ServiceType.valueOf(service.toUpperCase());
+            request = ServiceSpecCache.newRequest(serviceType);
+        } catch (IllegalArgumentException e) {
+            log(INFO, "Invalid service type provided: " + service);
+            ExtentLogger.log("Invalid service type provided: " + service);
+            // Proceed with empty credentials if the service is invalid.
+            request = given()
+                    .config(ServiceClientRegistry.getConfigForEndpoint(endpoint))
+                    .auth().preemptive().basic("", "");
         }
 
-        Response response = given()
-                .auth().preemptive().basic(username, password)
+        Response response = request
                 .header("X-Custom-Invalid-Header", "unexpectedValue")
                 .header("Content-Type", "application/unknown")
                 .when()
@@ -466,16 +254,71 @@ public class ApiRequestBuilder {
                 .then()
                 .extract()
                 .response();
+        logResponse(serviceType, response);
+        return response;
+    }
 
-        log(INFO, "Received response with status code: " + response.getStatusCode());
-        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
-        log(INFO, "Response Time : " + response.getTime() + " (ms)");
-        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
+    /**
+     * Sends a request to a service using its cached specification from {@link ServiceSpecCache},
+     * then logs the status code, response time and (if enabled) the response body.
+     * The call latency is recorded per endpoint template in {@link LatencyRecorder}; calls that throw
+     * or return a 5xx status count as errors.
+     *
+     * @param service  The target service.
+     * @param method   The HTTP method.
+     * @param endpoint The API endpoint to hit.
+     * @return The response from the API.
+     */
+    static Response send(ServiceType service, Method method, String endpoint) {
+        return send(service, method, endpoint, 0);
+    }
 
-        if (PropertyUtils.getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
-            ExtentLogger.logPrettyJsonResponseToReport(response);
+    /**
+     * Same as {@link #send(ServiceType, Method, String)}, with connect and socket timeouts of {@code timeoutMs}
+     * rounded up to a fixed bucket (see {@link ServiceClientRegistry#getConfig(ServiceType, long)}).
+     *
+     * @param service   The target service.
+     * @param method    The HTTP method.
+     * @param endpoint  The API endpoint to hit.
+     * @param timeoutMs The longest the request may wait on the server; 0 for the configured timeouts.
+     * @return The response from the API.
+     */
+    static Response send(ServiceType service, Method method, String endpoint, long timeoutMs) {
+        long start = System.nanoTime();
+        Response response;
+        try {
+            RequestSpecification request = ServiceSpecCache.newRequest(service);
+            if (timeoutMs > 0) {
+                request.config(ServiceClientRegistry.getConfig(service, timeoutMs));
+            }
+            response = request
+                    .when()
+                    .request(method, endpoint)
+                    .then()
+                    .extract()
+                    .response();
+        } catch (RuntimeException e) {
+            LatencyRecorder.record(service.name(), method.name(), endpoint, start, System.nanoTime(), true);
+            throw e;
         }
-
+        LatencyRecorder.record(service.name(), method.name(), endpoint, start, System.nanoTime(), response.getStatusCode() >= 500);
+        logResponse(service, response);
         return response;
     }
+
+    /**
+     * Logs the status code and response time, and the body (if enabled) within the capture limit of the service.
+     *
+     * @param service  The service that returned the response, or {@code null} if it is not known.
+     * @param response The response to log.
+     */
+    private static void logResponse(ServiceType service, Response response) {
+        log(INFO, () -> "Received response with status code: " + response.getStatusCode());
+        ExtentLogger.log("Received response with status code: " + response.getStatusCode());
+        log(INFO, () -> "Response Time : " + response.getTime() + " (ms)");
+        ExtentLogger.log("Response Time : " + response.getTime() + " (ms)");
+        if (getValue(ConfigProperties.LOG_RESPONSE).equalsIgnoreCase("Yes")) {
+            ExtentLogger.logPrettyJsonResponseToReport(response, service);
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package org.op_ra.requestbuilder;
 
 import io.restassured.response.Response;
+import org.op_ra.metrics.LatencySlo;
+import org.op_ra.metrics.LatencyWindow;
 import org.testng.Assert; // Using TestNG Assertions
 
 /**
@@ -18,6 +20,8 @@ import org.testng.Assert; // Using TestNG Assertions
  * AssertionUtils.assertStatusCode(response, 200);
  * AssertionUtils.assertContentType(response, "application/json");
  * AssertionUtils.assertResponseBodyContains(response, "expectedValue");
+ * AssertionUtils.assertLatencyPercentile("GET", "/erx/drug/search_drug_detail", 95, 300, 500);
+ * AssertionUtils.assertSlo("GET /erx/drug/search_drug_detail error_rate < 0.5% over 500");
  * }</pre>
  */
 public final class AssertionUtils {
@@ -44,7 +48,7 @@ public final class AssertionUtils {
             org.op_ra.reports.ExtentLogger.pass("Assertion PASSED: Status code is " + expectedStatusCode);
         } catch (AssertionError e) {
             org.op_ra.reports.ExtentLogger.fail("Assertion FAILED: Status code mismatch. Expected: " + expectedStatusCode + ", Actual: " + actualStatusCode);
-            org.op_ra.reports.ExtentLogger.fail("Response Body: <pre>" + response.getBody().asPrettyString() + "</pre>");
+            org.op_ra.reports.ExtentLogger.failResponseBody(response);
             throw e; // Re-throw the assertion error to mark the test as failed
         }
     }
@@ -84,7 +88,7 @@ public final class AssertionUtils {
             org.op_ra.reports.ExtentLogger.pass("Assertion PASSED: Response body contains text: '" + expectedText + "'");
         } catch (AssertionError e) {
             org.op_ra.reports.ExtentLogger.fail("Assertion FAILED: Response body does not contain the expected text: '" + expectedText + "'");
-            org.op_ra.reports.ExtentLogger.fail("Response Body: <pre>" + response.getBody().asPrettyString() + "</pre>");
+            org.op_ra.reports.ExtentLogger.failResponseBody(response);
             throw e;
         }
     }
@@ -106,11 +110,11 @@ public final class AssertionUtils {
             org.op_ra.reports.ExtentLogger.pass("Assertion PASSED: JSONPath '" + jsonPath + "' has value: '" + expectedValue + "'");
         } catch (AssertionError e) {
             org.op_ra.reports.ExtentLogger.fail("Assertion FAILED: JSONPath value mismatch for path: '" + jsonPath + "'. Expected: '" + expectedValue + "', Actual: '" + actualValue + "'");
-            org.op_ra.reports.ExtentLogger.fail("Response Body: <pre>" + response.getBody().asPrettyString() + "</pre>");
+            org.op_ra.reports.ExtentLogger.failResponseBody(response);
             throw e;
         } catch (Exception ex) { // Catch potential exceptions from jsonPath().get() if path is invalid or body not JSON
              org.op_ra.reports.ExtentLogger.fail("Assertion FAILED: Error evaluating JSONPath '" + jsonPath + "'. Error: " + ex.getMessage());
-             org.op_ra.reports.ExtentLogger.fail("Response Body: <pre>" + response.getBody().asPrettyString() + "</pre>");
+             org.op_ra.reports.ExtentLogger.failResponseBody(response);
             throw new AssertionError("Error evaluating JSONPath '" + jsonPath + "': " + ex.getMessage(), ex);
         }
     }
@@ -135,8 +139,58 @@ public final class AssertionUtils {
         }
     }
 
+    /**
+     * Asserts a latency percentile over the most recent calls of an endpoint, as recorded by
+     * {@link org.op_ra.metrics.LatencyRecorder} for every request sent through {@link ApiRequestBuilder}.
+     * On failure the latency histogram of the window is attached to the report.
+     *
+     * @param method     The HTTP method, or {@code null} for any.
+     * @param endpoint   The endpoint path or template, e.g. "/erx/drug/search_drug_detail".
+     * @param percentile The percentile, e.g. 95.
+     * @param maxMillis  The exclusive upper bound for that percentile in milliseconds.
+     * @param lastCalls  The number of most recent calls to evaluate.
+     */
+    public static void assertLatencyPercentile(String method, String endpoint, double percentile, double maxMillis, int lastCalls) {
+        assertSlo(LatencySlo.percentile(method, endpoint, percentile, maxMillis, lastCalls));
+    }
+
+    /**
+     * Asserts the error rate (exceptions and 5xx responses) over the most recent calls of an endpoint.
+     * On failure the latency histogram of the window is attached to the report.
+     *
+     * @param method              The HTTP method, or {@code null} for any.
+     * @param endpoint            The endpoint path or template.
+     * @param maxErrorRatePercent The exclusive upper bound for the error rate, in percent (e.g. 0.5).
+     * @param lastCalls           The number of most recent calls to evaluate.
+     */
+    public static void assertErrorRate(String method, String endpoint, double maxErrorRatePercent, int lastCalls) {
+        assertSlo(LatencySlo.errorRate(method, endpoint, maxErrorRatePercent, lastCalls));
+    }
+
+    /**
+     * Asserts an SLO written as a spec string, e.g. {@code "GET /erx/drug/search_drug_detail p95 < 300ms over 500"}.
+     * This is also how the {@code slo} attribute of {@link org.op_ra.annotations.FrameworkAnnotation} is evaluated.
+     *
+     * @param spec The SLO spec; see {@link LatencySlo} for the format.
+     */
+    public static void assertSlo(String spec) {
+        assertSlo(LatencySlo.parse(spec));
+    }
+
+    private static void assertSlo(LatencySlo slo) {
+        LatencyWindow window = slo.getWindow();
+        String description = slo.describe(window);
+        try {
+            Assert.assertTrue(slo.isMet(window), "SLO not met: " + description);
+            org.op_ra.reports.ExtentLogger.pass("Assertion PASSED: SLO met: " + description);
+        } catch (AssertionError e) {
+            org.op_ra.reports.ExtentLogger.fail("Assertion FAILED: SLO not met: " + description);
+            org.op_ra.reports.ExtentLogger.fail("Latency histogram: <pre>" + window.getHistogram().toPercentileDistribution() + "</pre>");
+            throw e;
+        }
+    }
+
     // Add more assertion methods as needed, for example:
-    // - Asserting response time is within a limit
     // - Asserting JSON schema validity
     // - Asserting array sizes or specific elements in JSON arrays
 }
@@ -0,0 +1,281 @@
+package org.op_ra.requestbuilder;
+
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.ServiceType;
+import org.op_ra.reports.ExtentReport;
+import org.op_ra.utils.PropertyUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Non-blocking counterpart of {@link ApiRequestBuilder}, obtained with {@link ApiRequestBuilder#async()}.
+ * <p>
+ * Each method submits the same request {@link ApiRequestBuilder} would send (cached service specification,
+ * pooled client, status/response-time logging and Extent reporting) to a bounded executor and returns a
+ * {@link CompletableFuture}. Extent logs are attributed to the test that issued the call, via
+ * {@link ExtentReport#withCurrentTest(java.util.function.Supplier)}.
+ * </p>
+ * Fan-out example:
+ * <pre>{@code
+ * CompletableFuture<Response> drugs = ApiRequestBuilder.async().getErxServiceResponse(drugSearchUrl);
+ * CompletableFuture<Response> labs = ApiRequestBuilder.async().withDeadline(Duration.ofSeconds(5)).getLabServiceResponse(labUrl);
+ * List<Response> responses = AsyncApiRequestBuilder.allOf(drugs, labs).join();
+ * }</pre>
+ * The executor size and queue capacity come from {@link ConfigProperties#ASYNC_POOL_SIZE} and
+ * {@link ConfigProperties#ASYNC_QUEUE_CAPACITY}. When the queue is full the calling thread runs the request
+ * itself, which throttles producers instead of rejecting work; a request submitted while the executor is shutting
+ * down completes exceptionally with a {@link RejectedExecutionException}.
+ * {@link ConfigProperties#ASYNC_DEFAULT_TIMEOUT_MS} sets the deadline applied when none is given explicitly
+ * (0 = none). A request past its deadline is cancelled, which frees its executor slot, and its connect and socket
+ * timeouts are capped at the deadline, which frees its connection.
+ */
+public final class AsyncApiRequestBuilder {
+
+    static final AsyncApiRequestBuilder INSTANCE = new AsyncApiRequestBuilder(null);
+
+    private static volatile ThreadPoolExecutor executor;
+
+    private final Duration deadline;
+
+    private AsyncApiRequestBuilder(Duration deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Returns a view of this builder whose futures complete exceptionally with a
+     * {@link java.util.concurrent.TimeoutException} if the response has not arrived within {@code deadline}.
+     *
+     * @param deadline The maximum time to wait for each request issued through the returned builder.
+     * @return A builder applying the given deadline.
+     */
+    public AsyncApiRequestBuilder withDeadline(Duration deadline) {
+        return new AsyncApiRequestBuilder(Objects.requireNonNull(deadline, "deadline"));
+    }
+
+    /**
+     * Sends a GET request to the Actor service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getActorServiceResponse(String endpoint) {
+        return submit(ServiceType.ACTOR, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a GET request to the Chart service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getChartServiceResponse(String endpoint) {
+        return submit(ServiceType.CHART, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a GET request to the CHC service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getChcServiceResponse(String endpoint) {
+        return submit(ServiceType.CHC, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a GET request to the Document service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getDocumentServiceResponse(String endpoint) {
+        return submit(ServiceType.DOCUMENT, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a GET request to the Erx service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getErxServiceResponse(String endpoint) {
+        return submit(ServiceType.ERX, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a GET request to the Lab service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getLabServiceResponse(String endpoint) {
+        return submit(ServiceType.LAB, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a GET request to the Job service asynchronously.
+     *
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> getJobServiceResponse(String endpoint) {
+        return submit(ServiceType.JOB, Method.GET, endpoint);
+    }
+
+    /**
+     * Sends a POST request to the given service asynchronously.
+     *
+     * @param service  The target service.
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> postService(ServiceType service, String endpoint) {
+        return submit(service, Method.POST, endpoint);
+    }
+
+    /**
+     * Sends a PUT request to the given service asynchronously.
+     *
+     * @param service  The target service.
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> putService(ServiceType service, String endpoint) {
+        return submit(service, Method.PUT, endpoint);
+    }
+
+    /**
+     * Sends a request with any HTTP method to the given service asynchronously.
+     *
+     * @param service  The target service.
+     * @param method   The HTTP method.
+     * @param endpoint The API endpoint to hit.
+     * @return A future completed with the response from the API.
+     */
+    public CompletableFuture<Response> submit(ServiceType service, Method method, String endpoint) {
+        long timeoutMs = Objects.nonNull(deadline) ? deadline.toMillis()
+                : PropertyUtils.getLongOrDefault(ConfigProperties.ASYNC_DEFAULT_TIMEOUT_MS, 0);
+        Supplier<Response> call = ExtentReport.withCurrentTest(() -> ApiRequestBuilder.send(service, method, endpoint, timeoutMs));
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = getExecutor().submit(() -> {
+                try {
+                    future.complete(call.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            return future;
+        }
+        // A request given up by its deadline (or cancelled by the caller) is cancelled too, so it does not hold
+        // an executor thread or queue slot
+        future.whenComplete((response, failure) -> {
+            if (Objects.nonNull(failure)) {
+                task.cancel(true);
+            }
+        });
+        return timeoutMs > 0 ? future.orTimeout(timeoutMs, TimeUnit.MILLISECONDS) : future;
+    }
+
+    /**
+     * Waits for all the given requests and returns their responses in argument order.
+     * The returned future fails as soon as any request fails (including by deadline).
+     *
+     * @param futures The in-flight requests.
+     * @return A future completed with all responses.
+     */
+    @SafeVarargs
+    public static CompletableFuture<List<Response>> allOf(CompletableFuture<Response>... futures) {
+        // Copied element by element: handing the generic varargs array to another method is reported by
+        // -Xlint:varargs as possible heap pollution
+        List<CompletableFuture<Response>> all = new ArrayList<>(futures.length);
+        for (CompletableFuture<Response> future : futures) {
+            all.add(future);
+        }
+        return CompletableFuture.allOf(all.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> all.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns the response of whichever of the given requests completes first.
+     *
+     * @param futures The in-flight requests.
+     * @return A future completed with the first response (or failure).
+     */
+    @SafeVarargs
+    public static CompletableFuture<Response> anyOf(CompletableFuture<Response>... futures) {
+        CompletableFuture<?>[] any = new CompletableFuture<?>[futures.length];
+        for (int i = 0; i < futures.length; i++) {
+            any[i] = futures[i]; // Copied for the same reason as in allOf
+        }
+        return CompletableFuture.anyOf(any).thenApply(Response.class::cast);
+    }
+
+    /**
+     * Stops the request executor, waiting briefly for in-flight requests. Called at suite end.
+     */
+    public static synchronized void shutdown() {
+        if (Objects.nonNull(executor)) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executor = null;
+        }
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        ThreadPoolExecutor current = executor;
+        if (Objects.nonNull(current)) {
+            return current;
+        }
+        synchronized (AsyncApiRequestBuilder.class) {
+            if (Objects.isNull(executor)) {
+                int poolSize = (int) PropertyUtils.getLongOrDefault(ConfigProperties.ASYNC_POOL_SIZE, 16);
+                int queueCapacity = (int) PropertyUtils.getLongOrDefault(ConfigProperties.ASYNC_QUEUE_CAPACITY, 256);
+                AtomicInteger threadNumber = new AtomicInteger();
+                executor = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity),
+                        runnable -> {
+                            Thread thread = new Thread(runnable, "async-request-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        },
+                        AsyncApiRequestBuilder::runOnCaller);
+                executor.allowCoreThreadTimeOut(true);
+            }
+            return executor;
+        }
+    }
+
+    /**
+     * Runs a request the full queue has no room for on the submitting thread. Once the executor is shut down the
+     * request is rejected instead of being dropped, as {@link ThreadPoolExecutor.CallerRunsPolicy} would, so its
+     * future does not stay incomplete.
+     */
+    private static void runOnCaller(Runnable request, ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Async request executor is shut down");
+        }
+        request.run();
+    }
+}
@@ -1,10 +1,15 @@
 package org.op_ra.requestbuilder;
 
+import io.restassured.RestAssured;
+import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 // Assuming other necessary imports like PropertyUtils for credentials, ConfigProperties enum.
 import org.op_ra.enums.ConfigProperties;
 import org.op_ra.utils.PropertyUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
 /**
  * Manages different types of authorization for API requests.
  * This class provides static methods to apply common authentication mechanisms
@@ -26,6 +31,11 @@ import org.op_ra.utils.PropertyUtils;
  */
 public final class AuthorizationManager {
 
+    // Refresh the OAuth token this long before it actually expires.
+    private static final long TOKEN_REFRESH_MARGIN_MS = 60_000;
+    private static String oauthToken;
+    private static long oauthTokenExpiresAt;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -118,13 +128,94 @@ public final class AuthorizationManager {
         return requestSpec.queryParam(apiKeyQueryParamName, apiKeyValue);
     }
 
-    // TODO: Add methods for other common authorization types like OAuth2 (more complex, might involve token fetching)
-    // Example for OAuth2 (conceptual - would require a token management strategy):
-    // public static RequestSpecification setOAuth2(RequestSpecification requestSpec, String token) {
-    //     if (token == null || token.trim().isEmpty()) {
-    //         // Fetch token logic here if not provided, or throw error
-    //         throw new IllegalArgumentException("OAuth2 token cannot be null or empty.");
-    //     }
-    //     return requestSpec.auth().oauth2(token);
-    // }
+    /**
+     * Applies Basic Authentication as a pre-encoded {@code Authorization} header.
+     * <p>
+     * Unlike {@link #setBasicAuth(RequestSpecification, String, String)}, the Base64 encoding is done once here,
+     * so a specification built with this method can be reused for many requests without re-encoding credentials.
+     * </p>
+     *
+     * @param requestSpec The {@link RequestSpecification} to which Basic Auth will be applied.
+     * @param username    The username for Basic Authentication.
+     * @param password    The password for Basic Authentication.
+     * @return The same {@link RequestSpecification} with the {@code Authorization} header set.
+     */
+    public static RequestSpecification setPreEncodedBasicAuth(RequestSpecification requestSpec,
+                                                              String username,
+                                                              String password) {
+        if (username == null || password == null) {
+            throw new IllegalArgumentException("Username or Password cannot be null for Basic Auth.");
+        }
+        String encoded = Base64.getEncoder().encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+        return requestSpec.header("Authorization", "Basic " + encoded);
+    }
+
+    /**
+     * Applies OAuth 2.0 authentication using the client-credentials access token from {@link #getOAuthAccessToken()}.
+     * The header prefix is taken from {@link ConfigProperties#AUTH_PREFIX} (default "Bearer").
+     *
+     * @param requestSpec The {@link RequestSpecification} to which the access token will be applied.
+     * @return The same {@link RequestSpecification} with the {@code Authorization} header set.
+     */
+    public static RequestSpecification setOAuth2(RequestSpecification requestSpec) {
+        String prefix = PropertyUtils.getValueOrDefault(ConfigProperties.AUTH_PREFIX, "Bearer");
+        return requestSpec.header("Authorization", prefix + " " + getOAuthAccessToken());
+    }
+
+    /**
+     * Returns an OAuth 2.0 access token obtained with the client-credentials grant from
+     * {@link ConfigProperties#ACCESS_TOKEN_URL}, using {@link ConfigProperties#CLIENT_ID},
+     * {@link ConfigProperties#CLIENT_SECRET} and, when configured, {@link ConfigProperties#AUDIENCE} and {@link ConfigProperties#SCOPE}.
+     * <p>
+     * The token is cached and only re-fetched shortly before it expires (per the {@code expires_in} of the token response).
+     * </p>
+     *
+     * @return The current access token.
+     * @throws RuntimeException if the token endpoint does not return an access token.
+     */
+    public static synchronized String getOAuthAccessToken() {
+        if (oauthToken != null && System.currentTimeMillis() < oauthTokenExpiresAt) {
+            return oauthToken;
+        }
+        RequestSpecification tokenRequest = RestAssured.given()
+                .formParam("grant_type", "client_credentials")
+                .formParam("client_id", PropertyUtils.getValue(ConfigProperties.CLIENT_ID))
+                .formParam("client_secret", PropertyUtils.getValue(ConfigProperties.CLIENT_SECRET));
+        String audience = PropertyUtils.getValueOrDefault(ConfigProperties.AUDIENCE, null);
+        if (audience != null) {
+            tokenRequest.formParam("audience", audience);
+        }
+        String scope = PropertyUtils.getValueOrDefault(ConfigProperties.SCOPE, null);
+        if (scope != null) {
+            tokenRequest.formParam("scope", scope);
+        }
+        Response response = tokenRequest.post(PropertyUtils.getValue(ConfigProperties.ACCESS_TOKEN_URL));
+        String token = response.jsonPath().getString("access_token");
+        if (token == null || token.trim().isEmpty()) {
+            throw new RuntimeException("OAuth token endpoint returned no access_token. Status: " + response.getStatusCode());
+        }
+        long lifetimeMs = expiresInSeconds(response.jsonPath().get("expires_in")) * 1000L;
+        oauthToken = token;
+        oauthTokenExpiresAt = System.currentTimeMillis() + lifetimeMs - Math.min(TOKEN_REFRESH_MARGIN_MS, lifetimeMs / 2);
+        return oauthToken;
+    }
+
+    /**
+     * Reads the {@code expires_in} of a token response, which may be missing, a number or a numeric string.
+     *
+     * @return The token lifetime in seconds, or 3600 when it is missing, not a number or not positive.
+     */
+    private static long expiresInSeconds(Object expiresIn) {
+        long seconds = 0;
+        if (expiresIn instanceof Number) {
+            seconds = ((Number) expiresIn).longValue();
+        } else if (expiresIn instanceof String) {
+            try {
+                seconds = Long.parseLong(((String) expiresIn).trim());
+            } catch (NumberFormatException ignored) {
+                // Falls back to the default lifetime
+            }
+        }
+        return seconds > 0 ? seconds : 3600;
+    }
 }
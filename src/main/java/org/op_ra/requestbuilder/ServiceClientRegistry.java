@@ -0,0 +1,338 @@
+package org.op_ra.requestbuilder;
+
+import io.restassured.config.HttpClientConfig;
+import io.restassured.config.RestAssuredConfig;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.scheme.PlainSocketFactory;
+import org.apache.http.conn.scheme.Scheme;
+import org.apache.http.conn.scheme.SchemeRegistry;
+import org.apache.http.conn.ssl.SSLSocketFactory;
+import org.apache.http.entity.BufferedHttpEntity;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpClient;
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.apache.http.params.BasicHttpParams;
+import org.apache.http.params.HttpConnectionParams;
+import org.apache.http.params.HttpParams;
+import org.apache.http.protocol.HttpContext;
+import org.apache.http.ssl.SSLContexts;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.ServiceType;
+import org.op_ra.utils.PropertyUtils;
+
+import javax.net.ssl.SSLContext;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.op_ra.enums.LogType.DEBUG;
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Registry of pooled HTTP clients, one per service host.
+ * <p>
+ * RestAssured creates (and tears down) a new Apache HttpClient for every request by default, so each call
+ * pays for a TCP connect and a full TLS handshake. This registry builds one keep-alive client per host
+ * (scheme, host and port of a service base URL), backed by a {@link PoolingClientConnectionManager} sized from
+ * configuration, and hands out a {@link RestAssuredConfig} that makes RestAssured reuse that client.
+ * </p>
+ * <ul>
+ *     <li>Services whose base URLs point at the same host (e.g. ACTOR and CHART) share one client and pool, so
+ *     the connection limits apply to the host they all load.</li>
+ *     <li>A single {@link SSLContext} is shared by all pools, so TLS sessions are resumed instead of renegotiated.</li>
+ *     <li>A daemon thread evicts expired and idle connections so stale sockets are not handed out.</li>
+ * </ul>
+ * Tuning keys (all optional): {@link ConfigProperties#HTTP_MAX_CONNECTIONS_TOTAL},
+ * {@link ConfigProperties#HTTP_MAX_CONNECTIONS_PER_ROUTE}, {@link ConfigProperties#HTTP_KEEP_ALIVE_MS},
+ * {@link ConfigProperties#HTTP_IDLE_EVICTION_SECONDS}, {@link ConfigProperties#HTTP_CONNECTION_TTL_SECONDS},
+ * {@link ConfigProperties#HTTP_CONNECT_TIMEOUT_MS} and {@link ConfigProperties#HTTP_SOCKET_TIMEOUT_MS}.
+ * <p>
+ * Pools are created lazily on first use and released by {@link #shutdown()}, which is called at suite end.
+ * </p>
+ */
+// RestAssured 5 hands the client to its HTTPBuilder as an AbstractHttpClient, so the pre-4.3 HttpClient API
+// (DefaultHttpClient, PoolingClientConnectionManager, HttpParams) is the only one it can use; clients built with
+// HttpClientBuilder fail with a ClassCastException.
+@SuppressWarnings("deprecation")
+public final class ServiceClientRegistry {
+
+    // Keyed by host (scheme://host:port)
+    private static final Map<String, PoolingClientConnectionManager> POOLS = new ConcurrentHashMap<>();
+    private static final Map<String, RestAssuredConfig> CONFIGS = new ConcurrentHashMap<>();
+    // Keyed by host and timeout bucket: same pool, shorter timeouts (see getConfig(ServiceType, long))
+    private static final Map<String, RestAssuredConfig> TIMEOUT_CONFIGS = new ConcurrentHashMap<>();
+    // Timeouts are rounded up to one of these, so at most this many extra configs are kept per host
+    private static final long[] TIMEOUT_BUCKETS_MS = {250, 500, 1_000, 2_000, 5_000, 10_000, 30_000, 60_000};
+    private static volatile PoolingClientConnectionManager defaultPool;
+    private static volatile RestAssuredConfig defaultConfig;
+    private static volatile SSLContext sslContext;
+    private static volatile ScheduledExecutorService evictor;
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ServiceClientRegistry() {
+        // Private constructor
+    }
+
+    /**
+     * Returns the {@link RestAssuredConfig} bound to the pooled client of the host of the given service.
+     * Intended to be passed to {@code given().config(...)}.
+     *
+     * @param service The service the request is addressed to.
+     * @return A config that makes RestAssured reuse the pooled client of the host of {@code service}.
+     */
+    public static RestAssuredConfig getConfig(ServiceType service) {
+        String host = hostKey(PropertyUtils.getValueOrDefault(service.getBaseUrlKey(), null));
+        return Objects.nonNull(host) ? getHostConfig(host) : getDefaultConfig();
+    }
+
+    /**
+     * Returns a config sharing the pool of {@link #getConfig(ServiceType)} whose connect and socket timeouts are
+     * {@code timeoutMs} rounded up to the next of 0.25, 0.5, 1, 2, 5, 10, 30 or 60 seconds, so a request given up
+     * after that time does not keep its thread and connection blocked on a silent server for the full
+     * {@link ConfigProperties#HTTP_SOCKET_TIMEOUT_MS}. Rounding keeps the number of clients per host fixed however
+     * many different timeouts callers pass; the caller still gives up at {@code timeoutMs}.
+     *
+     * @param service   The service the request is addressed to.
+     * @param timeoutMs The longest the request may take; 0 or less for the configured timeouts.
+     * @return A config that makes RestAssured reuse the pooled connections of the host of {@code service}.
+     */
+    public static RestAssuredConfig getConfig(ServiceType service, long timeoutMs) {
+        RestAssuredConfig config = getConfig(service);
+        long bucketMs = timeoutBucket(timeoutMs);
+        if (bucketMs >= Math.max(PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_CONNECT_TIMEOUT_MS, 10_000),
+                PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_SOCKET_TIMEOUT_MS, 60_000))) {
+            return config; // No shorter than the configured timeouts
+        }
+        String host = hostKey(PropertyUtils.getValueOrDefault(service.getBaseUrlKey(), null));
+        PoolingClientConnectionManager pool = Objects.nonNull(host) ? POOLS.get(host) : defaultPool;
+        if (Objects.isNull(pool)) {
+            return config; // Shut down meanwhile
+        }
+        return TIMEOUT_CONFIGS.computeIfAbsent((Objects.nonNull(host) ? host : "DEFAULT") + "|" + bucketMs,
+                key -> toRestAssuredConfig(pool, bucketMs));
+    }
+
+    /**
+     * Rounds a timeout up to one of {@link #TIMEOUT_BUCKETS_MS}.
+     *
+     * @return The bucket, or {@link Long#MAX_VALUE} for 0 or less and for timeouts above the largest bucket.
+     */
+    private static long timeoutBucket(long timeoutMs) {
+        if (timeoutMs > 0) {
+            for (long bucketMs : TIMEOUT_BUCKETS_MS) {
+                if (timeoutMs <= bucketMs) {
+                    return bucketMs;
+                }
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the pooled config of the host of the given endpoint, when that host serves one of the configured
+     * services. Prefer {@link #getConfig(ServiceType)} when the service is known.
+     * Endpoints on any other host share a default pool.
+     *
+     * @param endpoint The absolute request URL.
+     * @return The pooled {@link RestAssuredConfig} to use for {@code endpoint}.
+     */
+    public static RestAssuredConfig getConfigForEndpoint(String endpoint) {
+        String host = hostKey(endpoint);
+        if (Objects.nonNull(host)) {
+            for (ServiceType service : ServiceType.values()) {
+                if (host.equals(hostKey(PropertyUtils.getValueOrDefault(service.getBaseUrlKey(), null)))) {
+                    return getHostConfig(host);
+                }
+            }
+        }
+        return getDefaultConfig();
+    }
+
+    /**
+     * Returns a snapshot of the pool statistics (leased, available, pending) for every created pool.
+     *
+     * @return A map of host to the pool's total stats, as formatted by HttpClient.
+     */
+    public static Map<String, String> getPoolStats() {
+        Map<String, String> stats = new ConcurrentHashMap<>();
+        POOLS.forEach((host, pool) -> stats.put(host, pool.getTotalStats().toString()));
+        if (Objects.nonNull(defaultPool)) {
+            stats.put("DEFAULT", defaultPool.getTotalStats().toString());
+        }
+        return stats;
+    }
+
+    /**
+     * Closes every pooled connection and stops the idle-connection evictor, and drops the specifications of
+     * {@link ServiceSpecCache}, which hold the configs of the closed pools.
+     * Subsequent calls to {@link #getConfig(ServiceType)} rebuild the pools on demand.
+     */
+    public static synchronized void shutdown() {
+        ServiceSpecCache.clear();
+        if (Objects.nonNull(evictor)) {
+            evictor.shutdownNow();
+            evictor = null;
+        }
+        POOLS.values().forEach(PoolingClientConnectionManager::shutdown);
+        POOLS.clear();
+        CONFIGS.clear();
+        TIMEOUT_CONFIGS.clear();
+        if (Objects.nonNull(defaultPool)) {
+            defaultPool.shutdown();
+            defaultPool = null;
+            defaultConfig = null;
+        }
+        log(DEBUG, "HTTP client pools shut down.");
+    }
+
+    private static synchronized RestAssuredConfig getDefaultConfig() {
+        if (Objects.isNull(defaultConfig)) {
+            defaultPool = createPool(null);
+            defaultConfig = toRestAssuredConfig(defaultPool, Long.MAX_VALUE);
+        }
+        return defaultConfig;
+    }
+
+    private static RestAssuredConfig getHostConfig(String host) {
+        return CONFIGS.computeIfAbsent(host, ServiceClientRegistry::createConfig);
+    }
+
+    private static RestAssuredConfig createConfig(String host) {
+        PoolingClientConnectionManager pool = createPool(host);
+        POOLS.put(host, pool);
+        log(INFO, "Created pooled HTTP client for " + host + " (" + pool.getMaxTotal() + " max connections)");
+        return toRestAssuredConfig(pool, Long.MAX_VALUE);
+    }
+
+    /**
+     * Reduces a URL to the part that identifies its connection pool.
+     *
+     * @param url An absolute URL, possibly with surrounding whitespace.
+     * @return {@code scheme://host:port} with the default port filled in, or {@code null} if the URL has no host.
+     */
+    private static String hostKey(String url) {
+        if (Objects.isNull(url) || url.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (Objects.isNull(uri.getScheme()) || Objects.isNull(uri.getHost())) {
+                return null;
+            }
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            int port = uri.getPort() != -1 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+            return scheme + "://" + uri.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static PoolingClientConnectionManager createPool(String host) {
+        long ttlSeconds = PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_CONNECTION_TTL_SECONDS, 300);
+        int maxTotal = (int) PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_MAX_CONNECTIONS_TOTAL, 50);
+        int maxPerRoute = (int) PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_MAX_CONNECTIONS_PER_ROUTE, 20);
+
+        PoolingClientConnectionManager pool = new PoolingClientConnectionManager(schemeRegistry(), ttlSeconds, TimeUnit.SECONDS);
+        pool.setMaxTotal(maxTotal);
+        pool.setDefaultMaxPerRoute(maxPerRoute);
+        if (Objects.nonNull(host)) {
+            URI uri = URI.create(host);
+            boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+            int port = uri.getPort() != -1 ? uri.getPort() : (secure ? 443 : 80);
+            pool.setMaxPerRoute(new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure), maxPerRoute);
+        }
+        startEvictor();
+        return pool;
+    }
+
+    private static RestAssuredConfig toRestAssuredConfig(PoolingClientConnectionManager pool, long maxTimeoutMs) {
+        HttpParams params = new BasicHttpParams();
+        HttpConnectionParams.setConnectionTimeout(params, (int) Math.min(maxTimeoutMs,
+                PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_CONNECT_TIMEOUT_MS, 10_000)));
+        HttpConnectionParams.setSoTimeout(params, (int) Math.min(maxTimeoutMs,
+                PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_SOCKET_TIMEOUT_MS, 60_000)));
+        HttpConnectionParams.setTcpNoDelay(params, true);
+
+        DefaultHttpClient client = new DefaultHttpClient(pool, params);
+        client.setKeepAliveStrategy(keepAliveStrategy());
+        // RestAssured only reads the body when it is used, and a pooled connection is released once its body has
+        // been read: buffered here, every response gives its connection back, whether or not the body is read
+        client.addResponseInterceptor((HttpResponse response, HttpContext context) -> {
+            HttpEntity entity = response.getEntity();
+            if (Objects.nonNull(entity) && entity.isStreaming()) {
+                response.setEntity(new BufferedHttpEntity(entity));
+            }
+        });
+        return RestAssuredConfig.config().httpClient(HttpClientConfig.httpClientConfig()
+                .httpClientFactory(() -> client)
+                .reuseHttpClientInstance());
+    }
+
+    /**
+     * Honours the server's {@code Keep-Alive} header and falls back to the configured keep-alive otherwise,
+     * instead of HttpClient's default of keeping connections forever.
+     */
+    private static ConnectionKeepAliveStrategy keepAliveStrategy() {
+        long fallbackMs = PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_KEEP_ALIVE_MS, 30_000);
+        return (HttpResponse response, HttpContext context) -> {
+            long serverMs = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverMs > 0 ? serverMs : fallbackMs;
+        };
+    }
+
+    private static SchemeRegistry schemeRegistry() {
+        SchemeRegistry registry = new SchemeRegistry();
+        registry.register(new Scheme("http", 80, PlainSocketFactory.getSocketFactory()));
+        registry.register(new Scheme("https", 443, new SSLSocketFactory(sharedSslContext(), SSLSocketFactory.BROWSER_COMPATIBLE_HOSTNAME_VERIFIER)));
+        return registry;
+    }
+
+    /**
+     * The JSSE client session cache lives in the {@link SSLContext}; sharing one context across all pools
+     * lets new connections resume an existing TLS session with an abbreviated handshake.
+     */
+    private static synchronized SSLContext sharedSslContext() {
+        if (Objects.isNull(sslContext)) {
+            sslContext = SSLContexts.createDefault();
+            sslContext.getClientSessionContext().setSessionTimeout(
+                    (int) PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_CONNECTION_TTL_SECONDS, 300));
+        }
+        return sslContext;
+    }
+
+    private static synchronized void startEvictor() {
+        if (Objects.nonNull(evictor)) {
+            return;
+        }
+        long idleSeconds = PropertyUtils.getLongOrDefault(ConfigProperties.HTTP_IDLE_EVICTION_SECONDS, 30);
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "http-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        evictor.scheduleWithFixedDelay(() -> {
+            POOLS.values().forEach(pool -> evict(pool, idleSeconds));
+            PoolingClientConnectionManager pool = defaultPool;
+            if (Objects.nonNull(pool)) {
+                evict(pool, idleSeconds);
+            }
+        }, idleSeconds, idleSeconds, TimeUnit.SECONDS);
+    }
+
+    private static void evict(PoolingClientConnectionManager pool, long idleSeconds) {
+        pool.closeExpiredConnections();
+        pool.closeIdleConnections(idleSeconds, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,177 @@
+package org.op_ra.requestbuilder;
+
+import io.restassured.RestAssured;
+import io.restassured.specification.RequestSpecification;
+import org.op_ra.enums.AuthType;
+import org.op_ra.enums.ConfigProperties;
+import org.op_ra.enums.ServiceType;
+import org.op_ra.utils.PropertyUtils;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Cache of pre-built {@link RequestSpecification}s, one per {@link ServiceType} and {@link AuthType}.
+ * <p>
+ * Each cached specification carries everything that is constant for a service: the pooled client config from
+ * {@link ServiceClientRegistry}, the base URI, the authentication applied through {@link AuthorizationManager}
+ * and the per-service {@code open_<service>_accept_header}, {@code open_<service>_content_type_header} and
+ * {@code open_<service>_organization_id_header} properties. Property lookups and Base64 encoding of credentials
+ * therefore happen once per suite instead of once per request.
+ * </p>
+ * <p>
+ * Cached specifications are never handed out directly. {@link #newRequest(ServiceType)} merges the cached one
+ * into a fresh {@code given()}, so callers can add request-specific details without affecting other requests.
+ * OAuth specifications are rebuilt when {@link AuthorizationManager#getOAuthAccessToken()} rotates the token.
+ * </p>
+ * Example:
+ * <pre>{@code
+ * Response response = ServiceSpecCache.newRequest(ServiceType.ERX).get(endpoint);
+ * }</pre>
+ */
+public final class ServiceSpecCache {
+
+    /** Header carrying the organization id on OPEN services. */
+    private static final String ORGANIZATION_ID_HEADER = "organizationId";
+
+    private static final Map<String, CachedSpec> SPECS = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private ServiceSpecCache() {
+        // Private constructor
+    }
+
+    /**
+     * Pre-builds the specifications of every service with a configured base URL for the configured
+     * {@code auth_type}. Called at suite start so the first test does not pay for it.
+     * Services that fail to build are logged and retried lazily on first use.
+     */
+    public static void init() {
+        AuthType authType = getConfiguredAuthType();
+        for (ServiceType service : ServiceType.values()) {
+            if (Objects.isNull(PropertyUtils.getValueOrDefault(service.getBaseUrlKey(), null))) {
+                continue;
+            }
+            try {
+                getSpec(service, authType);
+            } catch (RuntimeException e) {
+                log(WARN, "Could not pre-build request specification for " + service + ": " + e.getMessage());
+            }
+        }
+        log(INFO, "Request specifications cached for " + SPECS.size() + " service(s) using " + authType + " auth");
+    }
+
+    /**
+     * Returns a new request for the service, seeded from the cached specification of the configured auth type.
+     *
+     * @param service The target service.
+     * @return A fresh {@link RequestSpecification} that may be customised freely.
+     */
+    public static RequestSpecification newRequest(ServiceType service) {
+        return newRequest(service, getConfiguredAuthType());
+    }
+
+    /**
+     * Returns a new request for the service, seeded from the cached specification of the given auth type.
+     *
+     * @param service  The target service.
+     * @param authType The authentication scheme to apply.
+     * @return A fresh {@link RequestSpecification} that may be customised freely.
+     */
+    public static RequestSpecification newRequest(ServiceType service, AuthType authType) {
+        return RestAssured.given().spec(getSpec(service, authType));
+    }
+
+    /**
+     * Drops all cached specifications, e.g. after configuration or credentials change.
+     */
+    public static void clear() {
+        SPECS.clear();
+    }
+
+    /**
+     * @return The {@link AuthType} selected by the {@code auth_type} property (basic if unset).
+     */
+    public static AuthType getConfiguredAuthType() {
+        return AuthType.fromValue(PropertyUtils.getValueOrDefault(ConfigProperties.AUTH_TYPE, "basic"));
+    }
+
+    private static RequestSpecification getSpec(ServiceType service, AuthType authType) {
+        String key = service.name() + ":" + authType.name();
+        CachedSpec cached = SPECS.get(key);
+        if (Objects.isNull(cached) || isStale(cached)) {
+            cached = SPECS.compute(key, (k, current) ->
+                    Objects.nonNull(current) && !isStale(current) ? current : build(service, authType));
+        }
+        return cached.spec;
+    }
+
+    private static boolean isStale(CachedSpec cached) {
+        return cached.authType == AuthType.OAUTH
+                && !Objects.equals(cached.token, AuthorizationManager.getOAuthAccessToken());
+    }
+
+    private static CachedSpec build(ServiceType service, AuthType authType) {
+        RequestSpecification spec = RestAssured.given().config(ServiceClientRegistry.getConfig(service));
+        String baseUrl = PropertyUtils.getValueOrDefault(service.getBaseUrlKey(), null);
+        if (Objects.nonNull(baseUrl)) {
+            spec.baseUri(baseUrl);
+        }
+
+        String token = null;
+        switch (authType) {
+            case OAUTH:
+                token = AuthorizationManager.getOAuthAccessToken();
+                AuthorizationManager.setOAuth2(spec);
+                break;
+            case APIKEY:
+                AuthorizationManager.setApiKeyAuth(spec,
+                        PropertyUtils.getValueOrDefault(ConfigProperties.API_KEY_HEADER, "X-API-KEY"),
+                        PropertyUtils.getValue(ConfigProperties.API_KEY));
+                break;
+            case BASIC:
+            default:
+                AuthorizationManager.setPreEncodedBasicAuth(spec,
+                        PropertyUtils.getValue(service.getUsernameKey()),
+                        PropertyUtils.getValue(service.getPasswordKey()));
+                break;
+        }
+
+        String prefix = service.getPropertyPrefix();
+        String accept = PropertyUtils.getValueOrDefault(prefix + "_accept_header", null);
+        if (Objects.nonNull(accept)) {
+            spec.accept(accept);
+        }
+        String contentType = PropertyUtils.getValueOrDefault(prefix + "_content_type_header", null);
+        if (Objects.nonNull(contentType)) {
+            spec.contentType(contentType);
+        }
+        String organizationId = PropertyUtils.getValueOrDefault(prefix + "_organization_id_header", null);
+        if (Objects.nonNull(organizationId)) {
+            spec.header(ORGANIZATION_ID_HEADER, organizationId);
+        }
+        return new CachedSpec(spec, authType, token);
+    }
+
+    /**
+     * A built specification together with what it was built from.
+     */
+    private static final class CachedSpec {
+        private final RequestSpecification spec;
+        private final AuthType authType;
+        private final String token;
+
+        private CachedSpec(RequestSpecification spec, AuthType authType, String token) {
+            this.spec = spec;
+            this.authType = authType;
+            this.token = token;
+        }
+    }
+}
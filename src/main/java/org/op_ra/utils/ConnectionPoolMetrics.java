@@ -0,0 +1,110 @@
+package org.op_ra.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snapshot of the counters of a {@link JdbcConnectionPool}: how many connections are in use or idle,
+ * and how long borrowers had to wait for one.
+ */
+public final class ConnectionPoolMetrics {
+
+    private final int active;
+    private final int idle;
+    private final int total;
+    private final int maxSize;
+    private final long borrows;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long timeouts;
+    private final long leaks;
+
+    ConnectionPoolMetrics(int active, int idle, int total, int maxSize, long borrows,
+                          long totalWaitNanos, long maxWaitNanos, long timeouts, long leaks) {
+        this.active = active;
+        this.idle = idle;
+        this.total = total;
+        this.maxSize = maxSize;
+        this.borrows = borrows;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.timeouts = timeouts;
+        this.leaks = leaks;
+    }
+
+    /** @return Connections currently borrowed. */
+    public int getActive() {
+        return active;
+    }
+
+    /** @return Open connections waiting in the pool. */
+    public int getIdle() {
+        return idle;
+    }
+
+    /** @return Open connections, borrowed or idle. */
+    public int getTotal() {
+        return total;
+    }
+
+    /** @return Maximum number of open connections. */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return Successful borrows since the pool was created. */
+    public long getBorrows() {
+        return borrows;
+    }
+
+    /** @return Time spent by all borrowers waiting for a connection (including opening new ones), in milliseconds. */
+    public double getTotalWaitMs() {
+        return totalWaitNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** @return Mean wait per borrow in milliseconds. */
+    public double getMeanWaitMs() {
+        return borrows == 0 ? 0 : getTotalWaitMs() / borrows;
+    }
+
+    /** @return Longest single wait in milliseconds. */
+    public double getMaxWaitMs() {
+        return maxWaitNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /** @return Borrows that gave up after the connection timeout. */
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    /** @return Connections reported as possibly leaked. */
+    public long getLeaks() {
+        return leaks;
+    }
+
+    /** @return The counters by name, e.g. for JSON reports. */
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("active", active);
+        map.put("idle", idle);
+        map.put("total", total);
+        map.put("maxSize", maxSize);
+        map.put("borrows", borrows);
+        map.put("totalWaitMs", round(getTotalWaitMs()));
+        map.put("meanWaitMs", round(getMeanWaitMs()));
+        map.put("maxWaitMs", round(getMaxWaitMs()));
+        map.put("timeouts", timeouts);
+        map.put("leaks", leaks);
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000.0) / 1000.0;
+    }
+}
@@ -2,22 +2,41 @@ package org.op_ra.utils;
 
 import org.op_ra.enums.ConfigProperties;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Objects;
 
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.reports.FrameworkLogger.log;
+
 /**
  * Utility class for managing database connections.
- * It provides a method to establish a connection to a MySQL database
+ * It provides pooled connections to a MySQL database
  * using connection details (URL, username, password) retrieved from configuration via {@link PropertyUtils}.
  * <p>
- * The connection is established on demand and should be closed by the caller after use.
+ * Connections come from a {@link JdbcConnectionPool} created on first use. Callers borrow one with
+ * {@link #getConnection()} and return it by closing it, ideally with try-with-resources:
+ * </p>
+ * <pre>{@code
+ * try (Connection conn = DataBaseConnectionUtils.getConnection();
+ *      Statement st = conn.createStatement()) {
+ *     ...
+ * }
+ * }</pre>
+ * Pool tuning keys (all optional): {@link ConfigProperties#DB_POOL_MIN_IDLE}, {@link ConfigProperties#DB_POOL_MAX_SIZE},
+ * {@link ConfigProperties#DB_POOL_VALIDATION_QUERY}, {@link ConfigProperties#DB_POOL_CONNECTION_TIMEOUT_MS},
+ * {@link ConfigProperties#DB_POOL_LEAK_DETECTION_MS} and {@link ConfigProperties#DB_POOL_MAX_LIFETIME_MS}.
+ * <p>
+ * {@link #getMyConn()} is kept for code that holds one connection per thread; {@link #closeAllConnections()}
+ * closes the pool at the end of the suite.
  * </p>
  */
 public final class DataBaseConnectionUtils {
 
-    private static Connection myConn; // Static connection instance
+    private static volatile JdbcConnectionPool pool;
+    // Connection held by the current thread through getMyConn(), returned to the pool by closeConnection().
+    private static final ThreadLocal<Connection> connectionThreadLocal = new ThreadLocal<>();
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -27,60 +46,120 @@ public final class DataBaseConnectionUtils {
     }
 
     /**
-     * Establishes and returns a connection to the MySQL database.
+     * Returns the connection pool, creating it from configuration on first use.
      * Retrieves database URL, username, and password from configuration properties
      * ({@link ConfigProperties#DB_URL}, {@link ConfigProperties#DB_USERNAME}, {@link ConfigProperties#DB_PASSWORD}).
+     *
+     * @return The pooled {@link DataSource}.
+     */
+    public static DataSource getDataSource() {
+        return pool();
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing it returns it to the pool.
+     *
+     * @return A pooled {@link java.sql.Connection}.
+     * @throws RuntimeException if no connection could be obtained within the pool's connection timeout,
+     *                          or if the database could not be reached.
+     */
+    public static Connection getConnection() {
+        try {
+            return pool().getConnection();
+        } catch (SQLException e) {
+            System.err.println("Failed to connect to the database: " + e.getMessage());
+            throw new RuntimeException("Failed to connect to the database.", e);
+        }
+    }
+
+    /**
+     * Returns the connection held by the current thread, borrowing one from the pool if it holds none.
+     * The connection stays with the thread until {@link #closeConnection()} returns it.
      * <p>
-     * If a connection has already been established and is still valid, it returns the existing connection.
-     * Otherwise, it attempts to create a new connection.
+     * Prefer {@link #getConnection()} with try-with-resources, which holds a connection only for as long as it is used.
      * </p>
      *
      * @return A {@link java.sql.Connection} object representing the database connection.
-     * @throws RuntimeException if a {@link SQLException} occurs while trying to connect to the database,
-     *                          or if the database driver class is not found.
+     * @throws RuntimeException if a {@link SQLException} occurs while trying to connect to the database.
      */
     public static Connection getMyConn() {
+        Connection myConn = connectionThreadLocal.get();
         try {
-            // Check if the connection is null or closed, then create a new one
             if (Objects.isNull(myConn) || myConn.isClosed()) {
-                // Explicitly load the MySQL JDBC driver (optional for modern JDBC, but good practice for some environments)
-                // Class.forName("com.mysql.cj.jdbc.Driver"); // Uncomment if facing driver not found issues
-
-                myConn = DriverManager.getConnection(
-                        PropertyUtils.getValue(ConfigProperties.DB_URL),
-                        PropertyUtils.getValue(ConfigProperties.DB_USERNAME),
-                        PropertyUtils.getValue(ConfigProperties.DB_PASSWORD)
-                );
+                myConn = getConnection();
+                connectionThreadLocal.set(myConn);
             }
         } catch (SQLException e) {
-            // Log the error or wrap it in a custom unchecked exception
             System.err.println("Failed to connect to the database: " + e.getMessage());
             throw new RuntimeException("Failed to connect to the database.", e);
         }
-        // catch (ClassNotFoundException e) {
-        //     System.err.println("MySQL JDBC Driver not found: " + e.getMessage());
-        //     throw new RuntimeException("MySQL JDBC Driver not found.", e);
-        // }
         return myConn;
     }
 
     /**
-     * Closes the current database connection if it is open.
-     * It'''s important to call this method after database operations are complete
-     * to release resources, especially if the connection is not managed by a connection pool.
+     * Returns the connection held by the current thread (see {@link #getMyConn()}) to the pool.
      *
-     * @throws RuntimeException if a {@link SQLException} occurs while closing the connection.
+     * @throws RuntimeException if a {@link SQLException} occurs while returning the connection.
      */
     public static void closeConnection() {
+        Connection myConn = connectionThreadLocal.get();
+        connectionThreadLocal.remove();
         try {
-            if (Objects.nonNull(myConn) && !myConn.isClosed()) {
+            if (Objects.nonNull(myConn)) {
                 myConn.close();
-                myConn = null; // Set to null after closing
-                System.out.println("Database connection closed successfully.");
             }
         } catch (SQLException e) {
             System.err.println("Failed to close the database connection: " + e.getMessage());
             throw new RuntimeException("Failed to close the database connection.", e);
         }
     }
+
+    /**
+     * Closes the pool and all its idle connections. Called once at the end of the suite; connections still borrowed
+     * are closed as they are returned. A later {@link #getConnection()} creates a new pool.
+     */
+    public static void closeAllConnections() {
+        connectionThreadLocal.remove();
+        JdbcConnectionPool current;
+        synchronized (DataBaseConnectionUtils.class) {
+            current = pool;
+            pool = null;
+        }
+        if (Objects.nonNull(current)) {
+            log(INFO, "Database pool at shutdown: " + current.getMetrics());
+            current.close();
+        }
+    }
+
+    /**
+     * @return The current pool counters (active, idle, wait times), or {@code null} if no connection was requested yet.
+     */
+    public static ConnectionPoolMetrics getPoolMetrics() {
+        JdbcConnectionPool current = pool;
+        return Objects.isNull(current) ? null : current.getMetrics();
+    }
+
+    private static JdbcConnectionPool pool() {
+        JdbcConnectionPool current = pool;
+        if (Objects.isNull(current)) {
+            synchronized (DataBaseConnectionUtils.class) {
+                current = pool;
+                if (Objects.isNull(current)) {
+                    current = new JdbcConnectionPool(
+                            PropertyUtils.getValue(ConfigProperties.DB_URL),
+                            PropertyUtils.getValue(ConfigProperties.DB_USERNAME),
+                            PropertyUtils.getValue(ConfigProperties.DB_PASSWORD),
+                            (int) PropertyUtils.getLongOrDefault(ConfigProperties.DB_POOL_MIN_IDLE, 2),
+                            (int) PropertyUtils.getLongOrDefault(ConfigProperties.DB_POOL_MAX_SIZE, 10),
+                            PropertyUtils.getValueOrDefault(ConfigProperties.DB_POOL_VALIDATION_QUERY, null),
+                            PropertyUtils.getLongOrDefault(ConfigProperties.DB_POOL_CONNECTION_TIMEOUT_MS, 30_000),
+                            PropertyUtils.getLongOrDefault(ConfigProperties.DB_POOL_LEAK_DETECTION_MS, 60_000),
+                            PropertyUtils.getLongOrDefault(ConfigProperties.DB_POOL_MAX_LIFETIME_MS, 1_800_000));
+                    pool = current;
+                    log(INFO, "Created JDBC connection pool for " + PropertyUtils.getValue(ConfigProperties.DB_URL));
+                }
+            }
+        }
+        return current;
+    }
 }
@@ -1,13 +1,11 @@
 package org.op_ra.utils;
 
+import org.op_ra.enums.ConfigProperties;
 import org.testng.annotations.DataProvider;
 
 import java.lang.reflect.Method;
 import java.util.*;
 
-import static org.op_ra.utils.JsonUtils.generateTestDataJson;
-import static org.op_ra.utils.JsonUtils.getTestDataDetails;
-
 /**
  * Provides TestNG data provider methods for supplying test data to test methods.
  * This class reads test data from JSON files, which can be generated from various sources
@@ -19,8 +17,13 @@ import static org.op_ra.utils.JsonUtils.getTestDataDetails;
 @SuppressWarnings("unchecked") // Suppressing warnings for generic type casting
 public final class DataProviderUtils {
 
-    // Stores the test data read from JSON to avoid reading the file multiple times.
-    private static List<Map<String, Object>> testDataFromJson = new ArrayList<>();
+    // Whether the test data JSON has been generated; done once under the class lock, since data providers of
+    // parallel tests may ask for data concurrently.
+    private static volatile boolean testDataGenerated;
+
+    // Executable test data rows by lower-case test case name, used when the data is parsed from the JSON instead of
+    // read from the snapshot, so the file is read once and each lookup is a hash hit. Loaded under the class lock.
+    private static volatile Map<String, List<Map<String, Object>>> iterationIndex;
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -32,7 +35,9 @@ public final class DataProviderUtils {
     /**
      * TestNG DataProvider method to supply test data to test methods based on their names.
      * It reads test data from a JSON file (generated if not present or empty).
-     * Filters the data based on the test case name (method name) and an "execute" flag in the data.
+     * Returns the rows whose test case name matches the method name (case-insensitively) and whose "execute" flag
+     * is "yes", found through the {@code testcasename} index of the binary snapshot, or of an index built once from
+     * the JSON when {@link ConfigProperties#TEST_DATA_FORMAT} is {@code json}.
      *
      * <p>The JSON test data is expected to be an array of objects, where each object represents
      * a set of data for a test iteration and contains at least "testcasename" and "execute" keys.</p>
@@ -74,30 +79,145 @@ public final class DataProviderUtils {
      */
     @DataProvider(name = "getJsonData") // Name the DataProvider for easy reference in tests
     public static Object[] getJsonData(Method method) {
-        String testCaseName = method.getName();
-        List<Map<String, Object>> iterationList = new ArrayList<>();
+        return getIterations(method).toArray();
+    }
+
+    /**
+     * Same rows as {@link #getJsonData(Method)}, handed to TestNG one at a time: each iteration's parameter array is
+     * created only when TestNG asks for it, instead of all of them up front.
+     * Selected for every test by {@link org.op_ra.listeners.AnnotationTransformer} when
+     * {@link ConfigProperties#LAZY_DATA_PROVIDER} is "yes".
+     *
+     * @param method The test method for which data is being provided.
+     * @return An iterator of single-element parameter arrays, each holding one {@code Map<String, Object>} row.
+     */
+    @DataProvider(name = "getJsonDataIterator")
+    public static Iterator<Object[]> getJsonDataIterator(Method method) {
+        Iterator<Map<String, Object>> rows = getIterations(method).iterator();
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                return new Object[]{rows.next()};
+            }
+        };
+    }
 
-        // Initialize test data from JSON if it is not already loaded
-        if (testDataFromJson.isEmpty()) {
-            JsonUtils.generateTestDataJson(); // Ensure JSON data is generated from DB/Excel if configured
-            testDataFromJson = JsonUtils.getTestDataDetails(); // Load data from the central JSON file
+    /**
+     * Streams the rows of the test method from {@link TestDataStream}: rows are read from the snapshot, the JSON file
+     * or a database cursor as TestNG asks for them, and can be sharded and sampled. Meant for data sweeps with too
+     * many rows to load up front. The test-data JSON is generated first, as for {@link #getJsonData(Method)}, unless
+     * the rows come from the database. Select it explicitly on the test:
+     * <pre>{@code
+     * @Test(dataProvider = "streamTestData", dataProviderClass = DataProviderUtils.class)
+     * }</pre>
+     *
+     * @param method The test method for which data is being provided.
+     * @return An iterator of single-element parameter arrays, each holding one {@code Map<String, Object>} row.
+     * @see TestDataStream#open(String)
+     */
+    @DataProvider(name = "streamTestData")
+    public static Iterator<Object[]> streamTestData(Method method) {
+        if (TestDataStream.readsTestDataJson()) {
+            generateTestData(); // The file is written by the run, not checked in
         }
+        Iterator<Map<String, Object>> rows = TestDataStream.open(method.getName());
+        return new Iterator<Object[]>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
 
-        // Filter data for the current test method and where execute flag is "yes"
-        for (Map<String, Object> testDataInstance : testDataFromJson) {
-            if (String.valueOf(testDataInstance.get("testcasename")).equalsIgnoreCase(testCaseName) &&
-                String.valueOf(testDataInstance.get("execute")).equalsIgnoreCase("yes")) {
-                iterationList.add(testDataInstance);
+            @Override
+            public Object[] next() {
+                return new Object[]{rows.next()};
             }
+        };
+    }
+
+    /**
+     * {@link #streamTestData(Method)} with the rows run in parallel on {@code data-provider-thread-count} threads
+     * (set from {@code parallel_thread_count} by {@link org.op_ra.listeners.ParallelSuiteListener}).
+     * TestNG reads the whole iterator into tasks before running them, so unlike the sequential provider this keeps
+     * every selected row in memory; combine it with sampling or sharding for very large sweeps.
+     *
+     * @param method The test method for which data is being provided.
+     * @return An iterator of single-element parameter arrays, each holding one {@code Map<String, Object>} row.
+     */
+    @DataProvider(name = "streamTestDataParallel", parallel = true)
+    public static Iterator<Object[]> streamTestDataParallel(Method method) {
+        return streamTestData(method);
+    }
+
+    /**
+     * @return The executable rows of the method's test case; empty if it has none.
+     */
+    private static List<Map<String, Object>> getIterations(Method method) {
+        generateTestData();
+        TestDataSnapshot snapshot = JsonUtils.getTestDataSnapshot();
+        if (Objects.nonNull(snapshot)) {
+            // Only this test case's rows are decoded
+            List<Map<String, Object>> rows = new ArrayList<>();
+            Iterator<Map<String, Object>> testCaseRows = snapshot.iterateRows(method.getName());
+            while (testCaseRows.hasNext()) {
+                Map<String, Object> row = testCaseRows.next();
+                if (isExecutable(row)) {
+                    rows.add(row);
+                }
+            }
+            return rows;
         }
+        return getIterationIndex().getOrDefault(method.getName().toLowerCase(Locale.ROOT), Collections.emptyList());
+    }
 
-        // Remove duplicates if any (though typically each map should be unique per iteration)
-        // Set<Map<String, Object>> set = new HashSet<>(iterationList);
-        // iterationList.clear();
-        // iterationList.addAll(set);
-        // Note: Using HashSet might reorder data if order is important.
-        // If duplicates are not expected or order is critical, this step can be skipped.
+    /**
+     * Generates the test data JSON from the database or Excel, if configured, on first use.
+     * Only one thread generates the file; the others wait for it.
+     */
+    private static void generateTestData() {
+        if (!testDataGenerated) {
+            synchronized (DataProviderUtils.class) {
+                if (!testDataGenerated) {
+                    JsonUtils.generateTestDataJson();
+                    testDataGenerated = true;
+                }
+            }
+        }
+    }
+
+    private static boolean isExecutable(Map<String, Object> row) {
+        return String.valueOf(row.get("execute")).equalsIgnoreCase("yes");
+    }
 
-        return iterationList.toArray();
+    /**
+     * Returns the index of executable rows by lower-case test case name, parsing the JSON on first use.
+     * Rows keep their file order within a test case; rows whose "execute" flag is not "yes" are left out.
+     *
+     * @return The index of the current environment's test data, never modified after loading.
+     */
+    private static Map<String, List<Map<String, Object>>> getIterationIndex() {
+        Map<String, List<Map<String, Object>>> index = iterationIndex;
+        if (Objects.isNull(index)) {
+            synchronized (DataProviderUtils.class) {
+                index = iterationIndex;
+                if (Objects.isNull(index)) {
+                    Map<String, List<Map<String, Object>>> loaded = new HashMap<>();
+                    for (Map<String, Object> testDataInstance : JsonUtils.getTestDataDetails()) { // Load data from the central JSON file
+                        if (isExecutable(testDataInstance)) {
+                            loaded.computeIfAbsent(String.valueOf(testDataInstance.get("testcasename")).toLowerCase(Locale.ROOT),
+                                    name -> new ArrayList<>()).add(testDataInstance);
+                        }
+                    }
+                    loaded.replaceAll((name, rows) -> Collections.unmodifiableList(rows));
+                    index = Collections.unmodifiableMap(loaded);
+                    iterationIndex = index;
+                }
+            }
+        }
+        return index;
     }
 }
@@ -1,25 +1,40 @@
 package org.op_ra.utils;
 
+import org.op_ra.enums.ConfigProperties;
+
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 /**
  * Utility class for executing SQL queries against a database.
  * This class provides methods to run SELECT, INSERT, UPDATE, and DELETE queries.
- * It uses a connection obtained from {@link DataBaseConnectionUtils}.
+ * Each call borrows a connection from the {@link DataBaseConnectionUtils} pool and returns it when done.
  * <p>
  * Methods are provided to fetch results from SELECT queries into a list of maps
  * (where each map represents a row) and to get the count of affected rows for
  * DML (Data Manipulation Language) queries.
  * </p>
- * Callers are responsible for ensuring the database connection is managed (opened/closed) appropriately,
- * though this class attempts to close Statements and ResultSets.
+ * Statements and ResultSets are closed, and the connection returned to the pool, before each method returns.
+ * <p>
+ * Rows looked up with {@link #retrieveRowData(String, Object...)} are cached in a {@link QueryResultCache} for
+ * {@link ConfigProperties#QUERY_CACHE_TTL_MS} (0 = no caching), up to {@link ConfigProperties#QUERY_CACHE_MAX_ENTRIES}
+ * queries. Simple lookups on a table loaded at suite start are answered by {@link TestDataStore} without a query.
+ * {@link #executeUpdateQuery(String)} drops the cached and prefetched rows of the table it changes.
+ * </p>
  */
 public final class DatabaseQueryExecutor {
 
+    private static final QueryResultCache<Map<String, String>> ROW_CACHE = new QueryResultCache<>(
+            PropertyUtils.getLongOrDefault(ConfigProperties.QUERY_CACHE_TTL_MS, 300_000),
+            (int) PropertyUtils.getLongOrDefault(ConfigProperties.QUERY_CACHE_MAX_ENTRIES, 500));
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -39,17 +54,9 @@ public final class DatabaseQueryExecutor {
      */
     public static List<Map<String, Object>> executeSelectQuery(String query) {
         List<Map<String, Object>> results = new ArrayList<>();
-        Connection conn = null;
-        Statement stmt = null;
-        ResultSet rs = null;
-        try {
-            conn = DataBaseConnectionUtils.getMyConn(); // Get connection
-            if (conn == null || conn.isClosed()) {
-                System.err.println("DatabaseQueryExecutor: Cannot execute query, database connection is null or closed.");
-                return results; // Return empty list if no valid connection
-            }
-            stmt = conn.createStatement();
-            rs = stmt.executeQuery(query);
+        try (Connection conn = DataBaseConnectionUtils.getConnection(); // Borrowed from the pool, returned on close
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(query)) {
             ResultSetMetaData metaData = rs.getMetaData();
             int columnCount = metaData.getColumnCount();
 
@@ -65,22 +72,89 @@ public final class DatabaseQueryExecutor {
             // Optionally log to FrameworkLogger or ExtentLogger
             // FrameworkLogger.log(LogType.ERROR, "SQL Exception on SELECT: " + e.getMessage());
             throw new RuntimeException("Failed to execute SELECT query: " + query, e);
-        } finally {
-            try {
-                if (rs != null) rs.close();
-                if (stmt != null) stmt.close();
-                // Connection is typically managed by DataBaseConnectionUtils (e.g., closed at end of suite)
-                // If not, it should be closed here or by the caller.
-                // DataBaseConnectionUtils.closeConnection(); // If connection should be closed after each query
-            } catch (SQLException e) {
-                System.err.println("SQL Exception while closing resources: " + e.getMessage());
-            }
         }
         return results;
     }
 
+    /**
+     * Returns the first row of a SELECT query, with every value as a string, served from the row cache when
+     * the same query with the same parameters was run within the cache TTL.
+     * Column names are matched case-insensitively, so {@code data.get("DRUG_BRAND_TYPE")} works whatever case the
+     * database reports them in.
+     * <pre>{@code
+     * Map<String, String> data = DatabaseQueryExecutor.retrieveRowData("SELECT * FROM openerx WHERE ID = ?", 1);
+     * }</pre>
+     *
+     * @param query  The SQL SELECT query, optionally with {@code ?} placeholders.
+     * @param params Values bound to the placeholders, in order.
+     * @return An unmodifiable map of column name to value ({@code null} for SQL NULL);
+     *         an empty map if the query returns no rows.
+     * @throws RuntimeException if a {@link SQLException} occurs during query execution.
+     */
+    public static Map<String, String> retrieveRowData(String query, Object... params) {
+        if (params.length == 0) {
+            Map<String, String> prefetched = TestDataStore.findRow(query);
+            if (Objects.nonNull(prefetched)) {
+                return prefetched;
+            }
+        }
+        return ROW_CACHE.get(query, Arrays.asList(params), () -> {
+            List<Map<String, String>> rows = selectRows(query, 1, params);
+            return rows.isEmpty() ? Collections.emptyMap() : rows.get(0);
+        });
+    }
+
+    /**
+     * @return Hit, miss, eviction and invalidation counters of the {@link #retrieveRowData(String, Object...)} cache.
+     */
+    public static Map<String, Object> getRowCacheStats() {
+        return ROW_CACHE.toMap();
+    }
+
+    /**
+     * Drops every cached row, e.g. after changing test data outside {@link #executeUpdateQuery(String)}.
+     */
+    public static void clearRowCache() {
+        ROW_CACHE.clear();
+    }
+
+    /**
+     * Runs a SELECT query and returns its rows with every value as a string, in unmodifiable maps whose column
+     * names are matched case-insensitively.
+     *
+     * @param maxRows Maximum number of rows to read; 0 for all.
+     */
+    static List<Map<String, String>> selectRows(String query, int maxRows, Object... params) {
+        List<Map<String, String>> rows = new ArrayList<>();
+        try (Connection conn = DataBaseConnectionUtils.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(query)) {
+            for (int i = 0; i < params.length; i++) {
+                stmt.setObject(i + 1, params[i]);
+            }
+            stmt.setMaxRows(maxRows);
+            try (ResultSet rs = stmt.executeQuery()) {
+                ResultSetMetaData metaData = rs.getMetaData();
+                int columnCount = metaData.getColumnCount();
+                while (rs.next()) {
+                    Map<String, String> row = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    for (int i = 1; i <= columnCount; i++) {
+                        Object value = rs.getObject(i);
+                        row.put(metaData.getColumnLabel(i), Objects.isNull(value) ? null : String.valueOf(value));
+                    }
+                    rows.add(Collections.unmodifiableMap(row));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("SQL Exception during SELECT query execution: " + query + " - Error: " + e.getMessage());
+            throw new RuntimeException("Failed to execute SELECT query: " + query, e);
+        }
+        return rows;
+    }
+
     /**
      * Executes a DML (Data Manipulation Language) SQL query such as INSERT, UPDATE, or DELETE.
+     * Cached and prefetched rows of the changed table are dropped, so later {@link #retrieveRowData(String, Object...)} calls
+     * see the change.
      *
      * @param query The SQL DML query string to execute.
      * @return The number of rows affected by the query. Returns -1 if an error occurs and the
@@ -88,28 +162,18 @@ public final class DatabaseQueryExecutor {
      * @throws RuntimeException if a {@link SQLException} occurs during query execution.
      */
     public static int executeUpdateQuery(String query) {
-        Connection conn = null;
-        Statement stmt = null;
         int affectedRows = -1; // Default to -1 to indicate potential failure or no rows affected
-        try {
-            conn = DataBaseConnectionUtils.getMyConn();
-             if (conn == null || conn.isClosed()) {
-                System.err.println("DatabaseQueryExecutor: Cannot execute update query, database connection is null or closed.");
-                return affectedRows;
-            }
-            stmt = conn.createStatement();
+        try (Connection conn = DataBaseConnectionUtils.getConnection();
+             Statement stmt = conn.createStatement()) {
             affectedRows = stmt.executeUpdate(query);
         } catch (SQLException e) {
             System.err.println("SQL Exception during DML query execution: " + query + " - Error: " + e.getMessage());
             // FrameworkLogger.log(LogType.ERROR, "SQL Exception on DML: " + e.getMessage());
             throw new RuntimeException("Failed to execute DML query: " + query, e);
         } finally {
-            try {
-                if (stmt != null) stmt.close();
-                // DataBaseConnectionUtils.closeConnection(); // If connection should be closed after each query
-            } catch (SQLException e) {
-                 System.err.println("SQL Exception while closing statement: " + e.getMessage());
-            }
+            // Also on failure: the statement may have partly applied
+            ROW_CACHE.invalidate(query);
+            TestDataStore.invalidate(QueryResultCache.writtenTable(query));
         }
         return affectedRows;
     }
@@ -0,0 +1,444 @@
+package org.op_ra.utils;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import static org.op_ra.enums.LogType.DEBUG;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * A small JDBC connection pool exposed as a {@link DataSource}.
+ * <p>
+ * {@link #getConnection()} borrows a connection and {@link Connection#close()} on it returns the connection to the
+ * pool instead of closing it, so callers use plain try-with-resources. At most {@code maxSize} connections exist;
+ * a borrower waits up to {@code connectionTimeoutMs} for one to be returned before getting a
+ * {@link SQLTransientConnectionException}.
+ * </p>
+ * <ul>
+ *     <li>Idle connections are reused most-recently-returned first and validated before reuse when they have been
+ *     idle for a while, with the validation query or {@link Connection#isValid(int)}.</li>
+ *     <li>Connections older than {@code maxLifetimeMs} are retired when returned or while idle.</li>
+ *     <li>A connection held longer than {@code leakDetectionMs} is reported once, with the stack trace of the borrower.</li>
+ *     <li>A daemon housekeeper keeps at least {@code minIdle} connections open. It takes a permit for each connection
+ *     it opens, like a borrower, so the pool never holds more than {@code maxSize} connections.</li>
+ *     <li>A returned connection is rolled back and its auto-commit, read-only flag, transaction isolation and catalog
+ *     are reset to the values it was opened with, so one borrower's settings do not leak to the next.</li>
+ * </ul>
+ * Borrow wait times are recorded; see {@link #getMetrics()}.
+ */
+public final class JdbcConnectionPool implements DataSource {
+
+    // Idle connections returned more recently than this are handed out without a validation round trip.
+    private static final long VALIDATION_BYPASS_MS = 5_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+    private static final long HOUSEKEEPING_INTERVAL_MS = 30_000;
+    private static final long HOUSEKEEPER_SHUTDOWN_MS = 10_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int minIdle;
+    private final int maxSize;
+    private final String validationQuery;
+    private final long connectionTimeoutMs;
+    private final long leakDetectionMs;
+    private final long maxLifetimeMs;
+
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> inUse = ConcurrentHashMap.newKeySet();
+    private final Semaphore permits;
+    private final AtomicInteger total = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /**
+     * Creates the pool and starts its housekeeper. Connections are opened lazily, then topped up to {@code minIdle}.
+     *
+     * @param url                 The JDBC URL.
+     * @param username            The database user.
+     * @param password            The database password.
+     * @param minIdle             Idle connections kept open by the housekeeper.
+     * @param maxSize             Maximum number of open connections.
+     * @param validationQuery     Query run to validate an idle connection; blank to use {@link Connection#isValid(int)}.
+     * @param connectionTimeoutMs How long a borrower waits for a free connection.
+     * @param leakDetectionMs     How long a connection may be held before it is reported as leaked; 0 disables.
+     * @param maxLifetimeMs       Maximum age of a connection; 0 disables.
+     */
+    public JdbcConnectionPool(String url, String username, String password, int minIdle, int maxSize,
+                              String validationQuery, long connectionTimeoutMs, long leakDetectionMs, long maxLifetimeMs) {
+        if (maxSize <= 0 || minIdle < 0 || minIdle > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: minIdle=" + minIdle + ", maxSize=" + maxSize);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.minIdle = minIdle;
+        this.maxSize = maxSize;
+        this.validationQuery = Objects.isNull(validationQuery) || validationQuery.trim().isEmpty() ? null : validationQuery.trim();
+        this.connectionTimeoutMs = connectionTimeoutMs;
+        this.leakDetectionMs = leakDetectionMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        this.permits = new Semaphore(maxSize, true);
+        long interval = leakDetectionMs > 0 ? Math.min(HOUSEKEEPING_INTERVAL_MS, Math.max(1_000, leakDetectionMs / 2)) : HOUSEKEEPING_INTERVAL_MS;
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jdbc-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the connection timeout for one to be free.
+     * Closing the returned connection hands it back to the pool.
+     *
+     * @return A pooled connection.
+     * @throws SQLTransientConnectionException if no connection became free in time.
+     * @throws SQLException                    if a new connection could not be opened or the pool is closed.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(connectionTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTransientConnectionException("No database connection available after " + connectionTimeoutMs
+                        + " ms (active=" + inUse.size() + ", max=" + maxSize + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            PooledConnection connection = takeIdle();
+            if (Objects.isNull(connection)) {
+                connection = open();
+            }
+            connection.borrowedAt = System.currentTimeMillis();
+            connection.borrower = leakDetectionMs > 0 ? new Throwable("Connection borrowed here") : null;
+            connection.leakReported = false;
+            inUse.add(connection);
+            long waited = System.nanoTime() - start;
+            borrows.increment();
+            waitNanos.add(waited);
+            maxWaitNanos.accumulate(waited);
+            return connection.newHandle();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Not supported: the pool always connects with the configured credentials.
+     *
+     * @throws SQLFeatureNotSupportedException always.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Per-call credentials are not supported by the pool");
+    }
+
+    /**
+     * @return A snapshot of the pool counters.
+     */
+    public ConnectionPoolMetrics getMetrics() {
+        return new ConnectionPoolMetrics(inUse.size(), idle.size(), total.get(), maxSize, borrows.sum(),
+                waitNanos.sum(), maxWaitNanos.get(), timeouts.sum(), leaks.sum());
+    }
+
+    /**
+     * Stops the housekeeper and closes every idle connection. Connections still borrowed are closed when returned.
+     */
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        try {
+            if (!housekeeper.awaitTermination(HOUSEKEEPER_SHUTDOWN_MS, TimeUnit.MILLISECONDS)) {
+                log(WARN, "JDBC pool housekeeper still running after " + HOUSEKEEPER_SHUTDOWN_MS + " ms; closing the pool anyway");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        PooledConnection connection;
+        while (Objects.nonNull(connection = idle.pollFirst())) {
+            retire(connection);
+        }
+        log(DEBUG, "JDBC connection pool closed: " + getMetrics());
+    }
+
+    private PooledConnection takeIdle() {
+        PooledConnection connection;
+        while (Objects.nonNull(connection = idle.pollFirst())) {
+            if (isUsable(connection)) {
+                return connection;
+            }
+            retire(connection);
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws SQLException {
+        PooledConnection connection = new PooledConnection(DriverManager.getConnection(url, username, password));
+        total.incrementAndGet();
+        return connection;
+    }
+
+    /**
+     * Adds a connection to the idle deque. A connection offered while {@link #close()} drains the deque is taken
+     * back out and retired here; whichever of the two removes it first retires it.
+     */
+    private void offerIdle(PooledConnection connection, boolean mostRecent) {
+        connection.returnedAt = System.currentTimeMillis();
+        if (mostRecent) {
+            idle.offerFirst(connection);
+        } else {
+            idle.offerLast(connection);
+        }
+        if (closed && idle.remove(connection)) {
+            retire(connection);
+        }
+    }
+
+    private boolean isUsable(PooledConnection connection) {
+        if (isExpired(connection)) {
+            return false;
+        }
+        if (System.currentTimeMillis() - connection.returnedAt < VALIDATION_BYPASS_MS) {
+            return true;
+        }
+        try {
+            if (Objects.isNull(validationQuery)) {
+                return connection.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = connection.physical.createStatement()) {
+                statement.setQueryTimeout(VALIDATION_TIMEOUT_SECONDS);
+                statement.execute(validationQuery);
+                return true;
+            }
+        } catch (SQLException e) {
+            log(DEBUG, "Discarding pooled connection that failed validation: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isExpired(PooledConnection connection) {
+        return maxLifetimeMs > 0 && System.currentTimeMillis() - connection.createdAt > maxLifetimeMs;
+    }
+
+    private void giveBack(PooledConnection connection) {
+        inUse.remove(connection);
+        try {
+            if (closed || isExpired(connection) || connection.physical.isClosed()) {
+                retire(connection);
+                return;
+            }
+            connection.reset();
+            offerIdle(connection, true);
+        } catch (SQLException e) {
+            retire(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void retire(PooledConnection connection) {
+        total.decrementAndGet();
+        try {
+            connection.physical.close();
+        } catch (SQLException e) {
+            log(DEBUG, "Error closing pooled connection: " + e.getMessage());
+        }
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        if (leakDetectionMs > 0) {
+            for (PooledConnection connection : inUse) {
+                if (!connection.leakReported && now - connection.borrowedAt > leakDetectionMs) {
+                    connection.leakReported = true;
+                    leaks.increment();
+                    log(WARN, "Possible database connection leak: held for " + (now - connection.borrowedAt)
+                            + " ms. Borrowed at " + Arrays.toString(Objects.isNull(connection.borrower)
+                            ? new StackTraceElement[0] : connection.borrower.getStackTrace()));
+                }
+            }
+        }
+        for (PooledConnection connection : idle) {
+            if (isExpired(connection) && idle.remove(connection)) {
+                retire(connection);
+            }
+        }
+        // Each top-up holds a permit while it opens, so it cannot race a borrower into opening connection maxSize + 1
+        while (!closed && idle.size() < minIdle && permits.tryAcquire()) {
+            try {
+                offerIdle(open(), false);
+            } catch (SQLException e) {
+                log(DEBUG, "Could not top up the JDBC connection pool: " + e.getMessage());
+                break;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // Logging goes through FrameworkLogger
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        DriverManager.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return DriverManager.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("java.util.logging is not used");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + type.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) {
+        return type.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool. Each borrow gets a fresh proxy handle, so a handle closed twice,
+     * or used after being closed, cannot affect the next borrower.
+     */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final boolean initialReadOnly;
+        private final int initialIsolation;
+        private final String initialCatalog;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long borrowedAt;
+        private volatile long returnedAt;
+        private volatile Throwable borrower;
+        private volatile boolean leakReported;
+
+        private PooledConnection(Connection physical) throws SQLException {
+            this.physical = physical;
+            try {
+                this.initialReadOnly = physical.isReadOnly();
+                this.initialIsolation = physical.getTransactionIsolation();
+                this.initialCatalog = physical.getCatalog();
+            } catch (SQLException e) {
+                physical.close();
+                throw e;
+            }
+        }
+
+        /**
+         * Rolls back open work and restores the state the connection was opened with.
+         *
+         * @throws SQLException if the connection could not be reset; the caller then retires it.
+         */
+        private void reset() throws SQLException {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (physical.isReadOnly() != initialReadOnly) {
+                physical.setReadOnly(initialReadOnly);
+            }
+            if (physical.getTransactionIsolation() != initialIsolation) {
+                physical.setTransactionIsolation(initialIsolation);
+            }
+            if (!Objects.equals(physical.getCatalog(), initialCatalog)) {
+                physical.setCatalog(initialCatalog);
+            }
+            physical.clearWarnings();
+        }
+
+        private Connection newHandle() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle());
+        }
+
+        private final class Handle implements InvocationHandler {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        synchronized (this) {
+                            if (!returned) {
+                                returned = true;
+                                giveBack(PooledConnection.this);
+                            }
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled(" + physical + ")";
+                    default:
+                        if (returned) {
+                            throw new SQLException("Connection has already been returned to the pool");
+                        }
+                        try {
+                            return method.invoke(physical, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                }
+            }
+        }
+    }
+}
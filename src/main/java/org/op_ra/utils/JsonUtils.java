@@ -1,6 +1,8 @@
 package org.op_ra.utils;
 
+import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -17,6 +19,8 @@ import org.op_ra.enums.ConfigProperties;
 import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
@@ -24,6 +28,13 @@ import java.sql.Statement;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
 
 /**
  * Utility class for handling JSON data and related operations.
@@ -36,18 +47,13 @@ import java.util.*;
  *     <li>Converting Excel cell values to strings.</li>
  * </ul>
  * It uses Jackson and Gson libraries for JSON processing and Apache POI for Excel handling.
+ * <p>
+ * The class keeps no mutable static state: every method builds its data in local collections and returns a copy,
+ * so it is safe to call from tests running in parallel.
+ * </p>
  */
 @SuppressWarnings({"unchecked", "rawtypes", "unused"}) // Suppressing common warnings for utility class
 public final class JsonUtils {
-    // Maps to store test data and runner lists in memory, loaded from JSON files.
-    private static final LinkedHashMap<String, LinkedHashMap<String, ArrayList<HashMap<String, Object>>>> testDataHashMap = new LinkedHashMap<>();
-    private static final List<Map<String, Object>> finalDatalist = new ArrayList<>();
-    private static final LinkedHashMap<String, ArrayList<HashMap<String, Object>>> finalMap = new LinkedHashMap<>();
-    private static final LinkedHashMap<String, ArrayList<HashMap<String, Object>>> finalTestList = new LinkedHashMap<>();
-    private static final LinkedHashMap<String, LinkedHashMap<String, ArrayList<HashMap<String, Object>>>> testRunnerHashMap = new LinkedHashMap<>();
-    private static HashMap<String, Object> queriesList = new HashMap<>();
-    private static FileInputStream fileInputStream; // Reusable file input stream
-    private static String envName; // Stores the current environment name
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -77,6 +83,8 @@ public final class JsonUtils {
 
             HashMap<String, Object> map;
             ArrayList<HashMap<String, Object>> testDataList = new ArrayList<>();
+            LinkedHashMap<String, ArrayList<HashMap<String, Object>>> finalTestList = new LinkedHashMap<>();
+            LinkedHashMap<String, LinkedHashMap<String, ArrayList<HashMap<String, Object>>>> testRunnerHashMap = new LinkedHashMap<>();
             String testCaseListName = "testCaseLists"; // Key for the list of test cases in JSON
 
             for (int i = 1; i <= lastrownum; i++) { // Start from row 1 (assuming row 0 is header)
@@ -186,16 +194,45 @@ public final class JsonUtils {
         return testDetailsList;
     }
 
+    /**
+     * Returns the binary snapshot of the current environment's test data, converting it from the JSON when it is
+     * missing or older, unless {@link ConfigProperties#TEST_DATA_FORMAT} is {@code json}.
+     *
+     * @return The snapshot, or {@code null} if the JSON is to be parsed instead, also when the snapshot cannot be used.
+     */
+    static TestDataSnapshot getTestDataSnapshot() {
+        if ("json".equalsIgnoreCase(PropertyUtils.getValueOrDefault(ConfigProperties.TEST_DATA_FORMAT, "binary").trim())) {
+            return null;
+        }
+        File jsonFile = new File(FrameworkConstants.getTestDataJsonFilePath());
+        try {
+            return TestDataSnapshot.forJson(jsonFile, FrameworkConstants.getEnvironment());
+        } catch (IOException | RuntimeException e) {
+            log(WARN, "Could not use the test-data snapshot of " + jsonFile + ", reading the JSON instead: " + e.getMessage());
+            return null;
+        }
+    }
+
     /**
      * Retrieves detailed test data from a JSON file specific to the current environment.
      * The environment is determined by {@link FrameworkConstants#getEnvironment()}.
      * The JSON data is expected to be structured by environment, then by test case group/name.
+     * <p>
+     * With {@link ConfigProperties#TEST_DATA_FORMAT} {@code binary} (the default), the rows are read from the
+     * memory-mapped {@link TestDataSnapshot} next to the JSON (see {@link #getTestDataSnapshot()}): the returned list
+     * is read-only and decodes a row each time it is accessed, so callers should iterate it once rather than index into
+     * it repeatedly. The JSON is parsed into a new list with {@code json}, or if the snapshot cannot be used.
+     * </p>
      *
      * @return A list of {@code Map<String, Object>}, where each map represents a set of data for a test iteration.
      *         Returns an empty list if the file is not found or data for the environment is missing.
      */
     public static List<Map<String, Object>> getTestDataDetails() {
-        finalDatalist.clear(); // Clear previous data before loading new
+        TestDataSnapshot snapshot = getTestDataSnapshot();
+        if (Objects.nonNull(snapshot)) {
+            return snapshot.getRows();
+        }
+        List<Map<String, Object>> finalDatalist = new ArrayList<>();
         FileInputStream fis = null;
         try {
             ObjectMapper objectMapper = new ObjectMapper();
@@ -228,7 +265,7 @@ public final class JsonUtils {
                 }
             }
         }
-        return new ArrayList<>(finalDatalist); // Return a copy
+        return finalDatalist;
     }
 
     /**
@@ -241,7 +278,7 @@ public final class JsonUtils {
      *         Returns an empty map if the file or keys are not found, or an error occurs.
      */
     public static HashMap<String, Object> getQueryDetails(String queryType) {
-        queriesList.clear(); // Clear previous queries
+        HashMap<String, Object> queriesList = new HashMap<>();
         FileInputStream fis = null;
         try {
             String keyname = queryType.toLowerCase() + "queries";
@@ -252,7 +289,7 @@ public final class JsonUtils {
             HashMap<String, HashMap<String, Object>> jsonQueryMap = objectMapper.readValue(fis, HashMap.class);
 
             if (jsonQueryMap.containsKey(keyname)) {
-                queriesList = jsonQueryMap.get(keyname);
+                queriesList.putAll(jsonQueryMap.get(keyname));
             } else {
                  System.err.println("No queries found for type: " + queryType + " (key: " + keyname + ") in " + FrameworkConstants.getSqlQueryjsonfilepath());
             }
@@ -269,69 +306,34 @@ public final class JsonUtils {
                 }
             }
         }
-        return new HashMap<>(queriesList); // Return a copy
+        return queriesList;
     }
 
     /**
      * Generates test data by fetching it from a database and writing it to a JSON file.
      * SQL queries are retrieved using {@link #getQueryDetails(String)} with type "select".
-     * The database connection is obtained from {@link DataBaseConnectionUtils#getMyConn()}.
+     * The database connection is borrowed from {@link DataBaseConnectionUtils#getConnection()} and returned afterwards.
      * The output JSON file path is determined by {@link FrameworkConstants#getTestDataJsonFilePath()}
      * and the current environment {@link FrameworkConstants#getEnvironment()}.
+     * <p>
+     * The queries run in parallel on pooled connections and their rows are streamed to the file as they are read
+     * (see {@link #writeQueryResults(String, Map, File)}), so generation takes about as long as the slowest query
+     * and memory use does not grow with the size of the tables.
+     * </p>
      *
      * @throws RuntimeException if there is an issue with database operations, JSON processing, or file I/O.
      */
     public static void generateTestDataJson() {
+        String envName = PropertyUtils.getValue(ConfigProperties.ENV); // Get current environment name
+        FrameworkConstants.setEnvironment(envName); // Ensure FrameworkConstants has the latest env
+        FrameworkConstants.setTestDataJsonFilePath(envName); // Set JSON file path based on env
         try {
-            Statement st = DataBaseConnectionUtils.getMyConn().createStatement();
-            HashMap<String, Object> queryDetails = getQueryDetails("select"); // Get "select" type queries
-
-            finalMap.clear(); // Clear previous data
-
-            for (Map.Entry<String, Object> mapdata : queryDetails.entrySet()) {
-                String queryKey = mapdata.getKey();
-                String sqlQuery = (String) mapdata.getValue();
-                ResultSet resultSet = st.executeQuery(sqlQuery);
-                ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-                int columns = resultSetMetaData.getColumnCount();
-                ArrayList<HashMap<String, Object>> testDataList = new ArrayList<>();
-
-                while (resultSet.next()) {
-                    HashMap<String, Object> rowDatas = new HashMap<>(columns);
-                    for (int i = 1; i <= columns; ++i) {
-                        rowDatas.put(resultSetMetaData.getColumnName(i), resultSet.getObject(i));
-                    }
-                    testDataList.add(rowDatas);
-                }
-                finalMap.put(queryKey, testDataList); // Store data list by query key
-                resultSet.close(); // Close ResultSet
-            }
-            st.close(); // Close Statement
-
-            envName = PropertyUtils.getValue(ConfigProperties.ENV); // Get current environment name
-            FrameworkConstants.setEnvironment(envName); // Ensure FrameworkConstants has the latest env
-            testDataHashMap.clear(); // Clear previous environment data
-            testDataHashMap.put(envName, new LinkedHashMap<>(finalMap)); // Store current finalMap under envName
-
-            ObjectMapper mapper = new ObjectMapper();
-            FrameworkConstants.setTestDataJsonFilePath(envName); // Set JSON file path based on env
-            File outputFile = new File(FrameworkConstants.getTestDataJsonFilePath());
-            outputFile.getParentFile().mkdirs(); // Ensure directory exists
-            mapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, testDataHashMap);
-
+            // Data is stored under envName, one array of rows per query key
+            writeQueryResults(envName, getQueryDetails("select"), new File(FrameworkConstants.getTestDataJsonFilePath()));
         } catch (SQLException e) {
             throw new RuntimeException("SQL error during test data generation: " + e.getMessage(), e);
         } catch (IOException e) { // Catch IO exceptions for file writing
             throw new RuntimeException("File I/O error during test data JSON generation: " + e.getMessage(), e);
-        } finally {
-            // Ensure database connection is closed
-            if (Objects.nonNull(DataBaseConnectionUtils.getMyConn())) {
-                try {
-                    DataBaseConnectionUtils.getMyConn().close();
-                } catch (SQLException e) {
-                    System.err.println("Error closing database connection: " + e.getMessage());
-                }
-            }
         }
     }
 
@@ -339,56 +341,138 @@ public final class JsonUtils {
      * Generates a JSON runner list by fetching data from a database.
      * SQL queries are retrieved using {@link #getQueryDetails(String)} with type "runnerlist".
      * The output JSON file path is determined by {@link FrameworkConstants#getTestCaseJsonPath()}.
+     * Rows are streamed to the file like in {@link #generateTestDataJson()}.
      *
      * @throws RuntimeException if there is an issue with database operations, JSON processing, or file I/O.
      */
     public static void generateRunnerListJsonData() {
         try {
-            Statement st = DataBaseConnectionUtils.getMyConn().createStatement();
-            HashMap<String, Object> queryDetails = getQueryDetails("runnerlist");
-
-            finalTestList.clear(); // Clear previous data
+            writeQueryResults(FrameworkConstants.getRunmanager(), getQueryDetails("runnerlist"),
+                    new File(FrameworkConstants.getTestCaseJsonPath()));
+        } catch (SQLException e) {
+            throw new RuntimeException("SQL error during runner list JSON generation: " + e.getMessage(), e);
+        } catch (IOException e) {
+            throw new RuntimeException("File I/O error during runner list JSON generation: " + e.getMessage(), e);
+        }
+    }
 
-            for (Map.Entry<String, Object> mapdata : queryDetails.entrySet()) {
-                String queryKey = mapdata.getKey();
+    /**
+     * Runs each query and writes {@code {rootKey: {queryKey: [{column: value, ...}, ...], ...}}} to the file,
+     * with the query keys in alphabetical order.
+     * <p>
+     * Up to {@link ConfigProperties#TEST_DATA_QUERY_PARALLELISM} queries run at the same time, each on its own pooled
+     * connection and limited to {@link ConfigProperties#TEST_DATA_QUERY_TIMEOUT_SECONDS}. Every query streams its rows
+     * to a part file next to the output (see {@link #writeQueryRows(String, File, int, int)}); the parts are then
+     * copied into the output in key order, so the file is the same whatever order the queries finish in.
+     * </p>
+     */
+    private static void writeQueryResults(String rootKey, Map<String, Object> queries, File outputFile)
+            throws SQLException, IOException {
+        int fetchSize = (int) PropertyUtils.getLongOrDefault(ConfigProperties.JDBC_FETCH_SIZE, 1_000);
+        int timeoutSeconds = (int) PropertyUtils.getLongOrDefault(ConfigProperties.TEST_DATA_QUERY_TIMEOUT_SECONDS, 0);
+        int parallelism = (int) Math.min(Math.max(1, queries.size()),
+                Math.max(1, PropertyUtils.getLongOrDefault(ConfigProperties.TEST_DATA_QUERY_PARALLELISM, 4)));
+        outputFile.getParentFile().mkdirs(); // Ensure directory exists
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        Map<String, Future<File>> parts = new TreeMap<>();
+        try {
+            for (Map.Entry<String, Object> mapdata : queries.entrySet()) {
                 String sqlQuery = (String) mapdata.getValue();
-                ResultSet resultSet = st.executeQuery(sqlQuery);
-                ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
-                int columns = resultSetMetaData.getColumnCount();
-                ArrayList<HashMap<String, Object>> testDataList = new ArrayList<>();
-
-                while (resultSet.next()) {
-                    HashMap<String, Object> rowDatas = new HashMap<>(columns);
-                    for (int i = 1; i <= columns; ++i) {
-                        rowDatas.put(resultSetMetaData.getColumnName(i), resultSet.getObject(i));
+                parts.put(mapdata.getKey(), executor.submit(() -> {
+                    File part = File.createTempFile("." + outputFile.getName() + "-", ".part", outputFile.getParentFile());
+                    part.deleteOnExit();
+                    writeQueryRows(sqlQuery, part, fetchSize, timeoutSeconds);
+                    return part;
+                }));
+            }
+            ObjectMapper mapper = new ObjectMapper();
+            // Written next to the output and moved over it at the end, so a failed query leaves the previous file intact
+            File merged = new File(outputFile.getParentFile(), "." + outputFile.getName() + ".tmp");
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(merged, JsonEncoding.UTF8)) {
+                generator.useDefaultPrettyPrinter();
+                generator.writeStartObject();
+                generator.writeObjectFieldStart(rootKey);
+                for (Map.Entry<String, Future<File>> part : parts.entrySet()) {
+                    File partFile = awaitPart(part.getValue());
+                    generator.writeFieldName(part.getKey());
+                    try (com.fasterxml.jackson.core.JsonParser parser = mapper.getFactory().createParser(partFile)) {
+                        parser.nextToken();
+                        generator.copyCurrentStructure(parser);
+                    } finally {
+                        Files.deleteIfExists(partFile.toPath());
                     }
-                    testDataList.add(rowDatas);
                 }
-                finalTestList.put(queryKey, testDataList);
-                 resultSet.close(); // Close ResultSet
+                generator.writeEndObject();
+                generator.writeEndObject();
+            } catch (SQLException | IOException | RuntimeException e) {
+                Files.deleteIfExists(merged.toPath());
+                throw e;
             }
-            st.close(); // Close Statement
-
-            testRunnerHashMap.clear();
-            testRunnerHashMap.put(FrameworkConstants.getRunmanager(), new LinkedHashMap<>(finalTestList));
+            Files.move(merged.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            executor.shutdownNow();
+            for (Future<File> part : parts.values()) { // Parts left behind by a failed query
+                if (part.isDone() && !part.isCancelled()) {
+                    try {
+                        Files.deleteIfExists(part.get().toPath());
+                    } catch (ExecutionException | InterruptedException ignored) {
+                        // Nothing was written
+                    }
+                }
+            }
+        }
+    }
 
-            ObjectMapper mapper = new ObjectMapper();
-            File outputFile = new File(FrameworkConstants.getTestCaseJsonPath());
-            outputFile.getParentFile().mkdirs(); // Ensure directory exists
-            mapper.writerWithDefaultPrettyPrinter().writeValue(outputFile, testRunnerHashMap);
+    private static File awaitPart(Future<File> part) throws SQLException, IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for test data queries", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
 
-        } catch (SQLException e) {
-            throw new RuntimeException("SQL error during runner list JSON generation: " + e.getMessage(), e);
-        } catch (IOException e) {
-            throw new RuntimeException("File I/O error during runner list JSON generation: " + e.getMessage(), e);
-        } finally {
-            // Ensure database connection is closed
-            if (Objects.nonNull(DataBaseConnectionUtils.getMyConn())) {
-                try {
-                    DataBaseConnectionUtils.getMyConn().close();
-                } catch (SQLException e) {
-                     System.err.println("Error closing database connection: " + e.getMessage());
+    /**
+     * Runs one query and streams its rows as a JSON array to the file: each row goes straight from the
+     * {@link ResultSet} to a Jackson {@link JsonGenerator}, and the driver is asked to fetch {@code fetchSize} rows
+     * at a time, so only one fetch is held in memory. Auto-commit is switched off while reading, which some drivers
+     * (e.g. PostgreSQL) require to use a cursor.
+     */
+    private static void writeQueryRows(String sqlQuery, File file, int fetchSize, int timeoutSeconds)
+            throws SQLException, IOException {
+        try (Connection conn = DataBaseConnectionUtils.getConnection(); // Returned to the pool on close
+             JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(file, JsonEncoding.UTF8)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement st = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                st.setFetchSize(fetchSize);
+                st.setQueryTimeout(timeoutSeconds);
+                generator.writeStartArray();
+                try (ResultSet resultSet = st.executeQuery(sqlQuery)) {
+                    ResultSetMetaData resultSetMetaData = resultSet.getMetaData();
+                    int columns = resultSetMetaData.getColumnCount();
+                    while (resultSet.next()) {
+                        generator.writeStartObject();
+                        for (int i = 1; i <= columns; ++i) {
+                            generator.writeObjectField(resultSetMetaData.getColumnName(i), resultSet.getObject(i));
+                        }
+                        generator.writeEndObject();
+                    }
                 }
+                generator.writeEndArray();
+            } finally {
+                conn.rollback(); // Read-only: ends the transaction opened for the cursor
+                conn.setAutoCommit(autoCommit);
             }
         }
     }
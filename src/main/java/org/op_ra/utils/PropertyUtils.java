@@ -13,7 +13,7 @@ import java.util.Properties;
 
 /**
  * Utility class for reading and managing configuration properties from .properties files.
- * It loads properties from a file specified by {@link FrameworkConstants#getConfigFilePath()}
+ * It loads properties from the file also returned by {@link FrameworkConstants#getConfigFilePath()}
  * and provides a type-safe way to access them using the {@link ConfigProperties} enum.
  * <p>
  * Properties are loaded once and cached in a static map for efficient access.
@@ -24,6 +24,10 @@ public final class PropertyUtils {
 
     private static final Properties property = new Properties();
     private static final Map<String, String> CONFIGMAP = new HashMap<>();
+    // Same path as FrameworkConstants.getConfigFilePath(). Resolved here because FrameworkConstants reads properties
+    // in its own static initializer: touching it from this one would fail whenever PropertyUtils is loaded first
+    // (e.g. by a suite listener that runs before the reports are initialised).
+    private static final String CONFIG_FILE_PATH = System.getProperty("user.dir") + "/src/main/resources/configuration/config.properties";
 
     /**
      * Private constructor to prevent instantiation of this utility class.
@@ -34,7 +38,7 @@ public final class PropertyUtils {
 
     // Static block to load properties from the file at class loading time.
     static {
-        try (FileInputStream file = new FileInputStream(FrameworkConstants.getConfigFilePath())) {
+        try (FileInputStream file = new FileInputStream(CONFIG_FILE_PATH)) {
             property.load(file);
             // Populate the CONFIGMAP from the loaded properties
             for (Map.Entry<Object, Object> entry : property.entrySet()) {
@@ -43,12 +47,12 @@ public final class PropertyUtils {
         } catch (FileNotFoundException e) {
             // It'''s generally better to throw a more specific custom exception or log an error
             // and then throw RuntimeException if the application cannot proceed without these properties.
-            System.err.println("ERROR: Properties file not found at: " + FrameworkConstants.getConfigFilePath());
+            System.err.println("ERROR: Properties file not found at: " + CONFIG_FILE_PATH);
             // Depending on the application'''s needs, you might exit or throw a critical error.
-            throw new RuntimeException("Properties file not found: " + FrameworkConstants.getConfigFilePath(), e);
+            throw new RuntimeException("Properties file not found: " + CONFIG_FILE_PATH, e);
         } catch (IOException e) {
-            System.err.println("ERROR: IOException while loading properties file: " + FrameworkConstants.getConfigFilePath());
-            throw new RuntimeException("IOException while loading properties file: " + FrameworkConstants.getConfigFilePath(), e);
+            System.err.println("ERROR: IOException while loading properties file: " + CONFIG_FILE_PATH);
+            throw new RuntimeException("IOException while loading properties file: " + CONFIG_FILE_PATH, e);
         }
     }
 
@@ -74,10 +78,71 @@ public final class PropertyUtils {
         return CONFIGMAP.get(key.name().toLowerCase());
     }
 
-    // It might be useful to have a method that returns a value with a default if not found,
-    // or a method to check if a key exists, depending on how strictly configurations are managed.
-    // Example:
-    // public static String getValueOrDefault(ConfigProperties key, String defaultValue) {
-    //     return CONFIGMAP.getOrDefault(key.name().toLowerCase(), defaultValue);
-    // }
+    /**
+     * Retrieves the value of an optional configuration property, falling back to a default.
+     * <p>
+     * Unlike {@link #getValue(ConfigProperties)}, a missing or blank property is not an error here.
+     * This is intended for tuning knobs (pool sizes, timeouts, etc.) that have sensible defaults.
+     * </p>
+     *
+     * @param key          The {@link ConfigProperties} enum representing the desired property key.
+     * @param defaultValue The value returned when the property is absent or blank.
+     * @return The trimmed property value, or {@code defaultValue}.
+     */
+    public static String getValueOrDefault(ConfigProperties key, String defaultValue) {
+        return getValueOrDefault(Objects.isNull(key) ? null : key.name(), defaultValue);
+    }
+
+    /**
+     * Retrieves an optional configuration property by its raw (lowercase) key, falling back to a default.
+     * <p>
+     * Used for keys derived at runtime that have no {@link ConfigProperties} constant,
+     * e.g. the per-service header keys such as {@code open_erx_accept_header}.
+     * </p>
+     *
+     * @param key          The property key as written in the properties file.
+     * @param defaultValue The value returned when the property is absent or blank.
+     * @return The trimmed property value, or {@code defaultValue}.
+     */
+    public static String getValueOrDefault(String key, String defaultValue) {
+        String value = Objects.isNull(key) ? null : CONFIGMAP.get(key.toLowerCase());
+        return Objects.isNull(value) || value.isEmpty() ? defaultValue : value;
+    }
+
+    /**
+     * Retrieves an optional configuration property that can be overridden on the command line.
+     * The system property name is the key in lowercase with '_' replaced by '.',
+     * e.g. {@code -Dload.rate.per.second=50} overrides {@code load_rate_per_second}.
+     *
+     * @param key          The {@link ConfigProperties} enum representing the desired property key.
+     * @param defaultValue The value returned when neither the system property nor the property is set.
+     * @return The trimmed system property, else the trimmed property value, else {@code defaultValue}.
+     */
+    public static String getOverridableValue(ConfigProperties key, String defaultValue) {
+        String override = System.getProperty(key.name().toLowerCase().replace('_', '.'));
+        if (Objects.nonNull(override) && !override.trim().isEmpty()) {
+            return override.trim();
+        }
+        return getValueOrDefault(key, defaultValue);
+    }
+
+    /**
+     * Retrieves an optional numeric configuration property, falling back to a default.
+     *
+     * @param key          The {@link ConfigProperties} enum representing the desired property key.
+     * @param defaultValue The value returned when the property is absent, blank or not a number.
+     * @return The parsed property value, or {@code defaultValue}.
+     */
+    public static long getLongOrDefault(ConfigProperties key, long defaultValue) {
+        String value = getValueOrDefault(key, null);
+        if (Objects.isNull(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Property " + key.name().toLowerCase() + " is not a number: '" + value + "'. Using default " + defaultValue);
+            return defaultValue;
+        }
+    }
 }
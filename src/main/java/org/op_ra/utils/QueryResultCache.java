@@ -0,0 +1,268 @@
+package org.op_ra.utils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Least-recently-used cache of SELECT results with a time-to-live, used by {@link DatabaseQueryExecutor}.
+ * <p>
+ * Entries are keyed by the normalised SQL (surrounding whitespace and trailing semicolons removed, runs of
+ * whitespace outside quotes collapsed) and the bind parameters, so {@code "SELECT * FROM t WHERE ID = ?"} with
+ * {@code 1} and with {@code 2} are cached separately. Each entry remembers the tables its query reads;
+ * {@link #invalidate(String)} drops the entries reading the table changed by a DML statement, or every entry
+ * when the table cannot be determined.
+ * </p>
+ * A TTL of 0 disables the cache: every lookup goes to the database and counts as a miss.
+ *
+ * @param <V> Type of the cached results.
+ */
+public final class QueryResultCache<V> {
+
+    private static final Pattern READ_TABLES = Pattern.compile("(?i)\\b(?:from|join)\\s+([\\w.$\"`\\[\\]]+)");
+    private static final Pattern WRITTEN_TABLE = Pattern.compile(
+            "(?i)^\\s*(?:insert\\s+into|replace\\s+into|merge\\s+into|delete\\s+from|update|truncate(?:\\s+table)?)\\s+([\\w.$\"`\\[\\]]+)");
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LinkedHashMap<Key, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every invalidation, so a result loaded while DML ran is not cached
+    private long generation;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param ttlMs      How long a result may be served from the cache, in milliseconds; 0 disables caching.
+     * @param maxEntries Maximum number of cached results; the least recently used one is evicted beyond it.
+     */
+    public QueryResultCache(long ttlMs, int maxEntries) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, ttlMs));
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    /**
+     * Returns the cached result of the query, or loads it with {@code loader} and caches it.
+     * The loader runs outside the cache lock, so two threads missing on the same key may both query the database.
+     *
+     * @param sql    The SQL query.
+     * @param params The bind parameters of the query, in order.
+     * @param loader Runs the query; called on a miss.
+     * @return The cached or freshly loaded result.
+     */
+    public V get(String sql, List<Object> params, Supplier<V> loader) {
+        if (ttlNanos == 0) {
+            misses.incrementAndGet();
+            return loader.get();
+        }
+        Key key = new Key(normalize(sql), params);
+        long now = System.nanoTime();
+        long loadedGeneration;
+        synchronized (entries) {
+            loadedGeneration = generation;
+            Entry<V> entry = entries.get(key);
+            if (Objects.nonNull(entry)) {
+                if (now - entry.loadedAt < ttlNanos) {
+                    hits.incrementAndGet();
+                    return entry.value;
+                }
+                entries.remove(key);
+            }
+        }
+        misses.incrementAndGet();
+        V value = loader.get();
+        synchronized (entries) {
+            if (loadedGeneration != generation) {
+                return value;
+            }
+            entries.put(key, new Entry<>(value, readTables(key.sql), System.nanoTime()));
+            Iterator<Entry<V>> eldest = entries.values().iterator();
+            while (entries.size() > maxEntries) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Drops the cached results that may be stale after the given DML statement.
+     *
+     * @param dml The INSERT, UPDATE, DELETE, MERGE or TRUNCATE statement that was executed.
+     */
+    public void invalidate(String dml) {
+        String table = writtenTable(dml);
+        if (Objects.isNull(table)) {
+            clear();
+            return;
+        }
+        synchronized (entries) {
+            generation++;
+            Iterator<Entry<V>> it = entries.values().iterator();
+            while (it.hasNext()) {
+                Set<String> tables = it.next().tables;
+                if (tables.isEmpty() || tables.contains(table)) {
+                    it.remove();
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops every cached result.
+     */
+    public void clear() {
+        synchronized (entries) {
+            generation++;
+            invalidations.addAndGet(entries.size());
+            entries.clear();
+        }
+    }
+
+    /** @return Lookups answered from the cache. */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return Lookups that went to the database. */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return Results dropped because the cache was full. */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /** @return Results dropped by {@link #invalidate(String)} or {@link #clear()}. */
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /** @return Results currently cached, including expired ones not yet looked up again. */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /** @return The counters by name, e.g. for JSON reports. */
+    public Map<String, Object> toMap() {
+        long lookups = getHits() + getMisses();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("hits", getHits());
+        map.put("misses", getMisses());
+        map.put("hitRate", lookups == 0 ? 0 : Math.round(getHits() * 1000.0 / lookups) / 1000.0);
+        map.put("evictions", getEvictions());
+        map.put("invalidations", getInvalidations());
+        map.put("size", size());
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean space = false;
+        for (char c : sql.trim().toCharArray()) {
+            if (quote == 0 && Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space) {
+                out.append(' ');
+                space = false;
+            }
+            if (quote == 0 && (c == '\'' || c == '"')) {
+                quote = c;
+            } else if (c == quote) {
+                quote = 0;
+            }
+            out.append(c);
+        }
+        int end = out.length();
+        while (end > 0 && (out.charAt(end - 1) == ';' || out.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        return out.substring(0, end);
+    }
+
+    /**
+     * @return The table changed by the DML statement (lower case, without schema), or {@code null} if unknown.
+     */
+    static String writtenTable(String dml) {
+        Matcher matcher = WRITTEN_TABLE.matcher(Objects.isNull(dml) ? "" : dml);
+        return matcher.find() ? tableName(matcher.group(1)) : null;
+    }
+
+    private static Set<String> readTables(String sql) {
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = READ_TABLES.matcher(sql);
+        while (matcher.find()) {
+            tables.add(tableName(matcher.group(1)));
+        }
+        return tables;
+    }
+
+    // Unquoted, lower-case name without schema, so "APP.OpenErx" and openerx match
+    private static String tableName(String name) {
+        String plain = name.replaceAll("[\"`\\[\\]]", "").toLowerCase(Locale.ROOT);
+        return plain.substring(plain.lastIndexOf('.') + 1);
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final List<Object> params;
+
+        private Key(String sql, List<Object> params) {
+            this.sql = sql;
+            this.params = Objects.isNull(params) ? Collections.emptyList() : Arrays.asList(params.toArray());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return sql.equals(other.sql) && Arrays.deepEquals(params.toArray(), other.params.toArray());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * sql.hashCode() + Arrays.deepHashCode(params.toArray());
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final Set<String> tables;
+        private final long loadedAt;
+
+        private Entry(V value, Set<String> tables, long loadedAt) {
+            this.value = value;
+            this.tables = tables;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -1,26 +1,97 @@
 package org.op_ra.utils;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
-import java.util.Date;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.op_ra.enums.LogType.DEBUG;
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
 
 /**
  * Controls interactions with a database for storing test report summaries or results.
  * This class provides methods to insert test case outcomes (e.g., method name, status, execution time)
  * into a predefined database table.
  * <p>
- * It relies on {@link DataBaseConnectionUtils} to obtain a database connection.
+ * Results are written asynchronously: {@link #storeReportInDatabase(String, String)} only puts the result on a
+ * bounded queue, and a background writer drains it with JDBC batch inserts, on a connection borrowed from the
+ * {@link DataBaseConnectionUtils} pool. A batch is written once it reaches {@link ConfigProperties#REPORT_DB_BATCH_SIZE}
+ * results or {@link ConfigProperties#REPORT_DB_FLUSH_INTERVAL_MS} after its first result. {@link #flush()} writes
+ * whatever is left and is called at the end of the suite.
+ * </p>
+ * <p>
+ * Results that cannot be written (database down, queue of {@link ConfigProperties#REPORT_DB_QUEUE_CAPACITY} full)
+ * are appended as JSON lines to {@link FrameworkConstants#getResultSpillPath()}, so nothing is lost.
  * </p>
  * The database table structure is assumed to include columns for:
  * - test_method_name (String)
+ * - test_class_name (String, fully qualified; null for results stored without a class)
  * - test_status (String - e.g., "PASS", "FAIL", "SKIP")
  * - execution_timestamp (Timestamp)
- * - (Optionally) execution_duration_ms (Long), suite_name (String), etc.
+ * - execution_duration_ms (Long, null when unknown, e.g. for skipped tests)
+ * - (Optionally) suite_name (String), etc.
+ * <p>
+ * {@link #getAverageDurations(int)} reads the recorded durations back by class-qualified method name, for ordering the next run longest first
+ * and splitting it into shards (see {@link org.op_ra.listeners.MethodInterceptor}). {@link #replaySpill(File)} loads
+ * a spill file into the database once it is reachable again.
+ * </p>
  */
 public final class ReportDatabaseController {
 
+    // Example SQL INSERT statement. Adjust table and column names as per your database schema.
+    private static final String INSERT_SQL =
+            "INSERT INTO test_execution_reports (test_method_name, test_class_name, test_status, execution_timestamp, execution_duration_ms)"
+                    + " VALUES (?, ?, ?, ?, ?)";
+    private static final String AVERAGE_DURATION_SQL =
+            "SELECT test_class_name, test_method_name, AVG(execution_duration_ms) FROM test_execution_reports"
+                    + " WHERE execution_duration_ms IS NOT NULL AND test_class_name IS NOT NULL"
+                    + " AND execution_timestamp >= ? AND execution_timestamp < ?"
+                    + " GROUP BY test_class_name, test_method_name";
+    // After a failed batch, results go straight to the spill file for this long instead of waiting on the database.
+    private static final long DATABASE_RETRY_DELAY_MS = 30_000;
+
+    private static final int BATCH_SIZE = (int) PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_DB_BATCH_SIZE, 100);
+    private static final long FLUSH_INTERVAL_MS = PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_DB_FLUSH_INTERVAL_MS, 1_000);
+    private static final BlockingQueue<TestResultRow> QUEUE =
+            new ArrayBlockingQueue<>((int) PropertyUtils.getLongOrDefault(ConfigProperties.REPORT_DB_QUEUE_CAPACITY, 10_000));
+    // Serialises batch writes of the background writer and flush(), and appends to the spill file.
+    private static final Object WRITE_LOCK = new Object();
+    private static final Object SPILL_LOCK = new Object();
+    // Queued by flush() to stop the writer once everything queued before it is written.
+    private static final TestResultRow STOP = new TestResultRow(null, null, null, null, null);
+
+    private static Thread writer;
+    private static volatile long databaseDownUntil;
+
     /**
      * Private constructor to prevent instantiation of this utility class.
      */
@@ -29,53 +100,299 @@ public final class ReportDatabaseController {
     }
 
     /**
-     * Stores the result of a test case into the reporting database.
+     * Queues the result of a test case for the reporting database. Returns immediately; the row is inserted by the
+     * background writer. If the queue is full, the row is spilled to the local file instead.
      *
      * @param testMethodName The name of the test method (e.g., from {@code ITestResult.getMethod().getMethodName()}).
      * @param testStatus     The status of the test (e.g., "Pass", "Fail", "Skip").
      *                       Consider using an enum for status for consistency.
      */
     public static void storeReportInDatabase(String testMethodName, String testStatus) {
-        // Example SQL INSERT statement. Adjust table and column names as per your database schema.
-        String sql = "INSERT INTO test_execution_reports (test_method_name, test_status, execution_timestamp) VALUES (?, ?, ?)";
-        Connection conn = null;
-        PreparedStatement pstmt = null;
+        storeReportInDatabase(testMethodName, testStatus, null);
+    }
 
+    /**
+     * Queues the result of a test case for the reporting database, with how long it ran.
+     *
+     * @param testMethodName The name of the test method.
+     * @param testStatus     The status of the test (e.g., "Pass", "Fail", "Skip").
+     * @param durationMs     Execution time of the test method in milliseconds, or {@code null} if unknown.
+     * @see #storeReportInDatabase(String, String)
+     */
+    public static void storeReportInDatabase(String testMethodName, String testStatus, Long durationMs) {
+        storeReportInDatabase(null, testMethodName, testStatus, durationMs);
+    }
+
+    /**
+     * Queues the result of a test method of a class for the reporting database, with how long it ran. Only results
+     * stored with their class are used by {@link #getAverageDurations(int)}.
+     *
+     * @param testClassName  The fully qualified name of the test class, or {@code null} if unknown.
+     * @param testMethodName The name of the test method.
+     * @param testStatus     The status of the test (e.g., "Pass", "Fail", "Skip").
+     * @param durationMs     Execution time of the test method in milliseconds, or {@code null} if unknown.
+     * @see #storeReportInDatabase(String, String)
+     */
+    public static void storeReportInDatabase(String testClassName, String testMethodName, String testStatus, Long durationMs) {
+        TestResultRow row = new TestResultRow(testMethodName, testClassName, testStatus, new Timestamp(System.currentTimeMillis()), durationMs);
+        startWriter();
+        if (!QUEUE.offer(row)) {
+            log(WARN, "Test result queue is full; spilling result of " + testMethodName + " to " + FrameworkConstants.getResultSpillPath());
+            spill(Collections.singletonList(row));
+        }
+    }
+
+    /**
+     * Stops the background writer and writes every queued result, to the database or to the spill file.
+     * Called from {@link org.op_ra.listeners.ListenerClass#onFinish(org.testng.ISuite)}; results stored afterwards
+     * start a new writer.
+     */
+    public static void flush() {
+        Thread current;
+        synchronized (ReportDatabaseController.class) {
+            current = writer;
+            writer = null;
+        }
+        if (Objects.nonNull(current)) {
+            try {
+                QUEUE.put(STOP);
+                current.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<TestResultRow> batch = new ArrayList<>();
+        while (QUEUE.drainTo(batch, BATCH_SIZE) > 0) {
+            batch.remove(STOP);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Returns the average recorded duration of each test method over the {@code historyDays} days before today (UTC),
+     * by class-qualified method name ({@code com.example.TestClass.testMethod}, as
+     * {@link org.testng.ITestNGMethod#getQualifiedName()}), so methods with the same name in different classes keep
+     * their own durations. Results stored without a class are left out.
+     * Results of the current day are left out, so the results of the running suite do not count. Shards use
+     * {@link #getAverageDurations(Instant, int)} with a cut-off shared by all of them instead.
+     *
+     * @param historyDays How many days of results to average; results older than that are ignored.
+     * @return Average duration in milliseconds by class-qualified method name; empty if no durations were recorded.
+     * @throws SQLException If the reporting database cannot be queried.
+     */
+    public static Map<String, Long> getAverageDurations(int historyDays) throws SQLException {
+        return getAverageDurations(LocalDate.now(ZoneOffset.UTC).atStartOfDay(ZoneOffset.UTC).toInstant(), historyDays);
+    }
+
+    /**
+     * Like {@link #getAverageDurations(int)}, over the {@code historyDays} days before a fixed point in time. Shards
+     * pass the same cut-off (see {@link TestShard#getDurationsUntil()}), so they read the same durations wherever and
+     * whenever each one starts.
+     *
+     * @param until       End of the history, exclusive; results stored from then on are left out.
+     * @param historyDays How many days before {@code until} to average.
+     * @return Average duration in milliseconds by class-qualified method name; empty if no durations were recorded.
+     * @throws SQLException If the reporting database cannot be queried.
+     */
+    public static Map<String, Long> getAverageDurations(Instant until, int historyDays) throws SQLException {
+        Map<String, Long> durations = new HashMap<>();
+        try (Connection conn = DataBaseConnectionUtils.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(AVERAGE_DURATION_SQL)) {
+            pstmt.setTimestamp(1, new Timestamp(until.minus(Duration.ofDays(historyDays)).toEpochMilli()));
+            pstmt.setTimestamp(2, new Timestamp(until.toEpochMilli()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    durations.put(rs.getString(1) + "." + rs.getString(2), Math.round(rs.getDouble(3)));
+                }
+            }
+        }
+        return durations;
+    }
+
+    /**
+     * Inserts the results of a spill file (see {@link FrameworkConstants#getResultSpillPath()}) into the database,
+     * e.g. when merging the outputs of several shards. Runs in the calling thread, in batches of
+     * {@link ConfigProperties#REPORT_DB_BATCH_SIZE}, each in its own transaction.
+     *
+     * @param spillFile A file of JSON lines written by this class.
+     * @return Number of results inserted.
+     * @throws IOException  If the file cannot be read.
+     * @throws SQLException If a batch cannot be inserted; the batches before it stay inserted.
+     */
+    public static int replaySpill(File spillFile) throws IOException, SQLException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<TestResultRow> batch = new ArrayList<>(BATCH_SIZE);
+        int inserted = 0;
+        try (BufferedReader reader = Files.newBufferedReader(spillFile.toPath(), StandardCharsets.UTF_8);
+             Connection conn = DataBaseConnectionUtils.getConnection()) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                Map<?, ?> row = mapper.readValue(line, Map.class);
+                Object duration = row.get("execution_duration_ms");
+                Object className = row.get("test_class_name"); // Missing in files spilled before the column was added
+                batch.add(new TestResultRow(String.valueOf(row.get("test_method_name")),
+                        Objects.isNull(className) ? null : String.valueOf(className), String.valueOf(row.get("test_status")),
+                        Timestamp.valueOf(String.valueOf(row.get("execution_timestamp"))),
+                        Objects.isNull(duration) ? null : ((Number) duration).longValue()));
+                if (batch.size() == BATCH_SIZE) {
+                    inserted += insert(conn, batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                inserted += insert(conn, batch);
+            }
+        }
+        return inserted;
+    }
+
+    private static synchronized void startWriter() {
+        if (Objects.nonNull(writer)) {
+            return;
+        }
+        writer = new Thread(ReportDatabaseController::drain, "report-db-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Background loop: waits for a first result, gives the batch up to the flush interval to fill, then writes it.
+     * Exits after writing the results queued before the {@link #STOP} marker of {@link #flush()}.
+     */
+    private static void drain() {
+        List<TestResultRow> batch = new ArrayList<>(BATCH_SIZE);
+        boolean stopped = false;
         try {
-            conn = DataBaseConnectionUtils.getMyConn();
-            if (conn == null || conn.isClosed()) {
-                System.err.println("ReportDatabaseController: Cannot store report, database connection is null or closed.");
-                return;
+            while (!stopped) {
+                TestResultRow row = QUEUE.take();
+                if (row == STOP) {
+                    return;
+                }
+                batch.add(row);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(FLUSH_INTERVAL_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    row = QUEUE.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (Objects.isNull(row)) {
+                        break;
+                    }
+                    if (row == STOP) {
+                        stopped = true;
+                        break;
+                    }
+                    batch.add(row);
+                }
+                write(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            // Anything taken but not written is written here; the rest stays queued for flush()
+            if (!batch.isEmpty()) {
+                write(batch);
             }
+            Thread.currentThread().interrupt();
+        }
+    }
 
-            pstmt = conn.prepareStatement(sql);
-            pstmt.setString(1, testMethodName);
-            pstmt.setString(2, testStatus);
-            pstmt.setTimestamp(3, new Timestamp(new Date().getTime())); // Current timestamp
-
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                System.out.println("ReportDatabaseController: Test result for '" + testMethodName + "' stored successfully in database.");
-                // FrameworkLogger.log(LogType.INFO, "Test result for '" + testMethodName + "' stored in DB.");
-            } else {
-                System.err.println("ReportDatabaseController: Failed to store test result for '" + testMethodName + "' in database (0 rows affected).");
-                // FrameworkLogger.log(LogType.WARN, "Failed to store test result for '" + testMethodName + "' in DB.");
+    private static void write(List<TestResultRow> batch) {
+        synchronized (WRITE_LOCK) {
+            if (System.currentTimeMillis() < databaseDownUntil) {
+                spill(batch);
+                return;
+            }
+            try (Connection conn = DataBaseConnectionUtils.getConnection()) { // Returned to the pool on close
+                insert(conn, batch);
+                log(DEBUG, "ReportDatabaseController: stored " + batch.size() + " test result(s) in the database.");
+            } catch (SQLException | RuntimeException e) {
+                databaseDownUntil = System.currentTimeMillis() + DATABASE_RETRY_DELAY_MS;
+                log(WARN, "ReportDatabaseController: could not store " + batch.size() + " test result(s) in the database ("
+                        + e.getMessage() + "); spilling to " + FrameworkConstants.getResultSpillPath());
+                spill(batch);
             }
+        }
+    }
 
-        } catch (SQLException e) {
-            System.err.println("ReportDatabaseController: SQL Exception while storing test report for '" + testMethodName + "': " + e.getMessage());
-            // FrameworkLogger.log(LogType.ERROR, "SQL Exception storing report for '" + testMethodName + "': " + e.getMessage());
-            // Consider whether to throw a runtime exception or just log the error.
-            // throw new RuntimeException("Failed to store test report in database for " + testMethodName, e);
-        } finally {
+    /**
+     * Inserts one batch in a transaction.
+     *
+     * @return Number of rows inserted.
+     */
+    private static int insert(Connection conn, List<TestResultRow> batch) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
             try {
-                if (pstmt != null) pstmt.close();
-                // Connection is typically managed by DataBaseConnectionUtils.
-                // If not, close it here: DataBaseConnectionUtils.closeConnection();
+                for (TestResultRow row : batch) {
+                    pstmt.setString(1, row.testMethodName);
+                    pstmt.setString(2, row.testClassName);
+                    pstmt.setString(3, row.testStatus);
+                    pstmt.setTimestamp(4, row.executionTimestamp);
+                    if (Objects.isNull(row.durationMs)) {
+                        pstmt.setNull(5, Types.BIGINT);
+                    } else {
+                        pstmt.setLong(5, row.durationMs);
+                    }
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+                conn.commit();
             } catch (SQLException e) {
-                System.err.println("ReportDatabaseController: SQL Exception while closing PreparedStatement: " + e.getMessage());
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        }
+        return batch.size();
+    }
+
+    /**
+     * Appends results as JSON lines to the spill file, so they can be loaded into the database later.
+     */
+    private static void spill(List<TestResultRow> rows) {
+        ObjectMapper mapper = new ObjectMapper();
+        File file = new File(FrameworkConstants.getResultSpillPath());
+        synchronized (SPILL_LOCK) {
+            try (Writer out = new FileWriter(file, true)) {
+                for (TestResultRow row : rows) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("test_method_name", row.testMethodName);
+                    line.put("test_class_name", row.testClassName);
+                    line.put("test_status", row.testStatus);
+                    line.put("execution_timestamp", row.executionTimestamp.toString());
+                    line.put("execution_duration_ms", row.durationMs);
+                    out.write(mapper.writeValueAsString(line));
+                    out.write(System.lineSeparator());
+                }
+            } catch (IOException e) {
+                log(WARN, "ReportDatabaseController: lost " + rows.size() + " test result(s), could not write "
+                        + file + ": " + e.getMessage());
+                return;
             }
         }
+        log(INFO, "ReportDatabaseController: spilled " + rows.size() + " test result(s) to " + file);
+    }
+
+    /**
+     * One queued test result.
+     */
+    private static final class TestResultRow {
+        private final String testMethodName;
+        private final String testClassName;
+        private final String testStatus;
+        private final Timestamp executionTimestamp;
+        private final Long durationMs;
+
+        private TestResultRow(String testMethodName, String testClassName, String testStatus, Timestamp executionTimestamp, Long durationMs) {
+            this.testMethodName = testMethodName;
+            this.testClassName = testClassName;
+            this.testStatus = testStatus;
+            this.executionTimestamp = executionTimestamp;
+            this.durationMs = durationMs;
+        }
     }
 
     // You might add other methods, for example:
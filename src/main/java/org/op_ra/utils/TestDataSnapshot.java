@@ -0,0 +1,506 @@
+package org.op_ra.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Read-only, memory-mapped binary copy of the test data of one environment ({@code <env>_testdata.bin}),
+ * converted from {@code <env>_testdata.json} by {@link #convert(File, String, File)}.
+ * <p>
+ * Rows are decoded one at a time straight from the mapped file, so opening a snapshot costs the same however many
+ * rows it holds, and {@link #getRows(String)} finds the rows of a test case by binary search on an index by
+ * {@code testcasename} instead of scanning them all.
+ * </p>
+ * Layout (big-endian, all offsets absolute):
+ * <pre>
+ * header       magic "OPTD", version, stringCount, rowCount, indexCount,
+ *              stringTableOffset, rowTableOffset, indexTableOffset            8 x int
+ * string table offset of each dictionary string                          stringCount x int
+ * strings      length (int) + UTF-8 bytes
+ * row table    offset of each row                                         rowCount x int
+ * rows         fieldCount (int), then per field: key string id (int), type (byte), value
+ * index table  offset of each index entry, sorted by lower-case testcasename   indexCount x int
+ * index        testcasename string id (int), rowCount (int), row ids (int...)
+ * </pre>
+ * Keys and string values are stored once in the dictionary. Values are typed as in the JSON (int, long, double,
+ * boolean, string, null); nested objects and arrays, and numbers too large for a long, are kept as JSON text and
+ * parsed when the row is read.
+ */
+public final class TestDataSnapshot {
+
+    private static final int MAGIC = 0x4F505444; // "OPTD"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8 * Integer.BYTES;
+    private static final String TEST_CASE_KEY = "testcasename";
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_STRING = 1;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_LONG = 3;
+    private static final byte TYPE_DOUBLE = 4;
+    private static final byte TYPE_TRUE = 5;
+    private static final byte TYPE_FALSE = 6;
+    private static final byte TYPE_JSON = 7;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<LinkedHashMap<String, Object>>() {
+    };
+
+    // Last snapshot opened by forJson(), reused while its file is unchanged
+    private static TestDataSnapshot current;
+
+    private final File file;
+    private final long lastModified;
+    private final ByteBuffer buffer;
+    private final String[] strings; // Decoded dictionary strings, filled on first use
+    private final int rowCount;
+    private final int indexCount;
+    private final int stringTableOffset;
+    private final int rowTableOffset;
+    private final int indexTableOffset;
+
+    private TestDataSnapshot(File file, ByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.lastModified = file.lastModified();
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException(file + " is not a test-data snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException(file + " has snapshot version " + buffer.getInt(4) + ", expected " + VERSION);
+        }
+        this.strings = new String[buffer.getInt(8)];
+        this.rowCount = buffer.getInt(12);
+        this.indexCount = buffer.getInt(16);
+        this.stringTableOffset = buffer.getInt(20);
+        this.rowTableOffset = buffer.getInt(24);
+        this.indexTableOffset = buffer.getInt(28);
+    }
+
+    /**
+     * Maps a snapshot file.
+     *
+     * @param file A file written by {@link #convert(File, String, File)}.
+     * @return The mapped snapshot.
+     * @throws IOException if the file cannot be read or is not a snapshot of this version.
+     */
+    public static TestDataSnapshot open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(file + " is larger than 2 GB and cannot be mapped");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new TestDataSnapshot(file, buffer);
+        }
+    }
+
+    /**
+     * Returns the snapshot of the given JSON test-data file, converting it first if the snapshot is missing or older
+     * than the JSON. The snapshot is written next to the JSON with a {@code .bin} extension.
+     *
+     * @param jsonFile    The {@code <env>_testdata.json} file.
+     * @param environment The environment whose data is converted.
+     * @return The mapped snapshot.
+     * @throws IOException if the JSON cannot be converted or the snapshot cannot be read.
+     */
+    public static synchronized TestDataSnapshot forJson(File jsonFile, String environment) throws IOException {
+        File snapshotFile = new File(jsonFile.getPath().replaceFirst("\\.json$", "") + ".bin");
+        if (jsonFile.exists() && (!snapshotFile.exists() || snapshotFile.lastModified() < jsonFile.lastModified())) {
+            convert(jsonFile, environment, snapshotFile);
+        }
+        if (Objects.isNull(current) || !current.file.equals(snapshotFile) || current.lastModified != snapshotFile.lastModified()) {
+            current = open(snapshotFile);
+        }
+        return current;
+    }
+
+    /**
+     * Converts the data of one environment in a test-data JSON file ({@code {env: {group: [row, ...], ...}}}) to a
+     * snapshot. Rows are read one at a time, so the JSON is never fully loaded. The snapshot is written to a temporary
+     * file and moved into place, so readers never see a partial file.
+     *
+     * @param jsonFile     The JSON test data.
+     * @param environment  The environment to convert; rows of other environments are skipped.
+     * @param snapshotFile The snapshot to write.
+     * @throws IOException if the JSON cannot be read or the snapshot written.
+     */
+    public static void convert(File jsonFile, String environment, File snapshotFile) throws IOException {
+        long start = System.currentTimeMillis();
+        File rowsFile = File.createTempFile("." + snapshotFile.getName() + "-rows", ".tmp", snapshotFile.getAbsoluteFile().getParentFile());
+        File tmpFile = new File(snapshotFile.getPath() + ".tmp");
+        try {
+            Dictionary dictionary = new Dictionary();
+            List<Integer> rowOffsets = new ArrayList<>();
+            Map<String, List<Integer>> index = new TreeMap<>();
+            int rowsSize = writeRows(jsonFile, environment, rowsFile, dictionary, rowOffsets, index);
+            List<Integer> indexNames = new ArrayList<>(index.size());
+            for (String name : index.keySet()) {
+                indexNames.add(dictionary.id(name));
+            }
+
+            // Upper bound of the file size: offsets are ints, so the snapshot must stay below 2 GB
+            long maxSize = HEADER_SIZE + dictionary.size() * (long) Integer.BYTES + dictionary.byteSize()
+                    + rowOffsets.size() * 2L * Integer.BYTES + rowsSize + index.size() * 3L * Integer.BYTES;
+            if (maxSize > Integer.MAX_VALUE) {
+                throw new IOException("Test data of " + jsonFile + " is too large for a snapshot (" + maxSize + " bytes)");
+            }
+            int stringTableOffset = HEADER_SIZE;
+            int stringsOffset = stringTableOffset + dictionary.size() * Integer.BYTES;
+            int rowTableOffset = stringsOffset + (int) dictionary.byteSize();
+            int rowsOffset = rowTableOffset + rowOffsets.size() * Integer.BYTES;
+            int indexTableOffset = rowsOffset + rowsSize;
+            int indexOffset = indexTableOffset + index.size() * Integer.BYTES;
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmpFile)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(dictionary.size());
+                out.writeInt(rowOffsets.size());
+                out.writeInt(index.size());
+                out.writeInt(stringTableOffset);
+                out.writeInt(rowTableOffset);
+                out.writeInt(indexTableOffset);
+
+                int offset = stringsOffset;
+                for (byte[] string : dictionary.bytes) {
+                    out.writeInt(offset);
+                    offset += Integer.BYTES + string.length;
+                }
+                for (byte[] string : dictionary.bytes) {
+                    out.writeInt(string.length);
+                    out.write(string);
+                }
+
+                for (int rowOffset : rowOffsets) {
+                    out.writeInt(rowsOffset + rowOffset);
+                }
+                try (InputStream rows = new BufferedInputStream(new FileInputStream(rowsFile))) {
+                    copy(rows, out);
+                }
+
+                offset = indexOffset;
+                for (List<Integer> rowIds : index.values()) {
+                    out.writeInt(offset);
+                    offset += (2 + rowIds.size()) * Integer.BYTES;
+                }
+                int i = 0;
+                for (List<Integer> rowIds : index.values()) {
+                    out.writeInt(indexNames.get(i++));
+                    out.writeInt(rowIds.size());
+                    for (int rowId : rowIds) {
+                        out.writeInt(rowId);
+                    }
+                }
+            }
+            Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            log(INFO, "Converted " + rowOffsets.size() + " test-data row(s) of " + jsonFile + " to " + snapshotFile
+                    + " in " + (System.currentTimeMillis() - start) + " ms");
+        } finally {
+            Files.deleteIfExists(rowsFile.toPath());
+            Files.deleteIfExists(tmpFile.toPath());
+        }
+    }
+
+    /**
+     * @return Number of rows in the snapshot.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Decodes one row.
+     *
+     * @param rowId Row number, from 0 to {@link #getRowCount()} - 1, in the order of the JSON.
+     * @return The row as a new, modifiable map in the key order of the JSON.
+     */
+    public Map<String, Object> getRow(int rowId) {
+        int position = buffer.getInt(rowTableOffset + rowId * Integer.BYTES);
+        int fieldCount = buffer.getInt(position);
+        position += Integer.BYTES;
+        Map<String, Object> row = new LinkedHashMap<>(Math.max(16, fieldCount * 2));
+        for (int i = 0; i < fieldCount; i++) {
+            String key = string(buffer.getInt(position));
+            byte type = buffer.get(position + Integer.BYTES);
+            position += Integer.BYTES + 1;
+            switch (type) {
+                case TYPE_STRING:
+                    row.put(key, string(buffer.getInt(position)));
+                    position += Integer.BYTES;
+                    break;
+                case TYPE_INT:
+                    row.put(key, buffer.getInt(position));
+                    position += Integer.BYTES;
+                    break;
+                case TYPE_LONG:
+                    row.put(key, buffer.getLong(position));
+                    position += Long.BYTES;
+                    break;
+                case TYPE_DOUBLE:
+                    row.put(key, buffer.getDouble(position));
+                    position += Double.BYTES;
+                    break;
+                case TYPE_TRUE:
+                    row.put(key, Boolean.TRUE);
+                    break;
+                case TYPE_FALSE:
+                    row.put(key, Boolean.FALSE);
+                    break;
+                case TYPE_JSON:
+                    row.put(key, parseJson(string(buffer.getInt(position))));
+                    position += Integer.BYTES;
+                    break;
+                default:
+                    row.put(key, null);
+                    break;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * @return Every row, decoded as it is accessed.
+     */
+    public List<Map<String, Object>> getRows() {
+        return new AbstractList<Map<String, Object>>() {
+            @Override
+            public Map<String, Object> get(int rowId) {
+                return TestDataSnapshot.this.getRow(rowId);
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    /**
+     * Returns the rows of one test case, found through the {@code testcasename} index.
+     *
+     * @param testCaseName The test case name, matched case-insensitively.
+     * @return The rows of the test case in the order of the JSON, or an empty list if it has none.
+     */
+    public List<Map<String, Object>> getRows(String testCaseName) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        iterateRows(testCaseName).forEachRemaining(rows::add);
+        return rows;
+    }
+
+    /**
+     * Like {@link #getRows(String)}, but decodes each row only when the iterator reaches it.
+     *
+     * @param testCaseName The test case name, matched case-insensitively.
+     * @return An iterator over the rows of the test case in the order of the JSON.
+     */
+    public Iterator<Map<String, Object>> iterateRows(String testCaseName) {
+        int position = findIndexEntry(testCaseName.toLowerCase(Locale.ROOT));
+        int count = position < 0 ? 0 : buffer.getInt(position + Integer.BYTES);
+        return new Iterator<Map<String, Object>>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getRow(buffer.getInt(position + (2 + next++) * Integer.BYTES));
+            }
+        };
+    }
+
+    /**
+     * @return Position of the index entry of the lower-case test case name, or -1 if there is none.
+     */
+    private int findIndexEntry(String name) {
+        int low = 0;
+        int high = indexCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = buffer.getInt(indexTableOffset + middle * Integer.BYTES);
+            int comparison = string(buffer.getInt(position)).compareTo(name);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private String string(int id) {
+        String string = strings[id];
+        if (Objects.isNull(string)) {
+            int position = buffer.getInt(stringTableOffset + id * Integer.BYTES);
+            byte[] bytes = new byte[buffer.getInt(position)];
+            ByteBuffer view = buffer.duplicate(); // Own position, so concurrent readers do not interfere
+            view.position(position + Integer.BYTES);
+            view.get(bytes);
+            string = new String(bytes, StandardCharsets.UTF_8);
+            strings[id] = string; // Benign race: every thread decodes the same value
+        }
+        return string;
+    }
+
+    private static Object parseJson(String json) {
+        try {
+            return MAPPER.readValue(json, Object.class);
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt JSON value in test-data snapshot: " + json, e);
+        }
+    }
+
+    /**
+     * Streams the rows of the environment to {@code rowsFile}, filling the dictionary, the offset of each row
+     * (relative to the start of the rows section) and the testcasename index.
+     *
+     * @return Size of the rows section in bytes.
+     */
+    private static int writeRows(File jsonFile, String environment, File rowsFile, Dictionary dictionary,
+                                 List<Integer> rowOffsets, Map<String, List<Integer>> index) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(jsonFile);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(rowsFile)))) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT, jsonFile);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean wanted = parser.getCurrentName().equals(environment);
+                parser.nextToken();
+                if (!wanted) {
+                    parser.skipChildren();
+                    continue;
+                }
+                expect(parser.currentToken(), JsonToken.START_OBJECT, jsonFile);
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    expect(parser.nextToken(), JsonToken.START_ARRAY, jsonFile);
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        Map<String, Object> row = parser.readValueAs(ROW_TYPE);
+                        int rowId = rowOffsets.size();
+                        rowOffsets.add(out.size());
+                        writeRow(row, out, dictionary);
+                        Object testCaseName = row.get(TEST_CASE_KEY);
+                        if (Objects.nonNull(testCaseName)) {
+                            index.computeIfAbsent(String.valueOf(testCaseName).toLowerCase(Locale.ROOT), k -> new ArrayList<>())
+                                    .add(rowId);
+                        }
+                    }
+                }
+            }
+            return out.size();
+        }
+    }
+
+    private static void writeRow(Map<String, Object> row, DataOutputStream out, Dictionary dictionary) throws IOException {
+        out.writeInt(row.size());
+        for (Map.Entry<String, Object> field : row.entrySet()) {
+            out.writeInt(dictionary.id(field.getKey()));
+            Object value = field.getValue();
+            if (Objects.isNull(value)) {
+                out.writeByte(TYPE_NULL);
+            } else if (value instanceof String) {
+                out.writeByte(TYPE_STRING);
+                out.writeInt(dictionary.id((String) value));
+            } else if (value instanceof Integer) {
+                out.writeByte(TYPE_INT);
+                out.writeInt((Integer) value);
+            } else if (value instanceof Long) {
+                out.writeByte(TYPE_LONG);
+                out.writeLong((Long) value);
+            } else if (value instanceof Double) {
+                out.writeByte(TYPE_DOUBLE);
+                out.writeDouble((Double) value);
+            } else if (value instanceof Boolean) {
+                out.writeByte((Boolean) value ? TYPE_TRUE : TYPE_FALSE);
+            } else if (value instanceof BigInteger || value instanceof BigDecimal || value instanceof Map || value instanceof List) {
+                out.writeByte(TYPE_JSON);
+                out.writeInt(dictionary.id(MAPPER.writeValueAsString(value)));
+            } else {
+                out.writeByte(TYPE_STRING);
+                out.writeInt(dictionary.id(String.valueOf(value)));
+            }
+        }
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected, File jsonFile) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Unexpected " + actual + " in " + jsonFile + ", expected " + expected);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] chunk = new byte[64 * 1024];
+        int read;
+        while ((read = in.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+    }
+
+    /**
+     * Distinct strings of the snapshot, numbered in order of first use.
+     */
+    private static final class Dictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<byte[]> bytes = new ArrayList<>();
+        private long byteSize;
+
+        private int id(String string) {
+            Integer id = ids.get(string);
+            if (Objects.isNull(id)) {
+                id = bytes.size();
+                byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+                ids.put(string, id);
+                bytes.add(encoded);
+                byteSize += Integer.BYTES + encoded.length;
+            }
+            return id;
+        }
+
+        private int size() {
+            return bytes.size();
+        }
+
+        private long byteSize() {
+            return byteSize;
+        }
+    }
+}
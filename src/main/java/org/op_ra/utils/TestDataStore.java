@@ -0,0 +1,264 @@
+package org.op_ra.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.enums.LogType.WARN;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * In-memory copy of the test-data tables, loaded once at suite start so tests do not query the database themselves.
+ * <p>
+ * The tables to load are the {@code "prefetchqueries"} group of the SQL query JSON
+ * ({@link JsonUtils#getQueryDetails(String)} with type "prefetch"): each entry maps a table name to the query
+ * loading it, normally {@code SELECT * FROM <table>}. With {@link ConfigProperties#TEST_DATA_PREFETCH}:
+ * </p>
+ * <ul>
+ *     <li>{@code database} - the queries run in parallel on the connection pool, and the rows are also written to
+ *     {@link FrameworkConstants#getTestDataSnapshotPath()};</li>
+ *     <li>{@code snapshot} - the rows are read from that file, so the suite can run without the database;</li>
+ *     <li>{@code off} (default) - nothing is loaded and every lookup goes to the database.</li>
+ * </ul>
+ * Rows are indexed by table and column on first lookup of that column, so {@link #getRow(String, String, String)}
+ * is a hash lookup. {@link DatabaseQueryExecutor#retrieveRowData(String, Object...)} answers simple lookups
+ * ({@code SELECT * FROM <table> WHERE <column> = <value>}) on a loaded table from here.
+ */
+public final class TestDataStore {
+
+    // SELECT * FROM table WHERE column = 'text' | integer [LIMIT 1][;] - the lookups retrieveRowData can answer from the store
+    private static final Pattern SIMPLE_LOOKUP = Pattern.compile(
+            "(?i)^\\s*select\\s+\\*\\s+from\\s+(\\w+)\\s+where\\s+(\\w+)\\s*=\\s*(?:'([^']*)'|([^\\s';]+))(?:\\s+limit\\s+1)?\\s*;?\\s*$");
+    // Unquoted values answered from the store: integers written the way the database returns them, so a string
+    // comparison gives the same answer as the database's numeric one
+    private static final Pattern PLAIN_INTEGER = Pattern.compile("-?(?:0|[1-9]\\d*)");
+
+    private static final Map<String, Table> TABLES = new ConcurrentHashMap<>();
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TestDataStore() {
+        // Private constructor
+    }
+
+    /**
+     * Loads the test data as configured by {@link ConfigProperties#TEST_DATA_PREFETCH}.
+     * Called from {@link org.op_ra.listeners.ListenerClass#onStart(org.testng.ISuite)}. Failures are logged and leave
+     * the affected tables unloaded, so their lookups fall back to the database.
+     */
+    public static void prefetch() {
+        String mode = PropertyUtils.getValueOrDefault(ConfigProperties.TEST_DATA_PREFETCH, "off").trim().toLowerCase(Locale.ROOT);
+        if ("database".equals(mode)) {
+            loadFromDatabase();
+        } else if ("snapshot".equals(mode)) {
+            loadFromSnapshot();
+        } else if (!"off".equals(mode) && !mode.isEmpty()) {
+            log(WARN, "Unknown test_data_prefetch value '" + mode + "'; expected off, database or snapshot");
+        }
+    }
+
+    /**
+     * @param table Name of a prefetched table (case-insensitive).
+     * @return Whether the table was loaded.
+     */
+    public static boolean isLoaded(String table) {
+        return TABLES.containsKey(key(table));
+    }
+
+    /**
+     * Returns the first row of a loaded table whose column has the given value.
+     *
+     * @param table  Name of a prefetched table (case-insensitive).
+     * @param column Column to match (case-insensitive).
+     * @param value  Value to match, compared as a string.
+     * @return The row, an empty map if no row matches, or {@code null} if the table was not loaded.
+     */
+    public static Map<String, String> getRow(String table, String column, String value) {
+        Table loaded = TABLES.get(key(table));
+        if (Objects.isNull(loaded)) {
+            return null;
+        }
+        List<Map<String, String>> rows = loaded.index(column).get(value);
+        return Objects.isNull(rows) ? Collections.emptyMap() : rows.get(0);
+    }
+
+    /**
+     * @param table Name of a prefetched table (case-insensitive).
+     * @return All rows of the table, or an empty list if it was not loaded.
+     */
+    public static List<Map<String, String>> getRows(String table) {
+        Table loaded = TABLES.get(key(table));
+        return Objects.isNull(loaded) ? Collections.emptyList() : loaded.rows;
+    }
+
+    /**
+     * Drops every loaded table.
+     */
+    public static void clear() {
+        TABLES.clear();
+    }
+
+    /**
+     * Answers a simple lookup query from a loaded table: {@code SELECT * FROM <table> WHERE <column> = <value>},
+     * optionally followed by {@code LIMIT 1} and a semicolon, where the value is a quoted string without embedded
+     * quotes or a plain integer. Any other query, e.g. with further conditions, a different limit or an unknown
+     * column, is left to the database.
+     *
+     * @return The row (empty if none matches), or {@code null} if the query is not a simple lookup on a loaded table.
+     */
+    static Map<String, String> findRow(String query) {
+        if (TABLES.isEmpty()) {
+            return null;
+        }
+        Matcher matcher = SIMPLE_LOOKUP.matcher(query);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String value = Objects.nonNull(matcher.group(3)) ? matcher.group(3) : matcher.group(4);
+        if (Objects.isNull(matcher.group(3)) && !PLAIN_INTEGER.matcher(value).matches()) {
+            return null;
+        }
+        Table loaded = TABLES.get(key(matcher.group(1)));
+        if (Objects.isNull(loaded) || !loaded.hasColumn(matcher.group(2))) {
+            return null;
+        }
+        return getRow(matcher.group(1), matcher.group(2), value);
+    }
+
+    /**
+     * Replaces the loaded copy of a table.
+     */
+    static void load(String table, List<Map<String, String>> rows) {
+        TABLES.put(key(table), new Table(rows));
+    }
+
+    /**
+     * Drops the loaded copy of a table changed by a DML statement, so its lookups go to the database again.
+     */
+    static void invalidate(String table) {
+        if (Objects.isNull(table)) {
+            TABLES.clear();
+        } else {
+            TABLES.remove(key(table));
+        }
+    }
+
+    private static void loadFromDatabase() {
+        Map<String, Object> queries = JsonUtils.getQueryDetails("prefetch");
+        if (queries.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        int threads = Math.min(queries.size(), (int) PropertyUtils.getLongOrDefault(ConfigProperties.DB_POOL_MAX_SIZE, 10));
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        Map<String, Future<List<Map<String, String>>>> futures = new LinkedHashMap<>();
+        try {
+            for (Map.Entry<String, Object> query : queries.entrySet()) {
+                futures.put(query.getKey(), executor.submit(() -> DatabaseQueryExecutor.selectRows(String.valueOf(query.getValue()), 0)));
+            }
+            Map<String, List<Map<String, String>>> snapshot = new LinkedHashMap<>();
+            for (Map.Entry<String, Future<List<Map<String, String>>>> future : futures.entrySet()) {
+                try {
+                    List<Map<String, String>> rows = future.getValue().get();
+                    load(future.getKey(), rows);
+                    snapshot.put(future.getKey(), rows);
+                } catch (ExecutionException e) {
+                    log(WARN, "Could not prefetch test data '" + future.getKey() + "': " + e.getCause().getMessage());
+                }
+            }
+            log(INFO, "Prefetched " + snapshot.size() + " test-data table(s) in " + (System.currentTimeMillis() - start) + " ms");
+            writeSnapshot(snapshot);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void writeSnapshot(Map<String, List<Map<String, String>>> snapshot) {
+        try {
+            new ObjectMapper().writeValue(new File(FrameworkConstants.getTestDataSnapshotPath()), snapshot);
+        } catch (IOException e) {
+            log(WARN, "Could not write test-data snapshot " + FrameworkConstants.getTestDataSnapshotPath() + ": " + e.getMessage());
+        }
+    }
+
+    private static void loadFromSnapshot() {
+        File file = new File(FrameworkConstants.getTestDataSnapshotPath());
+        try {
+            Map<String, List<Map<String, String>>> snapshot =
+                    new ObjectMapper().readValue(file, new TypeReference<Map<String, List<Map<String, String>>>>() {
+                    });
+            for (Map.Entry<String, List<Map<String, String>>> table : snapshot.entrySet()) {
+                List<Map<String, String>> rows = new ArrayList<>(table.getValue().size());
+                for (Map<String, String> row : table.getValue()) {
+                    Map<String, String> copy = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    copy.putAll(row);
+                    rows.add(Collections.unmodifiableMap(copy));
+                }
+                load(table.getKey(), rows);
+            }
+            log(INFO, "Loaded " + snapshot.size() + " test-data table(s) from " + file);
+        } catch (IOException e) {
+            log(WARN, "Could not read test-data snapshot " + file + ": " + e.getMessage());
+        }
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Rows of one table, with a hash index per looked-up column.
+     */
+    private static final class Table {
+        private final List<Map<String, String>> rows;
+        private final Map<String, Map<String, List<Map<String, String>>>> indexes = new ConcurrentHashMap<>();
+
+        private Table(List<Map<String, String>> rows) {
+            this.rows = Collections.unmodifiableList(rows);
+        }
+
+        /**
+         * Whether the rows have the column; a table without rows is taken to have every column, as no lookup on it
+         * can match.
+         */
+        private boolean hasColumn(String column) {
+            return rows.isEmpty() || rows.get(0).containsKey(column);
+        }
+
+        private Map<String, List<Map<String, String>>> index(String column) {
+            return indexes.computeIfAbsent(key(column), ignored -> {
+                Map<String, List<Map<String, String>>> index = new ConcurrentHashMap<>();
+                for (Map<String, String> row : rows) {
+                    String value = row.get(column);
+                    if (Objects.nonNull(value)) {
+                        index.computeIfAbsent(value, v -> new ArrayList<>()).add(row);
+                    }
+                }
+                return index;
+            });
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package org.op_ra.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.enums.ConfigProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.SplittableRandom;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * Streams the test data rows of one test method, reading them incrementally instead of loading them all, for data
+ * sweeps with too many rows to hold in memory. Used by {@link DataProviderUtils#streamTestData(java.lang.reflect.Method)}.
+ * <p>
+ * The source is {@link ConfigProperties#DATA_STREAM_SOURCE}:
+ * </p>
+ * <ul>
+ *     <li>{@code snapshot} (default) - rows decoded one at a time from the memory-mapped {@link TestDataSnapshot};</li>
+ *     <li>{@code json} - rows parsed one at a time from {@code <env>_testdata.json};</li>
+ *     <li>{@code database} - rows read through a JDBC cursor from the query named after the test method in the
+ *     {@code "streamqueries"} group of the SQL query JSON. The cursor holds one pooled connection until the last row
+ *     is read.</li>
+ * </ul>
+ * Rows of the test case with {@code execute} other than "yes" are skipped. The remaining rows can be split across
+ * machines with {@link ConfigProperties#DATA_STREAM_SHARD_COUNT} / {@link ConfigProperties#DATA_STREAM_SHARD_INDEX}
+ * (row {@code n} goes to shard {@code n % count}), then sampled with {@link ConfigProperties#DATA_STREAM_SAMPLE_RATE}:
+ * each row is kept with that probability, drawn from {@link ConfigProperties#DATA_STREAM_SAMPLE_SEED} so a run can be
+ * repeated. All five keys can be overridden with system properties, e.g. {@code -Ddata.stream.sample.rate=0.01}.
+ */
+public final class TestDataStream {
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TestDataStream() {
+        // Private constructor
+    }
+
+    /**
+     * Opens the configured source for one test case.
+     *
+     * @param testCaseName The test case (method) name.
+     * @return An iterator over the selected rows; sources holding files or connections release them at the end.
+     */
+    public static Iterator<Map<String, Object>> open(String testCaseName) {
+        String source = source();
+        Iterator<Map<String, Object>> rows;
+        switch (source) {
+            case "snapshot":
+                rows = fromSnapshot(testCaseName);
+                break;
+            case "json":
+                rows = new JsonRows(new File(FrameworkConstants.getTestDataJsonFilePath()), FrameworkConstants.getEnvironment(), testCaseName);
+                break;
+            case "database":
+                rows = fromDatabase(testCaseName);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown data_stream_source '" + source + "'. Use snapshot, json or database");
+        }
+        int shardCount = Integer.parseInt(PropertyUtils.getOverridableValue(ConfigProperties.DATA_STREAM_SHARD_COUNT, "1").trim());
+        int shardIndex = Integer.parseInt(PropertyUtils.getOverridableValue(ConfigProperties.DATA_STREAM_SHARD_INDEX, "0").trim());
+        double sampleRate = Double.parseDouble(PropertyUtils.getOverridableValue(ConfigProperties.DATA_STREAM_SAMPLE_RATE, "1").trim());
+        long seed = Long.parseLong(PropertyUtils.getOverridableValue(ConfigProperties.DATA_STREAM_SAMPLE_SEED, "0").trim());
+        if (shardCount < 1 || shardIndex < 0 || shardIndex >= shardCount) {
+            throw new IllegalArgumentException("data_stream_shard_index must be between 0 and data_stream_shard_count - 1: "
+                    + shardIndex + " of " + shardCount);
+        }
+        if (sampleRate <= 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("data_stream_sample_rate must be in (0, 1]: " + sampleRate);
+        }
+        log(INFO, "Streaming test data of " + testCaseName + " from " + source + " (shard " + shardIndex + "/" + shardCount
+                + ", sample rate " + sampleRate + ")");
+        return new Selection(rows, shardIndex, shardCount, sampleRate, new SplittableRandom(seed ^ testCaseName.hashCode()));
+    }
+
+    /**
+     * @return Whether the configured source reads the test-data JSON file (the snapshot and json sources).
+     */
+    static boolean readsTestDataJson() {
+        return !"database".equals(source());
+    }
+
+    private static String source() {
+        return PropertyUtils.getOverridableValue(ConfigProperties.DATA_STREAM_SOURCE, "snapshot").trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Iterator<Map<String, Object>> fromSnapshot(String testCaseName) {
+        try {
+            File jsonFile = new File(FrameworkConstants.getTestDataJsonFilePath());
+            return TestDataSnapshot.forJson(jsonFile, FrameworkConstants.getEnvironment()).iterateRows(testCaseName);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open the test-data snapshot: " + e.getMessage(), e);
+        }
+    }
+
+    private static Iterator<Map<String, Object>> fromDatabase(String testCaseName) {
+        Object query = null;
+        for (Map.Entry<String, Object> entry : JsonUtils.getQueryDetails("stream").entrySet()) {
+            if (entry.getKey().equalsIgnoreCase(testCaseName)) {
+                query = entry.getValue();
+            }
+        }
+        if (Objects.isNull(query)) {
+            log(INFO, "No query for " + testCaseName + " in the \"streamqueries\" group; no rows to stream");
+            return Collections.emptyIterator();
+        }
+        return new CursorRows(String.valueOf(query), (int) PropertyUtils.getLongOrDefault(ConfigProperties.JDBC_FETCH_SIZE, 1_000));
+    }
+
+    /**
+     * Base of the sources: subclasses compute the next row on demand, returning {@code null} at the end.
+     */
+    private abstract static class LazyIterator implements Iterator<Map<String, Object>> {
+        private Map<String, Object> next;
+        private boolean done;
+
+        /**
+         * @return The next row, or {@code null} if there are no more.
+         */
+        protected abstract Map<String, Object> computeNext();
+
+        @Override
+        public boolean hasNext() {
+            if (Objects.isNull(next) && !done) {
+                next = computeNext();
+                done = Objects.isNull(next);
+            }
+            return !done;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Map<String, Object> row = next;
+            next = null;
+            return row;
+        }
+    }
+
+    /**
+     * Applies the execute flag, the shard and the sample to the rows of a source.
+     */
+    private static final class Selection extends LazyIterator {
+        private final Iterator<Map<String, Object>> rows;
+        private final int shardIndex;
+        private final int shardCount;
+        private final double sampleRate;
+        private final SplittableRandom random;
+        private long position;
+
+        private Selection(Iterator<Map<String, Object>> rows, int shardIndex, int shardCount, double sampleRate, SplittableRandom random) {
+            this.rows = rows;
+            this.shardIndex = shardIndex;
+            this.shardCount = shardCount;
+            this.sampleRate = sampleRate;
+            this.random = random;
+        }
+
+        @Override
+        protected Map<String, Object> computeNext() {
+            while (rows.hasNext()) {
+                Map<String, Object> row = rows.next();
+                Object execute = row.get("execute");
+                if (Objects.nonNull(execute) && !String.valueOf(execute).equalsIgnoreCase("yes")) {
+                    continue;
+                }
+                if (position++ % shardCount != shardIndex) {
+                    continue;
+                }
+                if (sampleRate < 1 && random.nextDouble() >= sampleRate) {
+                    continue;
+                }
+                return row;
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Rows of one test case read from the environment's test-data JSON with a streaming parser.
+     */
+    private static final class JsonRows extends LazyIterator {
+        private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<LinkedHashMap<String, Object>>() {
+        };
+
+        private final File file;
+        private final String environment;
+        private final String testCaseName;
+        private JsonParser parser;
+        private int depth; // 0 = before the environment, 1 = in it between groups, 2 = in a group's array
+
+        private JsonRows(File file, String environment, String testCaseName) {
+            this.file = file;
+            this.environment = environment;
+            this.testCaseName = testCaseName;
+        }
+
+        @Override
+        protected Map<String, Object> computeNext() {
+            try {
+                if (Objects.isNull(parser)) {
+                    parser = new ObjectMapper().getFactory().createParser(file);
+                    if (!seekEnvironment()) {
+                        return close();
+                    }
+                }
+                while (true) {
+                    if (depth == 1) {
+                        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+                            return close(); // End of the environment
+                        }
+                        parser.nextToken(); // Start of the group's array
+                        depth = 2;
+                    }
+                    if (parser.nextToken() != JsonToken.START_OBJECT) {
+                        depth = 1; // End of the group's array
+                        continue;
+                    }
+                    Map<String, Object> row = parser.readValueAs(ROW_TYPE);
+                    if (String.valueOf(row.get("testcasename")).equalsIgnoreCase(testCaseName)) {
+                        return row;
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Could not read test data from " + file + ": " + e.getMessage(), e);
+            }
+        }
+
+        private boolean seekEnvironment() throws IOException {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                boolean wanted = parser.getCurrentName().equals(environment);
+                parser.nextToken();
+                if (wanted) {
+                    depth = 1;
+                    return true;
+                }
+                parser.skipChildren();
+            }
+            return false;
+        }
+
+        private Map<String, Object> close() {
+            try {
+                if (Objects.nonNull(parser)) {
+                    parser.close();
+                }
+            } catch (IOException ignored) {
+                // Read-only file
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Rows read through a forward-only JDBC cursor, fetched {@code fetchSize} at a time.
+     */
+    private static final class CursorRows extends LazyIterator {
+        private final String query;
+        private final int fetchSize;
+        private Connection connection;
+        private Statement statement;
+        private ResultSet resultSet;
+
+        private CursorRows(String query, int fetchSize) {
+            this.query = query;
+            this.fetchSize = fetchSize;
+        }
+
+        @Override
+        protected Map<String, Object> computeNext() {
+            try {
+                if (Objects.isNull(resultSet)) {
+                    connection = DataBaseConnectionUtils.getConnection();
+                    connection.setAutoCommit(false); // Some drivers (e.g. PostgreSQL) only use a cursor inside a transaction
+                    statement = connection.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(fetchSize);
+                    resultSet = statement.executeQuery(query);
+                }
+                if (!resultSet.next()) {
+                    return close();
+                }
+                ResultSetMetaData metaData = resultSet.getMetaData();
+                Map<String, Object> row = new LinkedHashMap<>();
+                for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                    row.put(metaData.getColumnLabel(i), resultSet.getObject(i));
+                }
+                return row;
+            } catch (SQLException e) {
+                close();
+                throw new RuntimeException("Failed to stream test data with query: " + query, e);
+            }
+        }
+
+        private Map<String, Object> close() {
+            try {
+                if (Objects.nonNull(statement)) {
+                    statement.close(); // Also closes the result set
+                }
+                if (Objects.nonNull(connection)) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+            } catch (SQLException ignored) {
+                // The connection is discarded by the pool if it is broken
+            } finally {
+                try {
+                    if (Objects.nonNull(connection)) {
+                        connection.close(); // Back to the pool
+                    }
+                } catch (SQLException ignored) {
+                    // Nothing left to release
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package org.op_ra.utils;
+
+import org.op_ra.enums.ConfigProperties;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import static org.op_ra.enums.LogType.INFO;
+import static org.op_ra.reports.FrameworkLogger.log;
+
+/**
+ * The shard of the suite run by this JVM, when the suite is split across several machines or containers with
+ * {@code -Dshard.total=N -Dshard.index=i} ({@link ConfigProperties#SHARD_TOTAL}, {@link ConfigProperties#SHARD_INDEX},
+ * index 0 to N-1).
+ * <p>
+ * {@link #select(List, ToLongFunction, Function)} splits the tests by expected duration: longest first, each test goes
+ * to the shard with the least expected work so far. Every shard computes the same split from the same inputs, so the
+ * shards together run each test exactly once. For the durations to be the same, every shard reads them from the
+ * results database up to the same cut-off, {@code -Dshard.durations.until} ({@link #getDurationsUntil()}), and a shard
+ * that cannot read them stops instead of splitting on its own. The outputs of a shard are named after it (see
+ * {@link org.op_ra.constants.FrameworkConstants#getReportPath()}) and are combined afterwards by
+ * {@link org.op_ra.reports.ShardReportMerger}.
+ * </p>
+ */
+public final class TestShard {
+
+    private static final int TOTAL = Integer.parseInt(PropertyUtils.getOverridableValue(ConfigProperties.SHARD_TOTAL, "1").trim());
+    private static final int INDEX = Integer.parseInt(PropertyUtils.getOverridableValue(ConfigProperties.SHARD_INDEX, "0").trim());
+
+    static {
+        if (TOTAL < 1 || INDEX < 0 || INDEX >= TOTAL) {
+            throw new IllegalArgumentException("shard_index must be between 0 and shard_total - 1: " + INDEX + " of " + TOTAL);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation of this utility class.
+     */
+    private TestShard() {
+        // Private constructor
+    }
+
+    /** @return Whether the suite is split across more than one JVM. */
+    public static boolean isSharded() {
+        return TOTAL > 1;
+    }
+
+    /** @return The shard run by this JVM, 0 to {@link #getTotal()} - 1. */
+    public static int getIndex() {
+        return INDEX;
+    }
+
+    /** @return Number of shards the suite is split into. */
+    public static int getTotal() {
+        return TOTAL;
+    }
+
+    /**
+     * Returns the end of the recorded-duration history that every shard splits by,
+     * {@link ConfigProperties#SHARD_DURATIONS_UNTIL} ({@code -Dshard.durations.until}): an ISO date, meaning the start
+     * of that day in UTC, or an ISO instant such as {@code 2026-01-31T09:15:00Z}. Pass the same value to every shard,
+     * e.g. the start time of the pipeline; results stored after it are not used.
+     *
+     * @return The cut-off.
+     * @throws IllegalStateException if the value is missing or cannot be parsed.
+     */
+    public static Instant getDurationsUntil() {
+        String until = PropertyUtils.getOverridableValue(ConfigProperties.SHARD_DURATIONS_UNTIL, "");
+        if (until.isEmpty()) {
+            throw new IllegalStateException("A sharded run needs -Dshard.durations.until (an ISO date or instant, the same on"
+                    + " every shard), so that all shards split the suite by the same recorded durations");
+        }
+        try {
+            return until.contains("T") ? Instant.parse(until) : LocalDate.parse(until).atStartOfDay(ZoneOffset.UTC).toInstant();
+        } catch (DateTimeParseException e) {
+            throw new IllegalStateException("shard_durations_until must be an ISO date or instant: " + until, e);
+        }
+    }
+
+    /**
+     * @return Suffix for the files written by this shard, e.g. {@code "_shard2of4"}; empty when not sharded.
+     */
+    public static String getFileSuffix() {
+        return isSharded() ? "_shard" + INDEX + "of" + TOTAL : "";
+    }
+
+    /**
+     * Returns the items that belong to this shard. The items are taken longest first (ties in order of name, then of
+     * the list) and each is given to the shard with the least expected duration so far, the lowest-numbered one on a
+     * tie. The result must not depend on anything that differs between the JVMs, so the durations have to come from
+     * the same data on every shard.
+     *
+     * @param items            All items, e.g. the test methods of the suite.
+     * @param expectedDuration Expected duration of an item, in any unit.
+     * @param name             Name of an item, breaking ties between equal durations.
+     * @param <T>              Type of the items.
+     * @return The items of this shard, in the order of {@code items}.
+     */
+    public static <T> List<T> select(List<T> items, ToLongFunction<T> expectedDuration, Function<T, String> name) {
+        if (!isSharded()) {
+            return items;
+        }
+        List<T> ordered = new ArrayList<>(items);
+        ordered.sort(Comparator.comparingLong(expectedDuration).reversed().thenComparing(name));
+        // {expected duration, shard}, least loaded first
+        PriorityQueue<long[]> shards = new PriorityQueue<>((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+        for (int i = 0; i < TOTAL; i++) {
+            shards.add(new long[]{0, i});
+        }
+        Set<T> selected = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (T item : ordered) {
+            long[] shard = shards.poll();
+            shard[0] += expectedDuration.applyAsLong(item);
+            if (shard[1] == INDEX) {
+                selected.add(item);
+            }
+            shards.add(shard);
+        }
+        long own = 0;
+        long largest = 0;
+        for (long[] shard : shards) {
+            largest = Math.max(largest, shard[0]);
+            if (shard[1] == INDEX) {
+                own = shard[0];
+            }
+        }
+        List<T> result = new ArrayList<>();
+        for (T item : items) {
+            if (selected.contains(item)) {
+                result.add(item);
+            }
+        }
+        log(INFO, "Shard " + INDEX + " of " + TOTAL + ": " + result.size() + " of " + items.size()
+                + " item(s), expected duration " + own + " (largest shard " + largest + ")");
+        return result;
+    }
+}
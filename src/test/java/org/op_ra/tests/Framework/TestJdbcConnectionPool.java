@@ -0,0 +1,124 @@
+package org.op_ra.tests.Framework;
+
+import org.assertj.core.api.Assertions;
+import org.op_ra.utils.JdbcConnectionPool;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks of {@link JdbcConnectionPool} against a temporary SQLite database: returned connections are reset, the pool
+ * never holds more than its maximum size while the housekeeper tops it up, and closing it leaves no connection open.
+ * Leak detection is set to 2 seconds in each pool so that the housekeeper runs every second.
+ */
+public class TestJdbcConnectionPool {
+
+    private static final long LEAK_DETECTION_MS = 2_000;
+
+    private String url;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        Path database = Files.createTempFile("jdbc-pool", ".db");
+        database.toFile().deleteOnExit();
+        url = "jdbc:sqlite:" + database;
+    }
+
+    @Test
+    public void TC001_ReturnedConnectionIsReset() throws Exception {
+        JdbcConnectionPool pool = new JdbcConnectionPool(url, null, null, 0, 1, "", 5_000, 0, 0);
+        try {
+            int isolation;
+            try (Connection connection = pool.getConnection()) {
+                isolation = connection.getTransactionIsolation();
+                connection.setAutoCommit(false);
+                connection.setTransactionIsolation(Connection.TRANSACTION_READ_UNCOMMITTED);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS reset_check (id INTEGER)");
+                    statement.execute("INSERT INTO reset_check VALUES (1)");
+                }
+            }
+            try (Connection connection = pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                Assertions.assertThat(connection.getAutoCommit()).isTrue();
+                Assertions.assertThat(connection.getTransactionIsolation()).isEqualTo(isolation);
+                Assertions.assertThat((Object) connection.getWarnings()).isNull();
+                // The uncommitted table was rolled back
+                Assertions.assertThat(statement.executeQuery(
+                        "SELECT COUNT(*) FROM sqlite_master WHERE name = 'reset_check'").getInt(1)).isZero();
+            }
+            Assertions.assertThat(pool.getMetrics().getTotal()).isEqualTo(1);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void TC002_TotalNeverExceedsMaxSizeWhileToppingUp() throws Exception {
+        int maxSize = 3;
+        JdbcConnectionPool pool = new JdbcConnectionPool(url, null, null, maxSize, maxSize, "", 10_000, LEAK_DETECTION_MS, 1_500);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger maxTotal = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(9);
+        try {
+            List<Future<?>> borrowers = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                borrowers.add(executor.submit(() -> {
+                    while (running.get()) {
+                        try (Connection connection = pool.getConnection();
+                             Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        maxTotal.accumulateAndGet(pool.getMetrics().getTotal(), Math::max);
+                    }
+                    return null;
+                }));
+            }
+            Future<?> sampler = executor.submit(() -> {
+                while (running.get()) {
+                    maxTotal.accumulateAndGet(pool.getMetrics().getTotal(), Math::max);
+                }
+            });
+            TimeUnit.MILLISECONDS.sleep(4_000); // Long enough for connections to expire and be topped up
+            running.set(false);
+            for (Future<?> borrower : borrowers) {
+                borrower.get(30, TimeUnit.SECONDS);
+            }
+            sampler.get(30, TimeUnit.SECONDS);
+
+            Assertions.assertThat(maxTotal.get()).isBetween(1, maxSize);
+            Assertions.assertThat(pool.getMetrics().getTimeouts()).isZero();
+        } finally {
+            executor.shutdownNow();
+            pool.close();
+        }
+    }
+
+    @Test
+    public void TC003_CloseLeavesNoConnectionOpen() throws Exception {
+        for (int round = 0; round < 3; round++) {
+            JdbcConnectionPool pool = new JdbcConnectionPool(url, null, null, 2, 4, "", 5_000, LEAK_DETECTION_MS, 0);
+            TimeUnit.MILLISECONDS.sleep(1_000 + round * 10L); // Close around the first top-up
+            Connection borrowed = pool.getConnection();
+            pool.close();
+            Assertions.assertThat(pool.getMetrics().getTotal()).as("open after close").isEqualTo(1);
+
+            borrowed.close();
+            Assertions.assertThat(pool.getMetrics().getTotal()).as("open after the last return").isZero();
+            Assertions.assertThat(pool.getMetrics().getIdle()).isZero();
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package org.op_ra.tests.Framework;
+
+import org.assertj.core.api.Assertions;
+import org.op_ra.constants.FrameworkConstants;
+import org.op_ra.metrics.LatencyRecorder;
+import org.op_ra.reports.ExtentLogger;
+import org.op_ra.reports.ExtentReport;
+import org.op_ra.tests.OpenService.TestOpenERX;
+import org.op_ra.utils.DataBaseConnectionUtils;
+import org.op_ra.utils.DataProviderUtils;
+import org.op_ra.utils.JsonUtils;
+import org.op_ra.utils.ReportDatabaseController;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Concurrency checks of the framework state shared by parallel tests: the Extent report, the test-data and
+ * data-provider caches, the per-thread database connections and the queued result writer.
+ * Each check runs its workload on many threads at once and asserts on what ends up in the shared state,
+ * not on timings, so a loaded agent makes it slower but not flaky.
+ * The database checks are skipped when the configured database cannot be reached.
+ * Run with {@code mvn test -Pframework-tests}.
+ */
+public class TestParallelThreadSafety {
+
+    private static final int THREADS = 32;
+    private static final int TASKS = 256;
+    private static final int ENTRIES_PER_TEST = 5;
+
+    private Path workDir;
+    private Path template;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        ExtentReport.initReports("FRAMEWORK_STRESS");
+        workDir = Files.createTempDirectory("parallel-stress");
+        template = workDir.resolve("template.json");
+        Files.write(template, "{\"id\": 0, \"name\": \"\", \"nested\": {\"name\": \"\"}, \"items\": [{\"id\": 0}]}"
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void TC001_SameResultsOnOneAndThirtyTwoThreads() throws Exception {
+        Map<Integer, String> sequential = runTasks(1, TASKS, task -> runWorkload(1, task));
+        Map<Integer, String> parallel = runTasks(THREADS, TASKS, task -> runWorkload(THREADS, task));
+
+        Assertions.assertThat(parallel).hasSize(TASKS).isEqualTo(sequential);
+    }
+
+    @Test
+    public void TC002_EveryTestAndLogEntryReportedOnce() throws Exception {
+        String run = UUID.randomUUID().toString();
+        runTasks(THREADS, TASKS, task -> {
+            ExtentReport.createTest(testName(run, task));
+            for (int entry = 0; entry < ENTRIES_PER_TEST; entry++) {
+                ExtentLogger.info(entryText(run, task, entry));
+            }
+            ExtentReport.endTest();
+            return null;
+        });
+        ExtentReport.flushReports();
+
+        String html = new String(Files.readAllBytes(Paths.get(FrameworkConstants.getReportPath())), StandardCharsets.UTF_8);
+        for (int task = 0; task < TASKS; task++) {
+            Assertions.assertThat(count(html, "<p class=\"name\">" + testName(run, task) + "</p>"))
+                    .as("tests named %s", testName(run, task)).isEqualTo(1);
+            for (int entry = 0; entry < ENTRIES_PER_TEST; entry++) {
+                Assertions.assertThat(count(html, entryText(run, task, entry)))
+                        .as("entries '%s'", entryText(run, task, entry)).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    public void TC003_ParallelDataProviderLookupsReturnTheSameRows() throws Exception {
+        requireDatabase();
+        List<Method> methods = Arrays.stream(TestOpenERX.class.getDeclaredMethods())
+                .filter(method -> method.isAnnotationPresent(Test.class))
+                .collect(Collectors.toList());
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        Map<Integer, String> lookups = runTasks(THREADS, THREADS, task -> {
+            start.await(60, TimeUnit.SECONDS); // All threads ask for the index before it is loaded
+            Map<String, List<Object>> rows = new TreeMap<>();
+            for (Method method : methods) {
+                rows.put(method.getName(), Arrays.asList(DataProviderUtils.getJsonData(method)));
+            }
+            return rows.toString();
+        });
+
+        Map<String, List<Object>> expected = new TreeMap<>();
+        List<Map<String, Object>> testData = JsonUtils.getTestDataDetails();
+        for (Method method : methods) {
+            expected.put(method.getName(), testData.stream()
+                    .filter(row -> String.valueOf(row.get("testcasename")).equalsIgnoreCase(method.getName())
+                            && String.valueOf(row.get("execute")).equalsIgnoreCase("yes"))
+                    .collect(Collectors.toList()));
+        }
+        Assertions.assertThat(lookups.values()).hasSize(THREADS).containsOnly(expected.toString());
+    }
+
+    @Test
+    public void TC004_EachThreadKeepsItsOwnConnection() throws Exception {
+        requireDatabase();
+        int threads = 4; // Held at the same time, so kept below the pool size
+        CyclicBarrier held = new CyclicBarrier(threads);
+        Set<Connection> connections = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+        runTasks(threads, threads, task -> {
+            Connection connection = DataBaseConnectionUtils.getMyConn();
+            try {
+                Assertions.assertThat(DataBaseConnectionUtils.getMyConn()).isSameAs(connection);
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery("SELECT 1")) {
+                    Assertions.assertThat(resultSet.next()).isTrue();
+                }
+                connections.add(connection);
+                held.await(60, TimeUnit.SECONDS);
+            } finally {
+                DataBaseConnectionUtils.closeConnection();
+            }
+            return null;
+        });
+
+        Assertions.assertThat(connections).hasSize(threads);
+    }
+
+    @Test
+    public void TC005_ResultsStoredInParallelAreAllWritten() throws Exception {
+        requireDatabase();
+        String prefix = "FrameworkStress_" + UUID.randomUUID().toString().replace("-", "") + "_";
+        runTasks(THREADS, TASKS, task -> {
+            ReportDatabaseController.storeReportInDatabase(prefix + task, "Pass", (long) task);
+            return null;
+        });
+        ReportDatabaseController.flush();
+
+        try (Connection connection = DataBaseConnectionUtils.getConnection()) {
+            try (PreparedStatement select = connection.prepareStatement(
+                    "SELECT test_method_name FROM test_execution_reports WHERE test_method_name LIKE ?")) {
+                select.setString(1, prefix + "%");
+                Map<String, Integer> stored = new HashMap<>();
+                try (ResultSet resultSet = select.executeQuery()) {
+                    while (resultSet.next()) {
+                        stored.merge(resultSet.getString(1), 1, Integer::sum);
+                    }
+                }
+                Assertions.assertThat(stored).hasSize(TASKS).allSatisfy((name, rows) -> Assertions.assertThat(rows).isEqualTo(1));
+            } finally {
+                try (PreparedStatement delete = connection.prepareStatement(
+                        "DELETE FROM test_execution_reports WHERE test_method_name LIKE ?")) {
+                    delete.setString(1, prefix + "%");
+                    delete.executeUpdate();
+                }
+            }
+        }
+    }
+
+    private String runWorkload(int threads, int task) {
+        ExtentReport.createTest("Stress_" + threads + "_threads_task_" + task);
+        ExtentLogger.info("Task " + task + " on " + Thread.currentThread().getName());
+
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", task);
+        data.put("name", "row-" + task);
+        String payload = JsonUtils.generatePayloadBDD(template.toString(),
+                workDir.resolve("payload_" + threads + "_" + task + ".json").toString(), data);
+
+        int queries = JsonUtils.getQueryDetails("select").size();
+        int rows = JsonUtils.getTestDataDetails().size();
+        String endpoint = LatencyRecorder.templateOf("/erx/drug/" + task + "/detail?drugId=" + task);
+        return payload.replaceAll("\\s+", "") + "|" + queries + "|" + rows + "|" + endpoint;
+    }
+
+    /**
+     * Runs {@code tasks} tasks on a pool of {@code threads} threads and returns their results by task number.
+     * A task that fails fails the test.
+     */
+    private static <T> Map<Integer, T> runTasks(int threads, int tasks, Task<T> body) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (int i = 0; i < tasks; i++) {
+                int task = i;
+                Callable<T> callable = () -> body.run(task);
+                futures.add(executor.submit(callable));
+            }
+            Map<Integer, T> results = new TreeMap<>();
+            for (int i = 0; i < tasks; i++) {
+                results.put(i, futures.get(i).get(120, TimeUnit.SECONDS));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void requireDatabase() {
+        try (Connection ignored = DataBaseConnectionUtils.getConnection()) {
+            // Reachable
+        } catch (RuntimeException | SQLException e) {
+            throw new SkipException("Database not reachable: " + e.getMessage());
+        }
+    }
+
+    private static String testName(String run, int task) {
+        return "Stress_report_" + run + "_test_" + task;
+    }
+
+    private static String entryText(String run, int task, int entry) {
+        return "stress-" + run + "-" + task + "-entry-" + entry + "-end";
+    }
+
+    private static int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * One numbered task of a workload.
+     */
+    @FunctionalInterface
+    private interface Task<T> {
+        T run(int task) throws Exception;
+    }
+}
@@ -1,6 +1,7 @@
 package org.op_ra.tests.OpenService;
 
 import org.assertj.core.api.Assertions;
+import org.op_ra.enums.ServiceType;
 import org.op_ra.requestbuilder.ApiActions;
 import org.op_ra.requestbuilder.ApiRequestBuilder;
 import org.op_ra.requestbuilder.AssertionUtils;
@@ -26,7 +27,7 @@ public class TestOpenAccessOrders {
     public void TC002_GET_AccessOrders_ExpiredToken() {
         data = DatabaseQueryExecutor.retrieveRowData("SELECT * FROM ACCESS_ORDERS WHERE requisition_id IS NOT NULL LIMIT 1;");
         String fullEndpoint = ApiActions.buildChcServiceEndpoint( "/chc/url/order/accessOrders?locationId=%s&requisitionId=%s", data.get("location_id"), data.get("requisition_id"));
-        Assertions.assertThat(ApiRequestBuilder.requestGetCallUsingInvalidToken(fullEndpoint)).isEqualTo(true);
+        Assertions.assertThat(ApiRequestBuilder.requestGetCallUsingInvalidToken(ServiceType.CHC, fullEndpoint)).isEqualTo(true);
     }
 
     @Test(groups = {"accessOrders",  "fullRegression"})
@@ -2,6 +2,8 @@ package org.op_ra.tests.OpenService;
 
 
 import org.assertj.core.api.Assertions;
+import org.op_ra.annotations.FrameworkAnnotation;
+import org.op_ra.enums.CategoryType;
 import org.op_ra.requestbuilder.ApiActions;
 import org.op_ra.requestbuilder.ApiRequestBuilder;
 import org.op_ra.requestbuilder.AssertionUtils;
@@ -60,6 +62,7 @@ public class TestOpenERX {
         Assertions.assertThat(AssertionUtils.isStatusCodeEqualTo(ApiRequestBuilder.getErxServiceResponse(fullEndpoint),404)).isEqualTo(true);
     }
 
+    @FrameworkAnnotation(category = {CategoryType.REGRESSION, CategoryType.PERFORMANCE})
     @Test(groups = {"erxResource", "highLevel", "fullRegression"})
     public void TC007_GET_Erx_GetDrugList() {
         data = DatabaseQueryExecutor.retrieveRowData("SELECT * FROM openerx WHERE ID = 2;");
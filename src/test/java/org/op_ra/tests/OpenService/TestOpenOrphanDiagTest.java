@@ -3,6 +3,7 @@ package org.op_ra.tests.OpenService;
 
 import io.restassured.response.Response;
 import org.assertj.core.api.Assertions;
+import org.op_ra.enums.ServiceType;
 import org.op_ra.requestbuilder.ApiActions;
 import org.op_ra.requestbuilder.ApiRequestBuilder;
 import org.op_ra.requestbuilder.AssertionUtils;
@@ -48,7 +49,7 @@ public class TestOpenOrphanDiagTest {
     @Test(groups = {"openOrphanDiagTestResource",  "fullRegression"})
     public void TC005_POST_OpenOrphanDiagTest_Add_Provider_Not_Authorized_Error() {
         String fullEndpoint = ApiActions.buildLabServiceEndpoint("/rest/orphanDiagnosticTests/%s/addProvider", String.valueOf(Integer.MIN_VALUE));
-        Assertions.assertThat(ApiRequestBuilder.requestGetCallUsingInvalidToken(fullEndpoint)).isEqualTo(true);
+        Assertions.assertThat(ApiRequestBuilder.requestGetCallUsingInvalidToken(ServiceType.LAB, fullEndpoint)).isEqualTo(true);
     }
 
     @Test(groups = {"openOrphanDiagTestResource", "highLevel", "fullRegression", "searchAPICall"})
@@ -87,7 +88,7 @@ public class TestOpenOrphanDiagTest {
     @Test(groups = {"openOrphanDiagTestResource",  "fullRegression"})
     public void TC011_POST_OpenOrphanDiagTest_Update_Dtn_Status_Not_Authorized_Error() {
         String fullEndpoint = ApiActions.buildLabServiceEndpoint("/rest/orphanDiagnosticTests/%s/update", String.valueOf(Integer.MIN_VALUE));
-        Assertions.assertThat(ApiRequestBuilder.requestGetCallUsingInvalidToken(fullEndpoint)).isEqualTo(true);
+        Assertions.assertThat(ApiRequestBuilder.requestGetCallUsingInvalidToken(ServiceType.LAB, fullEndpoint)).isEqualTo(true);
     }
 
     @Test(groups = {"openOrphanDiagTestResource", "highLevel", "fullRegression", "searchAPICall"})
@@ -0,0 +1,68 @@
+package org.op_ra.utils;
+
+import org.assertj.core.api.Assertions;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Which queries {@link TestDataStore#findRow(String)} answers from a loaded table, and which it leaves to the
+ * database by returning {@code null}.
+ */
+public class TestPrefetchedLookups {
+
+    @BeforeClass
+    public void setUp() {
+        TestDataStore.load("openerx", Arrays.asList(row("1", "Brand A"), row("2", "Brand B"), row("10", "O'Brand")));
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void tearDown() {
+        TestDataStore.clear();
+    }
+
+    @Test
+    public void TC001_SimpleLookupsAreAnsweredFromTheStore() {
+        Assertions.assertThat(TestDataStore.findRow("SELECT * FROM openerx WHERE ID = 1")).containsEntry("NAME", "Brand A");
+        Assertions.assertThat(TestDataStore.findRow("select * from OPENERX where id=2;")).containsEntry("NAME", "Brand B");
+        Assertions.assertThat(TestDataStore.findRow("SELECT * FROM openerx WHERE ID = '2'")).containsEntry("NAME", "Brand B");
+        Assertions.assertThat(TestDataStore.findRow("SELECT * FROM openerx WHERE ID = 1 LIMIT 1")).containsEntry("NAME", "Brand A");
+        Assertions.assertThat(TestDataStore.findRow("SELECT * FROM openerx WHERE NAME = 'Brand B' limit 1 ;")).containsEntry("ID", "2");
+        Assertions.assertThat(TestDataStore.findRow("  SELECT *  FROM openerx  WHERE ID = -5  ")).isEmpty();
+    }
+
+    @Test
+    public void TC002_OtherQueriesFallBackToTheDatabase() {
+        String[] queries = {
+                "SELECT * FROM openerx WHERE ID = 1 LIMIT 10",
+                "SELECT * FROM openerx WHERE ID = 1 LIMIT 1 OFFSET 1",
+                "SELECT * FROM openerx WHERE ID = 1 AND NAME = 'Brand A'",
+                "SELECT * FROM openerx WHERE ID = 1 OR 1 = 1",
+                "SELECT * FROM openerx WHERE ID = 1 ORDER BY NAME",
+                "SELECT * FROM openerx WHERE ID = 01",
+                "SELECT * FROM openerx WHERE ID = 1.0",
+                "SELECT * FROM openerx WHERE ID = NAME",
+                "SELECT * FROM openerx WHERE NAME = 'O''Brand'",
+                "SELECT * FROM openerx WHERE MISSING = 1",
+                "SELECT NAME FROM openerx WHERE ID = 1",
+                "SELECT * FROM openerx WHERE ID > 1",
+                "SELECT * FROM unloaded WHERE ID = 1",
+                "SELECT * FROM openerx WHERE ID = 1; DELETE FROM openerx"
+        };
+        for (String query : queries) {
+            Assertions.assertThat(TestDataStore.findRow(query)).as(query).isNull();
+        }
+    }
+
+    private static Map<String, String> row(String id, String name) {
+        Map<String, String> row = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        row.put("ID", id);
+        row.put("NAME", name);
+        return Collections.unmodifiableMap(row);
+    }
+}